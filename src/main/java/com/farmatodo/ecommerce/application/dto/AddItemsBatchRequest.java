@@ -0,0 +1,16 @@
+package com.farmatodo.ecommerce.application.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class AddItemsBatchRequest {
+
+    @NotEmpty(message = "La lista de productos no puede estar vacía")
+    @Size(max = 100, message = "No se pueden añadir más de 100 productos por solicitud")
+    private List<@Valid AddItemRequest> items;
+}
@@ -0,0 +1,17 @@
+package com.farmatodo.ecommerce.application.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Línea de un carrito anónimo que no cupo completa en el stock al pasar a BD:
+ * addedQuantity es lo que realmente se agregó (0 si la línea se descartó).
+ */
+@Data
+@Builder
+public class AdjustedItemResponse {
+    private Long productId;
+    private String productName;
+    private int requestedQuantity;
+    private int addedQuantity;
+}
@@ -0,0 +1,13 @@
+package com.farmatodo.ecommerce.application.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+
+@Data
+@Builder
+public class CartDetailResponse {
+    private CartResponse cart;
+    private String etag;
+    private boolean notModified;
+}
@@ -1,6 +1,7 @@
 package com.farmatodo.ecommerce.application.dto;
 
 import com.farmatodo.ecommerce.domain.model.ShoppingCart;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Data;
 import java.math.BigDecimal;
@@ -16,4 +17,6 @@ public class CartResponse {
     private BigDecimal totalAmount;
     private int totalItems;
     private List<CartItemResponse> items;
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<AdjustedItemResponse> adjustedItems;
 }
\ No newline at end of file
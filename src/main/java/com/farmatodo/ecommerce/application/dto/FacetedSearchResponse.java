@@ -0,0 +1,15 @@
+package com.farmatodo.ecommerce.application.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import java.util.List;
+import java.util.Map;
+
+
+@Data
+@Builder
+public class FacetedSearchResponse {
+    private List<ProductResponse> items;
+    private Map<String, Long> categories;
+    private Map<String, Long> brands;
+}
@@ -0,0 +1,15 @@
+package com.farmatodo.ecommerce.application.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+
+@Data
+@Builder
+public class ProductDetailResponse {
+    private ProductResponse product;
+    private String etag;
+    private Instant lastModified;
+}
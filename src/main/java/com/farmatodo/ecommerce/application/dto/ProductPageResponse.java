@@ -0,0 +1,13 @@
+package com.farmatodo.ecommerce.application.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import java.util.List;
+
+
+@Data
+@Builder
+public class ProductPageResponse {
+    private List<ProductResponse> items;
+    private String nextCursor;
+}
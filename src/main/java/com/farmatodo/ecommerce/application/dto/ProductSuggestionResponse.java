@@ -0,0 +1,13 @@
+package com.farmatodo.ecommerce.application.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import java.util.UUID;
+
+
+@Data
+@Builder
+public class ProductSuggestionResponse {
+    private UUID uuid;
+    private String name;
+}
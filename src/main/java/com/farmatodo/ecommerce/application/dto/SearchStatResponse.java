@@ -0,0 +1,16 @@
+package com.farmatodo.ecommerce.application.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import java.time.OffsetDateTime;
+
+
+@Data
+@Builder
+public class SearchStatResponse {
+    private String query;
+    private OffsetDateTime hour;
+    private long searches;
+    private long zeroResultSearches;
+    private double averageResults;
+}
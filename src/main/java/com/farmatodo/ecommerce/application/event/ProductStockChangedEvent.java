@@ -0,0 +1,20 @@
+package com.farmatodo.ecommerce.application.event;
+
+import com.farmatodo.ecommerce.domain.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStockChangedEvent {
+    private List<Product> products;
+    private Map<Long, Integer> previousStock;
+}
@@ -0,0 +1,22 @@
+package com.farmatodo.ecommerce.application.event.listener;
+
+import com.farmatodo.ecommerce.application.event.ProductStockChangedEvent;
+import com.farmatodo.ecommerce.domain.model.Product;
+import com.farmatodo.ecommerce.domain.port.out.ProductDetailCachePort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@RequiredArgsConstructor
+public class ProductDetailCacheEventListener {
+
+    private final ProductDetailCachePort productDetailCache;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleProductStockChanged(ProductStockChangedEvent event) {
+        for (Product product : event.getProducts()) {
+            productDetailCache.invalidate(product.getUuid());
+        }
+    }
+}
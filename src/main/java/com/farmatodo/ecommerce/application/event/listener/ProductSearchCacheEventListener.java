@@ -0,0 +1,28 @@
+package com.farmatodo.ecommerce.application.event.listener;
+
+import com.farmatodo.ecommerce.application.event.ProductStockChangedEvent;
+import com.farmatodo.ecommerce.domain.model.Product;
+import com.farmatodo.ecommerce.domain.port.out.ProductSearchCachePort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSearchCacheEventListener {
+
+    private final ProductSearchCachePort productSearchCache;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleProductStockChanged(ProductStockChangedEvent event) {
+        for (Product product : event.getProducts()) {
+            Integer previous = event.getPreviousStock().get(product.getId());
+            if (previous == null) {
+                continue;
+            }
+            productSearchCache.invalidateIfVisibilityChanged(product.getName(), previous, product.getStock());
+        }
+    }
+}
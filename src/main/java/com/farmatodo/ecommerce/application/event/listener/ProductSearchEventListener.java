@@ -2,11 +2,11 @@ package com.farmatodo.ecommerce.application.event.listener;
 
 import com.farmatodo.ecommerce.application.event.ProductSearchEvent;
 import com.farmatodo.ecommerce.domain.model.ProductSearch;
-import com.farmatodo.ecommerce.domain.port.out.ProductSearchRepositoryPort;
+import com.farmatodo.ecommerce.domain.port.out.ProductSearchWriterPort;
+import com.farmatodo.ecommerce.domain.port.out.SearchRollupAggregatorPort;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 import java.time.OffsetDateTime;
@@ -16,12 +16,11 @@ import java.time.OffsetDateTime;
 @RequiredArgsConstructor
 public class ProductSearchEventListener {
 
-    private final ProductSearchRepositoryPort productSearchRepository;
+    private final ProductSearchWriterPort productSearchWriter;
+    private final SearchRollupAggregatorPort searchRollupAggregator;
 
-    @Async
     @EventListener
     public void handleProductSearchEvent(ProductSearchEvent event) {
-        log.info("Processing async product search event for query: {}", event.getSearchQuery());
         try {
             ProductSearch logEntry = ProductSearch.builder()
                     .customerId(event.getCustomerId())
@@ -31,10 +30,11 @@ public class ProductSearchEventListener {
                     .userAgent(event.getUserAgent())
                     .searchedAt(OffsetDateTime.now())
                     .build();
-            productSearchRepository.save(logEntry);
-            log.info("Successfully saved async product search log for query: {}", event.getSearchQuery());
+            productSearchWriter.submit(logEntry);
+            searchRollupAggregator.record(event.getSearchQuery(), event.getResultsCount(),
+                    logEntry.getSearchedAt().toInstant());
         } catch (Exception e) {
-            log.error("Failed to save async product search log for query: {}", event.getSearchQuery(), e);
+            log.error("Failed to enqueue product search log for query: {}", event.getSearchQuery(), e);
         }
     }
-}
\ No newline at end of file
+}
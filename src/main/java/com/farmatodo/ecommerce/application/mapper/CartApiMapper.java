@@ -11,6 +11,7 @@ import org.mapstruct.Mapping;
 public interface CartApiMapper {
 
     @Mapping(source = "uuid", target = "cartUuid")
+    @Mapping(target = "adjustedItems", ignore = true)
     CartResponse toResponse(ShoppingCart cart);
 
     @Mapping(source = "uuid", target = "itemUuid")
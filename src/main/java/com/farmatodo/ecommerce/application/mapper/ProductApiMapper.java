@@ -1,7 +1,9 @@
 package com.farmatodo.ecommerce.application.mapper;
 
 import com.farmatodo.ecommerce.application.dto.ProductResponse;
+import com.farmatodo.ecommerce.application.dto.ProductSuggestionResponse;
 import com.farmatodo.ecommerce.domain.model.Product;
+import com.farmatodo.ecommerce.domain.model.ProductSuggestion;
 import org.mapstruct.Mapper;
 
 import java.util.List;
@@ -11,4 +13,7 @@ public interface ProductApiMapper {
 
     ProductResponse toResponse(Product product);
     List<ProductResponse> toResponseList(List<Product> products);
-}
\ No newline at end of file
+
+    ProductSuggestionResponse toSuggestionResponse(ProductSuggestion suggestion);
+    List<ProductSuggestionResponse> toSuggestionResponseList(List<ProductSuggestion> suggestions);
+}
@@ -1,31 +1,42 @@
 package com.farmatodo.ecommerce.application.usecase;
 
 import com.farmatodo.ecommerce.application.dto.AddItemRequest;
+import com.farmatodo.ecommerce.application.dto.AddItemsBatchRequest;
+import com.farmatodo.ecommerce.application.dto.AdjustedItemResponse;
 import com.farmatodo.ecommerce.application.dto.CartResponse;
 import com.farmatodo.ecommerce.application.mapper.CartApiMapper;
 import com.farmatodo.ecommerce.domain.exception.InsufficientStockException;
 import com.farmatodo.ecommerce.domain.exception.ProductNotFoundException;
 import com.farmatodo.ecommerce.domain.model.CartItem;
+import com.farmatodo.ecommerce.domain.model.CartToken;
 import com.farmatodo.ecommerce.domain.model.Product;
 import com.farmatodo.ecommerce.domain.model.ShoppingCart;
 import com.farmatodo.ecommerce.domain.port.in.AddProductToCartUseCase;
 import com.farmatodo.ecommerce.domain.port.out.CartItemRepositoryPort;
+import com.farmatodo.ecommerce.domain.port.out.CartTokenPort;
 import com.farmatodo.ecommerce.domain.port.out.CustomerRepositoryPort;
 import com.farmatodo.ecommerce.domain.port.out.ProductRepositoryPort;
 import com.farmatodo.ecommerce.domain.port.out.ShoppingCartRepositoryPort;
+import com.farmatodo.ecommerce.domain.port.out.StockLedgerPort;
+import com.farmatodo.ecommerce.domain.port.out.SystemConfigRepositoryPort;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -37,135 +48,269 @@ public class AddProductToCartUseCaseImpl implements AddProductToCartUseCase {
     private final ProductRepositoryPort productRepository;
     private final CustomerRepositoryPort customerRepository;
     private final CartApiMapper cartApiMapper;
+    private final SystemConfigRepositoryPort systemConfigRepository;
+    private final CartTokenPort cartTokenPort;
+    private final StockLedgerPort stockLedger;
 
     public static final String SESSION_ID_HEADER = "X-Session-ID";
+    private static final String CART_EXPIRATION_HOURS_KEY = "cart.expiration.hours";
+    private static final int DEFAULT_CART_EXPIRATION_HOURS = 72;
 
     @Override
     @Transactional
     public CartResponse addProductToCart(AddItemRequest request, HttpServletRequest servletRequest) {
 
-        ShoppingCart cart = getOrCreateCart(servletRequest);
-
         Product product = productRepository.findByIdAndIsActiveTrue(request.getProductId())
+                .map(this::withLedgerStock)
                 .orElseThrow(() -> new ProductNotFoundException("Producto no encontrado o no está activo. ID: " + request.getProductId()));
 
-        Optional<CartItem> existingItemOpt = cart.getItems().stream()
-                .filter(item -> item.getProductId().equals(product.getId()))
-                .findFirst();
+        if (product.getStock() < request.getQuantity()) {
+            throw new InsufficientStockException(String.format(
+                    "Stock insuficiente para '%s'. Solicitado: %d, Stock: %d",
+                    product.getName(), request.getQuantity(), product.getStock()
+            ));
+        }
 
-        CartItem itemToSave;
-        if (existingItemOpt.isPresent()) {
-            itemToSave = existingItemOpt.get();
-            int newQuantity = itemToSave.getQuantity() + request.getQuantity();
+        List<AdjustedItemResponse> adjusted = new ArrayList<>();
+        Optional<ShoppingCart> cartOpt = findOrMaterializeCart(servletRequest, adjusted);
+        if (cartOpt.isEmpty()) {
+            return issuePendingCart(Map.of(product.getId(), request.getQuantity()), Map.of(product.getId(), product));
+        }
+        ShoppingCart cart = cartOpt.get();
+        lockCart(cart);
 
-            if (product.getStock() < newQuantity) {
-                throw new InsufficientStockException(String.format(
+        CartItem addition = CartItem.builder()
+                .cartId(cart.getId())
+                .productId(product.getId())
+                .quantity(request.getQuantity())
+                .unitPrice(product.getPrice())
+                .build();
+        CartItem savedItem = cartItemRepository.addQuantity(addition, product.getStock())
+                .orElseThrow(() -> new InsufficientStockException(String.format(
                         "Stock insuficiente para '%s'. Solicitado: %d, Ya en carrito: %d, Stock: %d",
-                        product.getName(), request.getQuantity(), itemToSave.getQuantity(), product.getStock()
-                ));
-            }
-            itemToSave.setQuantity(newQuantity);
+                        product.getName(), request.getQuantity(), quantityInCart(cart, product.getId()), product.getStock()
+                )));
+        cart.getItems().removeIf(item -> item.getProductId().equals(savedItem.getProductId()));
+        savedItem.setProduct(product);
+        cart.getItems().add(savedItem);
+        BigDecimal amountDelta = savedItem.getUnitPrice().multiply(BigDecimal.valueOf(request.getQuantity()));
+        return toResponse(shoppingCartRepository.applyTotalsDelta(cart, amountDelta, request.getQuantity()), adjusted);
+    }
 
-        } else {
-            if (product.getStock() < request.getQuantity()) {
-                throw new InsufficientStockException(String.format(
-                        "Stock insuficiente para '%s'. Solicitado: %d, Stock: %d",
-                        product.getName(), request.getQuantity(), product.getStock()
-                ));
-            }
-            itemToSave = CartItem.builder()
+    @Override
+    @Transactional
+    public CartResponse addProductsToCart(AddItemsBatchRequest request, HttpServletRequest servletRequest) {
+        Map<Long, Integer> requested = new LinkedHashMap<>();
+        request.getItems().forEach(item -> requested.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+        Map<Long, Product> products = findActiveProducts(requested.keySet());
+
+        List<AdjustedItemResponse> adjusted = new ArrayList<>();
+        Optional<ShoppingCart> cartOpt = findOrMaterializeCart(servletRequest, adjusted);
+        if (cartOpt.isEmpty()) {
+            checkAvailability(requested, products, Map.of());
+            return issuePendingCart(requested, products);
+        }
+        return toResponse(addLines(cartOpt.get(), requested, products), adjusted);
+    }
+
+    // Un carrito anónimo que solo vivía en el token se suma al carrito del cliente al iniciar sesión,
+    // recortando cada línea al stock que queda libre; se devuelven las líneas recortadas.
+    @Override
+    @Transactional
+    public List<AdjustedItemResponse> mergePendingCart(String cartToken, Long customerId) {
+        Optional<CartToken> token = cartTokenPort.verify(cartToken);
+        if (token.isEmpty() || token.get().lines().isEmpty()) {
+            log.debug("Token de carrito anónimo vacío, inválido o expirado; no hay nada que fusionar.");
+            return List.of();
+        }
+        ShoppingCart cart = shoppingCartRepository.findActiveByCustomerId(customerId)
+                .orElseGet(() -> createNewCart(customerId, null, null, null));
+        Map<Long, Product> products = findActiveProducts(token.get().lines().keySet());
+        List<AdjustedItemResponse> adjusted = new ArrayList<>();
+        Map<Long, Integer> lines = fitToStock(token.get().lines(), products, cart, adjusted);
+        if (!lines.isEmpty()) {
+            addLines(cart, lines, products);
+        }
+        log.info("Carrito pendiente fusionado con el cliente {}: {} líneas, {} ajustadas al stock.",
+                customerId, lines.size(), adjusted.size());
+        return adjusted;
+    }
+
+    private ShoppingCart addLines(ShoppingCart cart, Map<Long, Integer> requested, Map<Long, Product> products) {
+        Map<Long, CartItem> items = new LinkedHashMap<>();
+        cart.getItems().forEach(item -> items.put(item.getProductId(), item));
+        checkAvailability(requested, products, items);
+        lockCart(cart);
+
+        List<CartItem> lines = new ArrayList<>(requested.size());
+        Map<Long, Integer> maxQuantities = new LinkedHashMap<>();
+        requested.forEach((productId, quantity) -> {
+            lines.add(CartItem.builder()
                     .cartId(cart.getId())
-                    .productId(product.getId())
-                    .quantity(request.getQuantity())
-                    .unitPrice(product.getPrice())
-                    .product(product)
-                    .build();
+                    .productId(productId)
+                    .quantity(quantity)
+                    .unitPrice(products.get(productId).getPrice())
+                    .build());
+            maxQuantities.put(productId, products.get(productId).getStock());
+        });
+
+        // Otra petición pudo sumar unidades entre la lectura del carrito y el upsert: las líneas que
+        // superan el stock no vuelven y se rechaza el lote completo.
+        List<CartItem> savedItems = cartItemRepository.addQuantities(lines, maxQuantities);
+        if (savedItems.size() < lines.size()) {
+            Set<Long> saved = savedItems.stream().map(CartItem::getProductId).collect(Collectors.toSet());
+            Product product = requested.keySet().stream()
+                    .filter(productId -> !saved.contains(productId))
+                    .findFirst()
+                    .map(products::get)
+                    .orElseThrow();
+            throw new InsufficientStockException(String.format(
+                    "Stock insuficiente para '%s'. Solicitado: %d, Stock: %d",
+                    product.getName(), requested.get(product.getId()), product.getStock()
+            ));
         }
 
-        CartItem savedItem = cartItemRepository.save(itemToSave);
-        cart.getItems().removeIf(item -> item.getProductId().equals(savedItem.getProductId()));
-        savedItem.setProduct(product);
-        cart.getItems().add(savedItem);
-        ShoppingCart updatedCart = updateCartTotals(cart);
-        CartResponse response = cartApiMapper.toResponse(updatedCart);
-        if (updatedCart.getSessionId() != null) {
-            response.setSessionId(updatedCart.getSessionId());
+        BigDecimal amountDelta = BigDecimal.ZERO;
+        int itemsDelta = 0;
+        for (CartItem savedItem : savedItems) {
+            int added = requested.get(savedItem.getProductId());
+            amountDelta = amountDelta.add(savedItem.getUnitPrice().multiply(BigDecimal.valueOf(added)));
+            itemsDelta += added;
+            savedItem.setProduct(products.get(savedItem.getProductId()));
+            items.put(savedItem.getProductId(), savedItem);
         }
+        cart.setItems(new ArrayList<>(items.values()));
+        return shoppingCartRepository.applyTotalsDelta(cart, amountDelta, itemsDelta);
+    }
+
+    // Actualizar y quitar bloquean primero la fila del carrito y luego la línea; agregar debe seguir el mismo
+    // orden o dos pestañas del mismo carrito se bloquean mutuamente. Un delta en cero toma el lock de la fila.
+    private void lockCart(ShoppingCart cart) {
+        shoppingCartRepository.applyTotalsDelta(cart, BigDecimal.ZERO, 0);
+    }
+
+    private static void checkAvailability(Map<Long, Integer> requested, Map<Long, Product> products, Map<Long, CartItem> items) {
+        requested.forEach((productId, quantity) -> {
+            Product product = products.get(productId);
+            if (product == null) {
+                throw new ProductNotFoundException("Producto no encontrado o no está activo. ID: " + productId);
+            }
+            CartItem existing = items.get(productId);
+            int inCart = existing == null ? 0 : existing.getQuantity();
+            if (product.getStock() < inCart + quantity) {
+                throw new InsufficientStockException(String.format(
+                        "Stock insuficiente para '%s'. Solicitado: %d, Ya en carrito: %d, Stock: %d",
+                        product.getName(), quantity, inCart, product.getStock()
+                ));
+            }
+        });
+    }
+
+    private Map<Long, Product> findActiveProducts(Collection<Long> productIds) {
+        return productRepository.findAllActiveByIds(productIds).stream()
+                .map(this::withLedgerStock)
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
+    private Product withLedgerStock(Product product) {
+        stockLedger.available(product.getId()).ifPresent(product::setStock);
+        return product;
+    }
+
+    private CartResponse issuePendingCart(Map<Long, Integer> requested, Map<Long, Product> products) {
+        String token = cartTokenPort.issue(UUID.randomUUID().toString(), requested);
+        return toResponse(CartSupport.pendingCart(token, requested, products));
+    }
+
+    private static int quantityInCart(ShoppingCart cart, Long productId) {
+        return cart.getItems().stream()
+                .filter(item -> item.getProductId().equals(productId))
+                .mapToInt(CartItem::getQuantity)
+                .sum();
+    }
+
+    private CartResponse toResponse(ShoppingCart cart) {
+        return CartSupport.toResponse(cartApiMapper, cart);
+    }
+
+    private CartResponse toResponse(ShoppingCart cart, List<AdjustedItemResponse> adjusted) {
+        CartResponse response = toResponse(cart);
+        response.setAdjustedItems(adjusted);
         return response;
     }
 
-    private ShoppingCart getOrCreateCart(HttpServletRequest request) {
-        Long customerId = getAuthenticatedCustomerId();
+    // Al pasar un carrito del token a BD, las líneas que ya no caben en el stock se agregan en `adjusted`.
+    private Optional<ShoppingCart> findOrMaterializeCart(HttpServletRequest request, List<AdjustedItemResponse> adjusted) {
+        Long customerId = CartSupport.authenticatedCustomerId(customerRepository);
+        if (customerId != null) {
+            return Optional.of(shoppingCartRepository.findActiveByCustomerId(customerId)
+                    .orElseGet(() -> createNewCart(customerId, null, request.getRemoteAddr(), request.getHeader("User-Agent"))));
+        }
+
         String sessionId = request.getHeader(SESSION_ID_HEADER);
+        if (sessionId == null) {
+            return Optional.empty();
+        }
+        if (!cartTokenPort.isToken(sessionId)) {
+            return shoppingCartRepository.findActiveBySessionId(sessionId);
+        }
+        Optional<CartToken> token = cartTokenPort.verify(sessionId);
+        if (token.isEmpty()) {
+            log.debug("Token de carrito anónimo inválido o expirado, se emitirá uno nuevo.");
+            return Optional.empty();
+        }
+        return Optional.of(materialize(token.get(), request, adjusted));
+    }
 
-        if (customerId != null) {
-            Optional<ShoppingCart> cartOpt = shoppingCartRepository.findActiveByCustomerId(customerId);
-            if (cartOpt.isPresent()) {
-                return cartOpt.get();
+    private ShoppingCart materialize(CartToken token, HttpServletRequest request, List<AdjustedItemResponse> adjusted) {
+        Optional<ShoppingCart> existing = shoppingCartRepository.findActiveBySessionId(token.sessionId());
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        ShoppingCart cart = createNewCart(null, token.sessionId(), request.getRemoteAddr(), request.getHeader("User-Agent"));
+        Map<Long, Product> products = findActiveProducts(token.lines().keySet());
+        Map<Long, Integer> lines = fitToStock(token.lines(), products, cart, adjusted);
+        if (lines.isEmpty()) {
+            return cart;
+        }
+        return addLines(cart, lines, products);
+    }
+
+    private static Map<Long, Integer> fitToStock(Map<Long, Integer> requested, Map<Long, Product> products,
+                                                 ShoppingCart cart, List<AdjustedItemResponse> adjusted) {
+        Map<Long, Integer> lines = new LinkedHashMap<>();
+        requested.forEach((productId, quantity) -> {
+            Product product = products.get(productId);
+            int free = product == null ? 0 : product.getStock() - quantityInCart(cart, productId);
+            int added = Math.max(0, Math.min(quantity, free));
+            if (added > 0) {
+                lines.put(productId, added);
             }
-            return createNewCart(customerId, null, request);
-
-        } else {
-            if (sessionId != null) {
-                Optional<ShoppingCart> cartOpt = shoppingCartRepository.findActiveBySessionId(sessionId);
-                if (cartOpt.isPresent()) {
-                    return cartOpt.get();
-                }
+            if (added < quantity) {
+                adjusted.add(AdjustedItemResponse.builder()
+                        .productId(productId)
+                        .productName(product == null ? null : product.getName())
+                        .requestedQuantity(quantity)
+                        .addedQuantity(added)
+                        .build());
             }
-            String newSessionId = UUID.randomUUID().toString();
-            return createNewCart(null, newSessionId, request);
-        }
+        });
+        return lines;
     }
 
-    private ShoppingCart createNewCart(Long customerId, String sessionId, HttpServletRequest request) {
-        OffsetDateTime expiresAt = OffsetDateTime.now().plusHours(72);
+    private ShoppingCart createNewCart(Long customerId, String sessionId, String ipAddress, String userAgent) {
+        int expirationHours = systemConfigRepository.getValueAsInt(CART_EXPIRATION_HOURS_KEY, DEFAULT_CART_EXPIRATION_HOURS);
+        OffsetDateTime expiresAt = OffsetDateTime.now().plusHours(expirationHours);
         ShoppingCart newCart = ShoppingCart.builder()
                 .customerId(customerId)
                 .sessionId(sessionId)
                 .status(ShoppingCart.CartStatus.ACTIVE)
                 .totalAmount(BigDecimal.ZERO)
                 .totalItems(0)
-                .ipAddress(request.getRemoteAddr())
-                .userAgent(request.getHeader("User-Agent"))
+                .ipAddress(ipAddress)
+                .userAgent(userAgent)
                 .expiresAt(expiresAt)
                 .build();
         return shoppingCartRepository.save(newCart);
     }
-
-    private ShoppingCart updateCartTotals(ShoppingCart cart) {
-        BigDecimal totalAmount = BigDecimal.ZERO;
-        int totalItems = 0;
-        if (cart.getItems() == null) {
-            cart.setTotalAmount(BigDecimal.ZERO);
-            cart.setTotalItems(0);
-            return shoppingCartRepository.save(cart);
-        }
-
-        for (CartItem item : cart.getItems()) {
-            BigDecimal itemSubtotal = item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
-            item.setSubtotal(itemSubtotal);
-
-            totalAmount = totalAmount.add(itemSubtotal);
-            totalItems += item.getQuantity();
-        }
-
-        cart.setTotalAmount(totalAmount);
-        cart.setTotalItems(totalItems);
-        return shoppingCartRepository.save(cart);
-    }
-
-    private Long getAuthenticatedCustomerId() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return null;
-        }
-        Object principal = authentication.getPrincipal();
-        if (principal instanceof User) {
-            String email = ((User) principal).getUsername();
-            return customerRepository.findByEmail(email)
-                    .map(customer -> customer.getId())
-                    .orElse(null);
-        }
-        return null;
-    }
 }
\ No newline at end of file
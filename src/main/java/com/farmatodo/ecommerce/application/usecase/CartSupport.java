@@ -0,0 +1,71 @@
+package com.farmatodo.ecommerce.application.usecase;
+
+import com.farmatodo.ecommerce.application.dto.CartResponse;
+import com.farmatodo.ecommerce.application.mapper.CartApiMapper;
+import com.farmatodo.ecommerce.domain.model.CartItem;
+import com.farmatodo.ecommerce.domain.model.Product;
+import com.farmatodo.ecommerce.domain.model.ShoppingCart;
+import com.farmatodo.ecommerce.domain.port.out.CustomerRepositoryPort;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Piezas comunes de los casos de uso del carrito: cliente autenticado, respuesta con el token o sesión
+ * y el carrito pendiente que se arma desde las líneas de un token firmado.
+ */
+final class CartSupport {
+
+    private CartSupport() {
+    }
+
+    static Long authenticatedCustomerId(CustomerRepositoryPort customerRepository) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return null;
+        }
+        if (authentication.getPrincipal() instanceof User user) {
+            return customerRepository.findByEmail(user.getUsername())
+                    .map(customer -> customer.getId())
+                    .orElse(null);
+        }
+        return null;
+    }
+
+    static CartResponse toResponse(CartApiMapper cartApiMapper, ShoppingCart cart) {
+        CartResponse response = cartApiMapper.toResponse(cart);
+        if (cart.getSessionId() != null) {
+            response.setSessionId(cart.getSessionId());
+        }
+        return response;
+    }
+
+    // Las líneas cuyo producto ya no está activo se omiten.
+    static ShoppingCart pendingCart(String token, Map<Long, Integer> lines, Map<Long, Product> products) {
+        List<CartItem> items = new ArrayList<>(lines.size());
+        lines.forEach((productId, quantity) -> {
+            Product product = products.get(productId);
+            if (product != null) {
+                items.add(CartItem.builder()
+                        .productId(productId)
+                        .quantity(quantity)
+                        .unitPrice(product.getPrice())
+                        .subtotal(product.getPrice().multiply(BigDecimal.valueOf(quantity)))
+                        .product(product)
+                        .build());
+            }
+        });
+        return ShoppingCart.builder()
+                .sessionId(token)
+                .status(ShoppingCart.CartStatus.ACTIVE)
+                .totalAmount(items.stream().map(CartItem::getSubtotal).reduce(BigDecimal.ZERO, BigDecimal::add))
+                .totalItems(items.stream().mapToInt(CartItem::getQuantity).sum())
+                .items(items)
+                .build();
+    }
+}
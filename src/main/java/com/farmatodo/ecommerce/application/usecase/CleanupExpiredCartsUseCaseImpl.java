@@ -0,0 +1,59 @@
+package com.farmatodo.ecommerce.application.usecase;
+
+import com.farmatodo.ecommerce.domain.port.in.CleanupExpiredCartsUseCase;
+import com.farmatodo.ecommerce.domain.port.out.ShoppingCartRepositoryPort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Expira los carritos vencidos y elimina los expirados más antiguos que la retención, en lotes acotados.
+ * No es transaccional a propósito: cada lote se confirma por separado para no retener bloqueos largos.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CleanupExpiredCartsUseCaseImpl implements CleanupExpiredCartsUseCase {
+
+    private final ShoppingCartRepositoryPort shoppingCartRepository;
+
+    @Value("${cart.cleanup.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${cart.cleanup.max-chunks:200}")
+    private int maxChunks;
+
+    @Value("${cart.cleanup.retention-days:30}")
+    private int retentionDays;
+
+    @Override
+    public void cleanupExpiredCarts() {
+        int expired = runInChunks("expirar", shoppingCartRepository::expireCarts);
+        OffsetDateTime purgeBefore = OffsetDateTime.now().minusDays(retentionDays);
+        int purged = runInChunks("eliminar", limit -> shoppingCartRepository.purgeExpiredCarts(purgeBefore, limit));
+        log.info("Limpieza de carritos finalizada: {} expirados, {} eliminados.", expired, purged);
+    }
+
+    private int runInChunks(String action, IntUnaryOperator chunk) {
+        int total = 0;
+        for (int i = 1; i <= maxChunks; i++) {
+            long start = System.nanoTime();
+            int rows = chunk.applyAsInt(chunkSize);
+            total += rows;
+            if (rows > 0) {
+                log.info("Lote {} al {} carritos: {} filas en {} ms",
+                        i, action, rows, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+            if (rows < chunkSize) {
+                return total;
+            }
+        }
+        log.warn("Se alcanzó el máximo de {} lotes al {} carritos, se continuará en la próxima ejecución.", maxChunks, action);
+        return total;
+    }
+}
@@ -2,16 +2,19 @@ package com.farmatodo.ecommerce.application.usecase;
 
 import com.farmatodo.ecommerce.application.dto.CreateOrderRequest;
 import com.farmatodo.ecommerce.application.dto.OrderResponse;
+import com.farmatodo.ecommerce.application.event.ProductStockChangedEvent;
 import com.farmatodo.ecommerce.application.mapper.OrderApiMapper;
 import com.farmatodo.ecommerce.domain.exception.CartNotFoundException;
 import com.farmatodo.ecommerce.domain.exception.InsufficientStockException;
 import com.farmatodo.ecommerce.domain.exception.ProductNotFoundException;
+import com.farmatodo.ecommerce.domain.exception.StockLedgerUnavailableException;
 import com.farmatodo.ecommerce.domain.exception.TokenizationException;
 import com.farmatodo.ecommerce.domain.model.*;
 import com.farmatodo.ecommerce.domain.port.in.CreateOrderUseCase;
 import com.farmatodo.ecommerce.domain.port.out.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
@@ -21,8 +24,16 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -31,6 +42,9 @@ public class CreateOrderUseCaseImpl implements CreateOrderUseCase {
 
     private final ShoppingCartRepositoryPort shoppingCartRepository;
     private final ProductRepositoryPort productRepository;
+    private final StockShardRepositoryPort stockShardRepository;
+    private final StockLedgerPort stockLedger;
+    private final OrderNumberGeneratorPort orderNumberGenerator;
     private final CustomerRepositoryPort customerRepository;
     private final TokenizedCardRepositoryPort tokenizedCardRepository;
     private final OrderRepositoryPort orderRepository;
@@ -38,9 +52,11 @@ public class CreateOrderUseCaseImpl implements CreateOrderUseCase {
     private final PaymentRepositoryPort paymentRepository;
     private final SystemConfigRepositoryPort systemConfigRepository;
     private final OrderApiMapper orderApiMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final String TAX_RATE_KEY = "tax.rate.percentage";
     private static final String MAX_ATTEMPTS_KEY = "payment.max.retry.attempts";
+    private static final String ORDER_NUMBER_PREFIX_KEY = "order.number.prefix";
 
     @Override
     @Transactional
@@ -62,16 +78,29 @@ public class CreateOrderUseCaseImpl implements CreateOrderUseCase {
 
         log.info("Iniciando creación de orden para cliente: {}", customerId);
 
-        List<Product> productsToUpdate = new ArrayList<>();
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        cart.getItems().forEach(item -> quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+        Set<Long> sharded = new HashSet<>();
+        List<Long> rejected = decrementStock(quantities, sharded);
+        Map<Long, Integer> shardedStock = sharded.isEmpty() ? Map.of() : stockShardRepository.findStockTotals(sharded);
+        Map<Long, Product> products = productRepository.findAllActiveByIds(quantities.keySet()).stream()
+                .map(product -> {
+                    stockLedger.available(product.getId()).ifPresent(product::setStock);
+                    Optional.ofNullable(shardedStock.get(product.getId())).ifPresent(product::setStock);
+                    return product;
+                })
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        Map<Long, Integer> previousStock = new HashMap<>();
         for (CartItem item : cart.getItems()) {
-            Product product = productRepository.findByIdForUpdate(item.getProductId())
-                    .orElseThrow(() -> new ProductNotFoundException("Producto no encontrado. ID: " + item.getProductId()));
-
-            if (product.getStock() < item.getQuantity()) {
+            Product product = products.get(item.getProductId());
+            if (product == null) {
+                throw new ProductNotFoundException("Producto no encontrado. ID: " + item.getProductId());
+            }
+            if (rejected.contains(product.getId())) {
                 throw new InsufficientStockException("Stock insuficiente para: " + product.getName());
             }
-            product.setStock(product.getStock() - item.getQuantity());
-            productsToUpdate.add(product);
+            previousStock.put(product.getId(), product.getStock() + quantities.get(product.getId()));
             item.setProduct(product);
         }
 
@@ -82,7 +111,8 @@ public class CreateOrderUseCaseImpl implements CreateOrderUseCase {
         BigDecimal totalAmount = subtotal.add(taxAmount).add(shippingCost);
         Order order = Order.builder()
                 .customerId(customerId)
-                .orderNumber("ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase())
+                .orderNumber(orderNumberGenerator.nextOrderNumber(
+                        systemConfigRepository.getValue(ORDER_NUMBER_PREFIX_KEY).orElse("ORD")))
                 .shippingAddressLine1(request.getShippingAddressLine1())
                 .shippingAddressLine2(request.getShippingAddressLine2())
                 .shippingCity(request.getShippingCity())
@@ -110,7 +140,7 @@ public class CreateOrderUseCaseImpl implements CreateOrderUseCase {
         List<OrderItem> savedItems = orderItemRepository.saveAll(orderItems);
         savedOrder.setItems(savedItems);
 
-        productRepository.saveAll(productsToUpdate);
+        eventPublisher.publishEvent(new ProductStockChangedEvent(new ArrayList<>(products.values()), previousStock));
 
         int maxAttempts = systemConfigRepository.getValueAsInt(MAX_ATTEMPTS_KEY, 3);
         Payment payment = Payment.builder()
@@ -132,6 +162,43 @@ public class CreateOrderUseCaseImpl implements CreateOrderUseCase {
         return orderApiMapper.toResponse(savedOrder);
     }
 
+    // Lo que lleva el ledger en memoria se reserva ahí; el resto se descuenta en products y, si es un SKU
+    // repartido en cubos, en sus cubos. Una reserva del ledger se deshace sola si la transacción no confirma.
+    // Los SKUs descontados en cubos se dejan en sharded: products.stock no refleja su stock hasta la siguiente
+    // sincronización, así que el evento se publica con la suma real de los cubos. Si un SKU del ledger lo lleva
+    // otro nodo, descontarlo aquí en products pasaría por encima de su stock en memoria: se rechaza el checkout.
+    private List<Long> decrementStock(Map<Long, Integer> quantities, Set<Long> sharded) {
+        if (quantities.keySet().stream().anyMatch(stockLedger::heldElsewhere)) {
+            throw new StockLedgerUnavailableException(
+                    "El inventario de un producto del pedido se está gestionando en otro nodo. Inténtalo de nuevo en unos segundos.");
+        }
+        Map<Long, Integer> inLedger = new LinkedHashMap<>();
+        Map<Long, Integer> inDatabase = new LinkedHashMap<>();
+        quantities.forEach((productId, quantity) ->
+                (stockLedger.available(productId).isPresent() ? inLedger : inDatabase).put(productId, quantity));
+        if (!inLedger.isEmpty()) {
+            List<Long> rejected = stockLedger.reserve(inLedger);
+            if (!rejected.isEmpty()) {
+                return rejected;
+            }
+        }
+        if (inDatabase.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> rejected = productRepository.decrementStock(inDatabase);
+        if (rejected.isEmpty()) {
+            return rejected;
+        }
+        Map<Long, Integer> remaining = new LinkedHashMap<>();
+        rejected.forEach(productId -> remaining.put(productId, inDatabase.get(productId)));
+        List<Long> rejectedByShards = stockShardRepository.decrementStock(remaining);
+        remaining.keySet().stream()
+                .filter(productId -> !rejectedByShards.contains(productId))
+                .forEach(sharded::add);
+        return rejectedByShards;
+    }
+
     private Customer getAuthenticatedCustomer() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !(authentication.getPrincipal() instanceof User)) {
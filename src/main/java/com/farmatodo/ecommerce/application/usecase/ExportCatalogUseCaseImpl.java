@@ -0,0 +1,34 @@
+package com.farmatodo.ecommerce.application.usecase;
+
+import com.farmatodo.ecommerce.application.dto.ProductResponse;
+import com.farmatodo.ecommerce.application.mapper.ProductApiMapper;
+import com.farmatodo.ecommerce.domain.port.in.ExportCatalogUseCase;
+import com.farmatodo.ecommerce.domain.port.out.ProductRepositoryPort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.function.Consumer;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportCatalogUseCaseImpl implements ExportCatalogUseCase {
+
+    private final ProductRepositoryPort productRepository;
+    private final ProductApiMapper productApiMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportCatalog(Consumer<ProductResponse> consumer) {
+        long start = System.currentTimeMillis();
+        long[] exported = {0};
+        productRepository.forEachActive(product -> {
+            consumer.accept(productApiMapper.toResponse(product));
+            exported[0]++;
+        });
+        log.info("Exportación de catálogo completada: {} productos en {} ms",
+                exported[0], System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,44 @@
+package com.farmatodo.ecommerce.application.usecase;
+
+import com.farmatodo.ecommerce.application.dto.ProductDetailResponse;
+import com.farmatodo.ecommerce.application.mapper.ProductApiMapper;
+import com.farmatodo.ecommerce.domain.exception.ProductNotFoundException;
+import com.farmatodo.ecommerce.domain.model.Product;
+import com.farmatodo.ecommerce.domain.port.in.GetProductUseCase;
+import com.farmatodo.ecommerce.domain.port.out.ProductDetailCachePort;
+import com.farmatodo.ecommerce.domain.port.out.ProductRepositoryPort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class GetProductUseCaseImpl implements GetProductUseCase {
+
+    private final ProductRepositoryPort productRepository;
+    private final ProductDetailCachePort productDetailCache;
+    private final ProductApiMapper productApiMapper;
+
+    @Override
+    public ProductDetailResponse getProduct(String uuid) {
+        UUID productUuid = UUID.fromString(uuid);
+        Product product = productDetailCache.get(productUuid, () ->
+                productRepository.findByUuidAndIsActiveTrue(productUuid)
+                        .orElseThrow(() -> new ProductNotFoundException("Producto no encontrado o no está activo. UUID: " + uuid)));
+        return toDetail(product);
+    }
+
+    private ProductDetailResponse toDetail(Product product) {
+        Instant lastModified = product.getUpdatedAt() != null
+                ? product.getUpdatedAt().toInstant()
+                : Instant.EPOCH;
+        long micros = lastModified.getEpochSecond() * 1_000_000L + lastModified.getNano() / 1_000;
+        return ProductDetailResponse.builder()
+                .product(productApiMapper.toResponse(product))
+                .etag("\"" + Long.toHexString(micros) + "\"")
+                .lastModified(lastModified)
+                .build();
+    }
+}
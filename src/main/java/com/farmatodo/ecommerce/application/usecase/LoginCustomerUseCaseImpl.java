@@ -1,17 +1,25 @@
 package com.farmatodo.ecommerce.application.usecase;
 
+import com.farmatodo.ecommerce.application.dto.AdjustedItemResponse;
 import com.farmatodo.ecommerce.application.dto.AuthResponse;
 import com.farmatodo.ecommerce.application.dto.LoginRequest;
 import com.farmatodo.ecommerce.domain.model.Customer;
+import com.farmatodo.ecommerce.domain.port.in.AddProductToCartUseCase;
 import com.farmatodo.ecommerce.domain.port.in.LoginCustomerUseCase;
+import com.farmatodo.ecommerce.domain.port.out.CartTokenPort;
 import com.farmatodo.ecommerce.domain.port.out.CustomerRepositoryPort;
+import com.farmatodo.ecommerce.domain.port.out.ShoppingCartRepositoryPort;
 import com.farmatodo.ecommerce.infrastructure.security.JwtService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class LoginCustomerUseCaseImpl implements LoginCustomerUseCase {
@@ -19,9 +27,12 @@ public class LoginCustomerUseCaseImpl implements LoginCustomerUseCase {
     private final CustomerRepositoryPort customerRepositoryPort;
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
+    private final ShoppingCartRepositoryPort shoppingCartRepository;
+    private final CartTokenPort cartTokenPort;
+    private final AddProductToCartUseCase addProductToCartUseCase;
 
     @Override
-    public AuthResponse login(LoginRequest request) {
+    public AuthResponse login(LoginRequest request, String sessionId) {
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         request.getEmail(),
@@ -32,6 +43,9 @@ public class LoginCustomerUseCaseImpl implements LoginCustomerUseCase {
         String userEmail = authentication.getName();
         Customer customer = customerRepositoryPort.findByEmail(userEmail)
                 .orElseThrow(() -> new IllegalStateException("Usuario autenticado no encontrado en BD"));
+        if (sessionId != null && !sessionId.isBlank()) {
+            mergeAnonymousCart(sessionId, customer.getId());
+        }
         String jwtToken = jwtService.generateToken((org.springframework.security.core.userdetails.UserDetails) authentication.getPrincipal());
         return AuthResponse.builder()
                 .token(jwtToken)
@@ -39,4 +53,18 @@ public class LoginCustomerUseCaseImpl implements LoginCustomerUseCase {
                 .firstName(customer.getFirstName())
                 .build();
     }
+
+    private void mergeAnonymousCart(String sessionId, Long customerId) {
+        try {
+            if (cartTokenPort.isToken(sessionId)) {
+                List<AdjustedItemResponse> adjusted = addProductToCartUseCase.mergePendingCart(sessionId, customerId);
+                adjusted.forEach(item -> log.warn("Línea del carrito anónimo ajustada al stock para el cliente {}: producto {}, solicitado {}, agregado {}",
+                        customerId, item.getProductId(), item.getRequestedQuantity(), item.getAddedQuantity()));
+            } else {
+                shoppingCartRepository.mergeAnonymousCart(sessionId, customerId);
+            }
+        } catch (Exception e) {
+            log.error("Error al fusionar el carrito anónimo {} con el cliente {}: {}", sessionId, customerId, e.getMessage(), e);
+        }
+    }
 }
\ No newline at end of file
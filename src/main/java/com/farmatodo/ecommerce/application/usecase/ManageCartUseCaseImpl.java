@@ -0,0 +1,245 @@
+package com.farmatodo.ecommerce.application.usecase;
+
+import com.farmatodo.ecommerce.application.dto.CartDetailResponse;
+import com.farmatodo.ecommerce.application.dto.CartResponse;
+import com.farmatodo.ecommerce.application.dto.UpdateItemQuantityRequest;
+import com.farmatodo.ecommerce.application.mapper.CartApiMapper;
+import com.farmatodo.ecommerce.domain.exception.CartNotFoundException;
+import com.farmatodo.ecommerce.domain.exception.CartVersionConflictException;
+import com.farmatodo.ecommerce.domain.exception.InsufficientStockException;
+import com.farmatodo.ecommerce.domain.exception.ProductNotFoundException;
+import com.farmatodo.ecommerce.domain.model.CartItem;
+import com.farmatodo.ecommerce.domain.model.CartToken;
+import com.farmatodo.ecommerce.domain.model.Product;
+import com.farmatodo.ecommerce.domain.model.ShoppingCart;
+import com.farmatodo.ecommerce.domain.port.in.ManageCartUseCase;
+import com.farmatodo.ecommerce.domain.port.out.CartItemRepositoryPort;
+import com.farmatodo.ecommerce.domain.port.out.CartTokenPort;
+import com.farmatodo.ecommerce.domain.port.out.CustomerRepositoryPort;
+import com.farmatodo.ecommerce.domain.port.out.ProductRepositoryPort;
+import com.farmatodo.ecommerce.domain.port.out.ShoppingCartRepositoryPort;
+import com.farmatodo.ecommerce.domain.port.out.StockLedgerPort;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Lectura y edición del carrito con concurrencia optimista: el ETag es uuid-versión del carrito,
+ * GET responde 304 comparando solo la versión y las escrituras fallan con 412 si otra pestaña
+ * modificó el carrito entre la lectura y el UPDATE condicionado por versión.
+ */
+@Service
+@RequiredArgsConstructor
+public class ManageCartUseCaseImpl implements ManageCartUseCase {
+
+    private static final String SESSION_ID_HEADER = AddProductToCartUseCaseImpl.SESSION_ID_HEADER;
+    private static final String VERSION_CONFLICT_MESSAGE =
+            "El carrito fue modificado desde la última lectura. Consúltalo de nuevo e inténtalo otra vez.";
+
+    private final ShoppingCartRepositoryPort shoppingCartRepository;
+    private final CartItemRepositoryPort cartItemRepository;
+    private final ProductRepositoryPort productRepository;
+    private final CustomerRepositoryPort customerRepository;
+    private final CartApiMapper cartApiMapper;
+    private final CartTokenPort cartTokenPort;
+    private final StockLedgerPort stockLedger;
+
+    @Override
+    @Transactional(readOnly = true)
+    public CartDetailResponse getCart(HttpServletRequest servletRequest, String ifNoneMatch) {
+        Long customerId = CartSupport.authenticatedCustomerId(customerRepository);
+        String sessionId = servletRequest.getHeader(SESSION_ID_HEADER);
+        if (customerId == null && cartTokenPort.isToken(sessionId)) {
+            return cartTokenPort.verify(sessionId)
+                    .map(token -> pendingDetail(sessionId, token.lines()))
+                    .orElseGet(this::emptyDetail);
+        }
+
+        Optional<ShoppingCart> version = customerId != null
+                ? shoppingCartRepository.findActiveVersionByCustomerId(customerId)
+                : sessionId != null ? shoppingCartRepository.findActiveVersionBySessionId(sessionId) : Optional.empty();
+        if (version.isEmpty()) {
+            return emptyDetail();
+        }
+        String etag = etag(version.get());
+        if (matches(ifNoneMatch, etag)) {
+            return CartDetailResponse.builder().etag(etag).notModified(true).build();
+        }
+        ShoppingCart cart = shoppingCartRepository.findByIdWithItems(version.get().getId())
+                .orElseThrow(() -> new CartNotFoundException("No se encontró un carrito activo."));
+        return detail(cart);
+    }
+
+    @Override
+    @Transactional
+    public CartDetailResponse updateItemQuantity(Long productId, UpdateItemQuantityRequest request, String ifMatch,
+                                                 HttpServletRequest servletRequest) {
+        int quantity = request.getQuantity();
+        Long customerId = CartSupport.authenticatedCustomerId(customerRepository);
+        String sessionId = servletRequest.getHeader(SESSION_ID_HEADER);
+        if (customerId == null && cartTokenPort.isToken(sessionId)) {
+            CartToken token = verifyToken(sessionId);
+            Map<Long, Integer> lines = new LinkedHashMap<>(token.lines());
+            if (!lines.containsKey(productId)) {
+                throw notInCart(productId);
+            }
+            checkStock(findActiveProduct(productId), quantity);
+            lines.put(productId, quantity);
+            return pendingDetail(cartTokenPort.issue(token.sessionId(), lines), lines);
+        }
+
+        ShoppingCart cart = loadCart(customerId, sessionId, ifMatch);
+        CartItem line = findLine(cart, productId);
+        int itemsDelta = quantity - line.getQuantity();
+        if (itemsDelta > 0) {
+            checkStock(findActiveProduct(productId), quantity);
+        }
+        BigDecimal amountDelta = line.getUnitPrice().multiply(BigDecimal.valueOf(itemsDelta));
+        ShoppingCart updated = applyIfVersion(cart, amountDelta, itemsDelta);
+        CartItem saved = cartItemRepository.updateQuantity(cart.getId(), productId, quantity)
+                .orElseThrow(() -> revert(updated, amountDelta, itemsDelta));
+        saved.setProduct(line.getProduct());
+        updated.getItems().replaceAll(item -> item == line ? saved : item);
+        return detail(updated);
+    }
+
+    @Override
+    @Transactional
+    public CartDetailResponse removeItem(Long productId, String ifMatch, HttpServletRequest servletRequest) {
+        Long customerId = CartSupport.authenticatedCustomerId(customerRepository);
+        String sessionId = servletRequest.getHeader(SESSION_ID_HEADER);
+        if (customerId == null && cartTokenPort.isToken(sessionId)) {
+            CartToken token = verifyToken(sessionId);
+            Map<Long, Integer> lines = new LinkedHashMap<>(token.lines());
+            if (lines.remove(productId) == null) {
+                throw notInCart(productId);
+            }
+            return pendingDetail(cartTokenPort.issue(token.sessionId(), lines), lines);
+        }
+
+        ShoppingCart cart = loadCart(customerId, sessionId, ifMatch);
+        CartItem line = findLine(cart, productId);
+        BigDecimal amountDelta = line.getUnitPrice().multiply(BigDecimal.valueOf(line.getQuantity())).negate();
+        ShoppingCart updated = applyIfVersion(cart, amountDelta, -line.getQuantity());
+        if (!cartItemRepository.delete(cart.getId(), productId)) {
+            throw revert(updated, amountDelta, -line.getQuantity());
+        }
+        updated.getItems().remove(line);
+        return detail(updated);
+    }
+
+    private ShoppingCart loadCart(Long customerId, String sessionId, String ifMatch) {
+        Optional<ShoppingCart> cart = customerId != null
+                ? shoppingCartRepository.findActiveByCustomerId(customerId)
+                : sessionId != null ? shoppingCartRepository.findActiveBySessionId(sessionId) : Optional.empty();
+        ShoppingCart current = cart.orElseThrow(() -> new CartNotFoundException("No se encontró un carrito activo."));
+        if (ifMatch != null && !matches(ifMatch, etag(current))) {
+            throw versionConflict();
+        }
+        return current;
+    }
+
+    private ShoppingCart applyIfVersion(ShoppingCart cart, BigDecimal amountDelta, int itemsDelta) {
+        return shoppingCartRepository.applyTotalsDeltaIfVersion(cart, amountDelta, itemsDelta, cart.getVersion())
+                .orElseThrow(this::versionConflict);
+    }
+
+    // La versión se comprueba antes de tocar la línea; si la línea ya no existe se devuelven los totales, porque
+    // con el carrito en memoria (write-behind) no hay rollback que los deshaga.
+    private CartVersionConflictException revert(ShoppingCart cart, BigDecimal amountDelta, int itemsDelta) {
+        shoppingCartRepository.applyTotalsDelta(cart, amountDelta.negate(), -itemsDelta);
+        return versionConflict();
+    }
+
+    private static CartItem findLine(ShoppingCart cart, Long productId) {
+        return cart.getItems().stream()
+                .filter(item -> item.getProductId().equals(productId))
+                .findFirst()
+                .orElseThrow(() -> notInCart(productId));
+    }
+
+    private Product findActiveProduct(Long productId) {
+        return productRepository.findByIdAndIsActiveTrue(productId)
+                .map(product -> {
+                    stockLedger.available(productId).ifPresent(product::setStock);
+                    return product;
+                })
+                .orElseThrow(() -> new ProductNotFoundException("Producto no encontrado o no está activo. ID: " + productId));
+    }
+
+    private static void checkStock(Product product, int quantity) {
+        if (product.getStock() < quantity) {
+            throw new InsufficientStockException(String.format(
+                    "Stock insuficiente para '%s'. Solicitado: %d, Stock: %d",
+                    product.getName(), quantity, product.getStock()
+            ));
+        }
+    }
+
+    private CartToken verifyToken(String token) {
+        return cartTokenPort.verify(token)
+                .orElseThrow(() -> new CartNotFoundException("El token de carrito es inválido o expiró."));
+    }
+
+    private CartDetailResponse pendingDetail(String token, Map<Long, Integer> lines) {
+        Map<Long, Product> products = lines.isEmpty() ? Map.of() : productRepository.findAllActiveByIds(lines.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return CartDetailResponse.builder().cart(toResponse(CartSupport.pendingCart(token, lines, products))).build();
+    }
+
+    private CartDetailResponse emptyDetail() {
+        return CartDetailResponse.builder()
+                .cart(CartResponse.builder()
+                        .status(ShoppingCart.CartStatus.ACTIVE)
+                        .totalAmount(BigDecimal.ZERO)
+                        .totalItems(0)
+                        .items(List.of())
+                        .build())
+                .build();
+    }
+
+    private CartDetailResponse detail(ShoppingCart cart) {
+        return CartDetailResponse.builder()
+                .cart(toResponse(cart))
+                .etag(etag(cart))
+                .build();
+    }
+
+    private CartResponse toResponse(ShoppingCart cart) {
+        return CartSupport.toResponse(cartApiMapper, cart);
+    }
+
+    private static String etag(ShoppingCart cart) {
+        return "\"" + cart.getUuid() + "-" + cart.getVersion() + "\"";
+    }
+
+    private static boolean matches(String header, String etag) {
+        if (header == null) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag) || value.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private CartVersionConflictException versionConflict() {
+        return new CartVersionConflictException(VERSION_CONFLICT_MESSAGE);
+    }
+
+    private static CartNotFoundException notInCart(Long productId) {
+        return new CartNotFoundException("El producto no está en el carrito. ID: " + productId);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.farmatodo.ecommerce.application.usecase;
+
+import com.farmatodo.ecommerce.application.dto.SearchStatResponse;
+import com.farmatodo.ecommerce.domain.exception.SearchQueryException;
+import com.farmatodo.ecommerce.domain.model.SearchRollup;
+import com.farmatodo.ecommerce.domain.port.in.SearchAnalyticsUseCase;
+import com.farmatodo.ecommerce.domain.port.out.SearchRollupRepositoryPort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class SearchAnalyticsUseCaseImpl implements SearchAnalyticsUseCase {
+
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 500;
+    private static final long DEFAULT_WINDOW_HOURS = 24;
+
+    private final SearchRollupRepositoryPort searchRollupRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SearchStatResponse> getTopQueries(OffsetDateTime from, OffsetDateTime to, Integer limit) {
+        OffsetDateTime end = to == null ? OffsetDateTime.now() : to;
+        OffsetDateTime start = resolveStart(from, end);
+        return searchRollupRepository.findTopQueries(start, end, clampLimit(limit)).stream()
+                .map(rollup -> toResponse(rollup).query(rollup.getNormalizedQuery()).build())
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SearchStatResponse> getZeroResultQueries(OffsetDateTime from, OffsetDateTime to, Integer limit) {
+        OffsetDateTime end = to == null ? OffsetDateTime.now() : to;
+        OffsetDateTime start = resolveStart(from, end);
+        return searchRollupRepository.findZeroResultQueries(start, end, clampLimit(limit)).stream()
+                .map(rollup -> toResponse(rollup).query(rollup.getNormalizedQuery()).build())
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SearchStatResponse> getHourlyVolume(OffsetDateTime from, OffsetDateTime to) {
+        OffsetDateTime end = to == null ? OffsetDateTime.now() : to;
+        OffsetDateTime start = resolveStart(from, end);
+        return searchRollupRepository.countByHour(start, end).stream()
+                .map(rollup -> toResponse(rollup).hour(rollup.getBucketStart()).build())
+                .toList();
+    }
+
+    private OffsetDateTime resolveStart(OffsetDateTime from, OffsetDateTime end) {
+        OffsetDateTime start = from == null ? end.minusHours(DEFAULT_WINDOW_HOURS) : from;
+        if (!start.isBefore(end)) {
+            throw new SearchQueryException("El rango de fechas no es válido: 'from' debe ser anterior a 'to'.");
+        }
+        return start;
+    }
+
+    private int clampLimit(Integer limit) {
+        return limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    private SearchStatResponse.SearchStatResponseBuilder toResponse(SearchRollup rollup) {
+        return SearchStatResponse.builder()
+                .searches(rollup.getSearchCount())
+                .zeroResultSearches(rollup.getZeroResultCount())
+                .averageResults(rollup.getSearchCount() == 0 ? 0 :
+                        (double) rollup.getTotalResults() / rollup.getSearchCount());
+    }
+}
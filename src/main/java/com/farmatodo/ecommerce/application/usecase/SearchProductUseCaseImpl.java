@@ -1,13 +1,18 @@
 package com.farmatodo.ecommerce.application.usecase;
 
+import com.farmatodo.ecommerce.application.dto.FacetedSearchResponse;
+import com.farmatodo.ecommerce.application.dto.ProductPageResponse;
 import com.farmatodo.ecommerce.application.dto.ProductResponse;
 import com.farmatodo.ecommerce.application.event.ProductSearchEvent;
 import com.farmatodo.ecommerce.application.mapper.ProductApiMapper;
 import com.farmatodo.ecommerce.domain.exception.SearchQueryException;
+import com.farmatodo.ecommerce.domain.model.FacetedProducts;
 import com.farmatodo.ecommerce.domain.model.Product;
+import com.farmatodo.ecommerce.domain.model.SearchText;
 import com.farmatodo.ecommerce.domain.port.in.SearchProductUseCase;
 import com.farmatodo.ecommerce.domain.port.out.CustomerRepositoryPort;
 import com.farmatodo.ecommerce.domain.port.out.ProductRepositoryPort;
+import com.farmatodo.ecommerce.domain.port.out.ProductSearchCachePort;
 import com.farmatodo.ecommerce.domain.port.out.SystemConfigRepositoryPort;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
@@ -19,7 +24,10 @@ import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -28,28 +36,124 @@ public class SearchProductUseCaseImpl implements SearchProductUseCase {
 
     private static final String MIN_STOCK_KEY = "product.min.stock.visibility";
     private static final int DEFAULT_MIN_STOCK = 5;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
 
     private final ProductRepositoryPort productRepository;
     private final SystemConfigRepositoryPort systemConfigRepository;
     private final ProductApiMapper productApiMapper;
     private final ApplicationEventPublisher eventPublisher;
     private final CustomerRepositoryPort customerRepositoryPort;
+    private final ProductSearchCachePort productSearchCache;
 
     @Override
     @Transactional(readOnly = true)
     public List<ProductResponse> searchProducts(String query, HttpServletRequest request) {
+        validateQuery(query);
+
+        String normalizedQuery = SearchText.fold(query);
+        int minStock = systemConfigRepository.getValueAsInt(MIN_STOCK_KEY, DEFAULT_MIN_STOCK);
+
+        List<Product> products = productSearchCache.get(normalizedQuery, minStock, () ->
+                productRepository.findByNameContainingIgnoreCaseAndStockGreaterThan(normalizedQuery, minStock));
+        List<ProductResponse> productResponses = productApiMapper.toResponseList(products);
+        publishSearchEvent(query, productResponses.size(), request);
+
+        return productResponses;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductPageResponse searchProductsPage(String query, Integer limit, String cursor, HttpServletRequest request) {
+        validateQuery(query);
+
+        int pageSize = clampLimit(limit);
+        String afterName = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decodeCursor(cursor);
+            afterId = Long.parseLong(position[0]);
+            afterName = position[1];
+        }
+        int minStock = systemConfigRepository.getValueAsInt(MIN_STOCK_KEY, DEFAULT_MIN_STOCK);
+
+        List<Product> products = productRepository.findPageByNameContaining(
+                SearchText.fold(query), minStock, afterName, afterId, pageSize + 1);
+
+        String nextCursor = null;
+        if (products.size() > pageSize) {
+            products = products.subList(0, pageSize);
+            nextCursor = encodeCursor(products.get(pageSize - 1));
+        }
+        List<ProductResponse> items = productApiMapper.toResponseList(products);
+        if (afterId == null) {
+            publishSearchEvent(query, items.size(), request);
+        }
+
+        return ProductPageResponse.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public FacetedSearchResponse searchProductsFaceted(String query, String category, String brand, HttpServletRequest request) {
+        validateQuery(query);
+
+        int minStock = systemConfigRepository.getValueAsInt(MIN_STOCK_KEY, DEFAULT_MIN_STOCK);
+        FacetedProducts faceted = productRepository.searchFaceted(
+                SearchText.fold(query), minStock, blankToNull(category), blankToNull(brand));
+        List<ProductResponse> items = productApiMapper.toResponseList(faceted.getProducts());
+        publishSearchEvent(query, items.size(), request);
+
+        return FacetedSearchResponse.builder()
+                .items(items)
+                .categories(faceted.getCategoryCounts())
+                .brands(faceted.getBrandCounts())
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductResponse> searchProductsRanked(String query, Integer limit, HttpServletRequest request) {
+        validateQuery(query);
+
+        int topK = clampLimit(limit);
+        int minStock = systemConfigRepository.getValueAsInt(MIN_STOCK_KEY, DEFAULT_MIN_STOCK);
+        List<ProductResponse> productResponses = productApiMapper.toResponseList(
+                productRepository.searchRanked(query.trim(), minStock, topK));
+        publishSearchEvent(query, productResponses.size(), request);
+
+        return productResponses;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamProducts(String query, Consumer<ProductResponse> consumer) {
+        validateQuery(query);
+
+        int minStock = systemConfigRepository.getValueAsInt(MIN_STOCK_KEY, DEFAULT_MIN_STOCK);
+        productRepository.forEachByNameContaining(SearchText.fold(query), minStock,
+                product -> consumer.accept(productApiMapper.toResponse(product)));
+    }
+
+    @Override
+    public void validateQuery(String query) {
         if (query == null || query.trim().length() < 3) {
             throw new SearchQueryException("La consulta de búsqueda debe tener al menos 3 caracteres.");
         }
+    }
 
-        int minStock = systemConfigRepository.getValueAsInt(MIN_STOCK_KEY, DEFAULT_MIN_STOCK);
+    private String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
 
-        List<Product> products = productRepository.findByNameContainingIgnoreCaseAndStockGreaterThan(
-                query,
-                minStock
-        );
+    private int clampLimit(Integer limit) {
+        return limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
 
-        List<ProductResponse> productResponses = productApiMapper.toResponseList(products);
+    private void publishSearchEvent(String query, int resultsCount, HttpServletRequest request) {
         try {
             Long customerId = getAuthenticatedCustomerId();
 
@@ -57,7 +161,7 @@ public class SearchProductUseCaseImpl implements SearchProductUseCase {
                     this,
                     customerId,
                     query,
-                    productResponses.size(),
+                    resultsCount,
                     request.getRemoteAddr(),
                     request.getHeader("User-Agent")
             );
@@ -65,8 +169,25 @@ public class SearchProductUseCaseImpl implements SearchProductUseCase {
         } catch (Exception e) {
             log.error("Error al publicar ProductSearchEvent (pero la búsqueda fue exitosa): {}", e.getMessage());
         }
+    }
 
-        return productResponses;
+    private String encodeCursor(Product last) {
+        String position = last.getId() + ":" + last.getName();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split(":", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException(position);
+            }
+            Long.parseLong(parts[0]);
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new SearchQueryException("El cursor de paginación no es válido.");
+        }
     }
 
     private Long getAuthenticatedCustomerId() {
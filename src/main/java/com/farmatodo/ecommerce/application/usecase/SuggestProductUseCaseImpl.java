@@ -0,0 +1,30 @@
+package com.farmatodo.ecommerce.application.usecase;
+
+import com.farmatodo.ecommerce.application.dto.ProductSuggestionResponse;
+import com.farmatodo.ecommerce.application.mapper.ProductApiMapper;
+import com.farmatodo.ecommerce.domain.port.in.SuggestProductUseCase;
+import com.farmatodo.ecommerce.domain.port.out.ProductSuggestionPort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class SuggestProductUseCaseImpl implements SuggestProductUseCase {
+
+    private static final int DEFAULT_LIMIT = 8;
+    private static final int MAX_LIMIT = 10;
+
+    private final ProductSuggestionPort productSuggestionPort;
+    private final ProductApiMapper productApiMapper;
+
+    @Override
+    public List<ProductSuggestionResponse> suggest(String prefix, Integer limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        int size = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        return productApiMapper.toSuggestionResponseList(productSuggestionPort.suggest(prefix, size));
+    }
+}
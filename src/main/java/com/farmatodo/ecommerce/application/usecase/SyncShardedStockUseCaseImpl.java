@@ -0,0 +1,56 @@
+package com.farmatodo.ecommerce.application.usecase;
+
+import com.farmatodo.ecommerce.domain.port.in.SyncShardedStockUseCase;
+import com.farmatodo.ecommerce.domain.port.out.StockShardRepositoryPort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reparte en cubos el stock de los SKUs marcados en inventory.sharding.skus, devuelve a una sola fila
+ * los que dejaron de estarlo y recalcula products.stock con la suma de los cubos para mostrarlo.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SyncShardedStockUseCaseImpl implements SyncShardedStockUseCase {
+
+    private final StockShardRepositoryPort stockShardRepository;
+
+    @Value("${inventory.sharding.skus:}")
+    private List<String> skus;
+
+    @Value("${inventory.sharding.buckets:8}")
+    private int buckets;
+
+    @Override
+    public void syncShardedStock() {
+        Set<String> flagged = skus.stream()
+                .map(String::trim)
+                .filter(sku -> !sku.isEmpty())
+                .collect(Collectors.toSet());
+        // Con el modo apagado y nada repartido no hay trabajo: se evita el UPDATE y la agregación en cada nodo.
+        if (flagged.isEmpty() && !stockShardRepository.hasShardedProducts()) {
+            return;
+        }
+
+        int unsharded = stockShardRepository.unshardAllExcept(flagged);
+        if (unsharded > 0) {
+            log.info("Stock de {} productos devuelto a una sola fila.", unsharded);
+        }
+        for (String sku : flagged) {
+            if (stockShardRepository.shard(sku, buckets)) {
+                log.info("Stock del SKU {} repartido en {} cubos.", sku, buckets);
+            }
+        }
+        int synced = stockShardRepository.syncProductStock();
+        if (synced > 0) {
+            log.debug("Stock agregado actualizado para {} productos repartidos.", synced);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.farmatodo.ecommerce.application.dto.SystemConfigRequest;
 import com.farmatodo.ecommerce.domain.exception.InvalidConfigValueException;
 import com.farmatodo.ecommerce.domain.model.SystemConfig;
 import com.farmatodo.ecommerce.domain.port.in.UpdateSystemConfigUseCase;
+import com.farmatodo.ecommerce.domain.port.out.ProductSearchCachePort;
 import com.farmatodo.ecommerce.domain.port.out.SystemConfigRepositoryPort;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -18,12 +19,15 @@ import java.util.Set;
 public class UpdateSystemConfigUseCaseImpl implements UpdateSystemConfigUseCase {
 
     private final SystemConfigRepositoryPort systemConfigRepository;
+    private final ProductSearchCachePort productSearchCache;
+
+    private static final String MIN_STOCK_KEY = "product.min.stock.visibility";
 
     private static final Set<String> ALLOWED_CONFIGS = Set.of(
             "tokenization.rejection.probability",
             "payment.rejection.probability",
             "payment.max.retry.attempts",
-            "product.min.stock.visibility",
+            MIN_STOCK_KEY,
             "cart.expiration.hours",
             "email.max.retries"
     );
@@ -42,7 +46,11 @@ public class UpdateSystemConfigUseCaseImpl implements UpdateSystemConfigUseCase
             validateInteger(value, key);
         }
         log.info("Actualizando configuración: {} con valor: {}", key, value);
-        return systemConfigRepository.updateValue(key, value);
+        SystemConfig updated = systemConfigRepository.updateValue(key, value);
+        if (MIN_STOCK_KEY.equals(key)) {
+            productSearchCache.invalidateAll();
+        }
+        return updated;
     }
     private void validateProbability(String value, String key) {
         try {
@@ -61,7 +69,7 @@ public class UpdateSystemConfigUseCaseImpl implements UpdateSystemConfigUseCase
     private void validateInteger(String value, String key) {
         try {
             int intValue = Integer.parseInt(value);
-            if (intValue < 0 || (intValue == 0 && !key.equals("product.min.stock.visibility"))) {
+            if (intValue < 0 || (intValue == 0 && !key.equals(MIN_STOCK_KEY))) {
                 throw new InvalidConfigValueException(
                         String.format("El valor para '%s' debe ser un número entero positivo (o cero para min. stock).", key)
                 );
@@ -0,0 +1,8 @@
+package com.farmatodo.ecommerce.domain.exception;
+
+
+public class CartVersionConflictException extends RuntimeException {
+    public CartVersionConflictException(String message) {
+        super(message);
+    }
+}
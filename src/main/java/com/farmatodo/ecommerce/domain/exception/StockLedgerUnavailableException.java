@@ -0,0 +1,8 @@
+package com.farmatodo.ecommerce.domain.exception;
+
+
+public class StockLedgerUnavailableException extends RuntimeException {
+    public StockLedgerUnavailableException(String message) {
+        super(message);
+    }
+}
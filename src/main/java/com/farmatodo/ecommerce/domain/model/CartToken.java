@@ -0,0 +1,10 @@
+package com.farmatodo.ecommerce.domain.model;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Carrito anónimo que vive solo en un token firmado del cliente: sesión de origen, líneas y emisión.
+ */
+public record CartToken(String sessionId, Map<Long, Integer> lines, Instant issuedAt) {
+}
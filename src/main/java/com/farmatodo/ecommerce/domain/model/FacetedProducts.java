@@ -0,0 +1,15 @@
+package com.farmatodo.ecommerce.domain.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+public class FacetedProducts {
+    private List<Product> products;
+    private Map<String, Long> categoryCounts;
+    private Map<String, Long> brandCounts;
+}
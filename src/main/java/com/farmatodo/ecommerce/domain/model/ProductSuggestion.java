@@ -0,0 +1,14 @@
+package com.farmatodo.ecommerce.domain.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@Builder
+public class ProductSuggestion {
+    private UUID uuid;
+    private String name;
+    private long popularity;
+}
@@ -0,0 +1,16 @@
+package com.farmatodo.ecommerce.domain.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+
+@Data
+@Builder
+public class SearchRollup {
+    private OffsetDateTime bucketStart;
+    private String normalizedQuery;
+    private long searchCount;
+    private long zeroResultCount;
+    private long totalResults;
+}
@@ -0,0 +1,27 @@
+package com.farmatodo.ecommerce.domain.model;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Plegado de texto para búsqueda por nombre: sin tildes, en minúsculas y con los espacios colapsados.
+ * Lo comparten las consultas, el índice de trigramas, el trie de sugerencias y las claves de la caché de búsqueda,
+ * de modo que todos comparan el mismo texto.
+ */
+public final class SearchText {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SearchText() {
+    }
+
+    public static String fold(String value) {
+        if (value == null) {
+            return "";
+        }
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return WHITESPACE.matcher(stripped.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+}
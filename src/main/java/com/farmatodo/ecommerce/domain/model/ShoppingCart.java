@@ -11,7 +11,7 @@ import java.util.List;
 import java.util.UUID;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ShoppingCart {
@@ -27,6 +27,7 @@ public class ShoppingCart {
     private OffsetDateTime createdAt;
     private OffsetDateTime updatedAt;
     private OffsetDateTime expiresAt;
+    private long version;
 
     @Builder.Default
     private List<CartItem> items = new ArrayList<>();
@@ -1,10 +1,18 @@
 package com.farmatodo.ecommerce.domain.port.in;
 
 import com.farmatodo.ecommerce.application.dto.AddItemRequest;
+import com.farmatodo.ecommerce.application.dto.AddItemsBatchRequest;
+import com.farmatodo.ecommerce.application.dto.AdjustedItemResponse;
 import com.farmatodo.ecommerce.application.dto.CartResponse;
 import jakarta.servlet.http.HttpServletRequest;
 
+import java.util.List;
+
 public interface AddProductToCartUseCase {
 
     CartResponse addProductToCart(AddItemRequest request, HttpServletRequest servletRequest);
+
+    CartResponse addProductsToCart(AddItemsBatchRequest request, HttpServletRequest servletRequest);
+
+    List<AdjustedItemResponse> mergePendingCart(String cartToken, Long customerId);
 }
\ No newline at end of file
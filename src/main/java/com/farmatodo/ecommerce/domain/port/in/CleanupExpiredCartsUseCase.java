@@ -0,0 +1,5 @@
+package com.farmatodo.ecommerce.domain.port.in;
+
+public interface CleanupExpiredCartsUseCase {
+    void cleanupExpiredCarts();
+}
@@ -0,0 +1,10 @@
+package com.farmatodo.ecommerce.domain.port.in;
+
+import com.farmatodo.ecommerce.application.dto.ProductResponse;
+import java.util.function.Consumer;
+
+
+public interface ExportCatalogUseCase {
+
+    void exportCatalog(Consumer<ProductResponse> consumer);
+}
@@ -0,0 +1,9 @@
+package com.farmatodo.ecommerce.domain.port.in;
+
+import com.farmatodo.ecommerce.application.dto.ProductDetailResponse;
+
+
+public interface GetProductUseCase {
+
+    ProductDetailResponse getProduct(String uuid);
+}
@@ -4,5 +4,5 @@ import com.farmatodo.ecommerce.application.dto.AuthResponse;
 import com.farmatodo.ecommerce.application.dto.LoginRequest;
 
 public interface LoginCustomerUseCase {
-    AuthResponse login(LoginRequest request);
+    AuthResponse login(LoginRequest request, String sessionId);
 }
\ No newline at end of file
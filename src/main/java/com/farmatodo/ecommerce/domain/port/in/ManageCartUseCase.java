@@ -0,0 +1,14 @@
+package com.farmatodo.ecommerce.domain.port.in;
+
+import com.farmatodo.ecommerce.application.dto.CartDetailResponse;
+import com.farmatodo.ecommerce.application.dto.UpdateItemQuantityRequest;
+import jakarta.servlet.http.HttpServletRequest;
+
+public interface ManageCartUseCase {
+
+    CartDetailResponse getCart(HttpServletRequest servletRequest, String ifNoneMatch);
+
+    CartDetailResponse updateItemQuantity(Long productId, UpdateItemQuantityRequest request, String ifMatch, HttpServletRequest servletRequest);
+
+    CartDetailResponse removeItem(Long productId, String ifMatch, HttpServletRequest servletRequest);
+}
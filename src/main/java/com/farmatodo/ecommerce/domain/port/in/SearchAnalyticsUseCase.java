@@ -0,0 +1,15 @@
+package com.farmatodo.ecommerce.domain.port.in;
+
+import com.farmatodo.ecommerce.application.dto.SearchStatResponse;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+
+public interface SearchAnalyticsUseCase {
+
+    List<SearchStatResponse> getTopQueries(OffsetDateTime from, OffsetDateTime to, Integer limit);
+
+    List<SearchStatResponse> getZeroResultQueries(OffsetDateTime from, OffsetDateTime to, Integer limit);
+
+    List<SearchStatResponse> getHourlyVolume(OffsetDateTime from, OffsetDateTime to);
+}
@@ -1,11 +1,24 @@
 package com.farmatodo.ecommerce.domain.port.in;
 
+import com.farmatodo.ecommerce.application.dto.FacetedSearchResponse;
+import com.farmatodo.ecommerce.application.dto.ProductPageResponse;
 import com.farmatodo.ecommerce.application.dto.ProductResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.List;
+import java.util.function.Consumer;
 
 
 public interface SearchProductUseCase {
 
     List<ProductResponse> searchProducts(String query, HttpServletRequest request);
-}
\ No newline at end of file
+
+    ProductPageResponse searchProductsPage(String query, Integer limit, String cursor, HttpServletRequest request);
+
+    FacetedSearchResponse searchProductsFaceted(String query, String category, String brand, HttpServletRequest request);
+
+    List<ProductResponse> searchProductsRanked(String query, Integer limit, HttpServletRequest request);
+
+    void validateQuery(String query);
+
+    void streamProducts(String query, Consumer<ProductResponse> consumer);
+}
@@ -0,0 +1,10 @@
+package com.farmatodo.ecommerce.domain.port.in;
+
+import com.farmatodo.ecommerce.application.dto.ProductSuggestionResponse;
+import java.util.List;
+
+
+public interface SuggestProductUseCase {
+
+    List<ProductSuggestionResponse> suggest(String prefix, Integer limit);
+}
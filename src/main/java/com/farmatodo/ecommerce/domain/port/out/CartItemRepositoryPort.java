@@ -1,10 +1,16 @@
 package com.farmatodo.ecommerce.domain.port.out;
 
 import com.farmatodo.ecommerce.domain.model.CartItem;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 
 public interface CartItemRepositoryPort {
     Optional<CartItem> findByCartIdAndProductId(Long cartId, Long productId);
     CartItem save(CartItem cartItem);
+    Optional<CartItem> addQuantity(CartItem cartItem, int maxQuantity);
+    List<CartItem> addQuantities(List<CartItem> cartItems, Map<Long, Integer> maxQuantities);
+    Optional<CartItem> updateQuantity(Long cartId, Long productId, int quantity);
+    boolean delete(Long cartId, Long productId);
 }
\ No newline at end of file
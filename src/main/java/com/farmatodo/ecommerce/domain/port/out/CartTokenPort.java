@@ -0,0 +1,16 @@
+package com.farmatodo.ecommerce.domain.port.out;
+
+import com.farmatodo.ecommerce.domain.model.CartToken;
+
+import java.util.Map;
+import java.util.Optional;
+
+
+public interface CartTokenPort {
+
+    boolean isToken(String value);
+
+    String issue(String sessionId, Map<Long, Integer> lines);
+
+    Optional<CartToken> verify(String token);
+}
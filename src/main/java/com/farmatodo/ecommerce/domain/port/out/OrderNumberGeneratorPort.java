@@ -0,0 +1,7 @@
+package com.farmatodo.ecommerce.domain.port.out;
+
+
+public interface OrderNumberGeneratorPort {
+
+    String nextOrderNumber(String prefix);
+}
@@ -0,0 +1,13 @@
+package com.farmatodo.ecommerce.domain.port.out;
+
+import com.farmatodo.ecommerce.domain.model.Product;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+public interface ProductDetailCachePort {
+
+    Product get(UUID uuid, Supplier<Product> loader);
+
+    void invalidate(UUID uuid);
+}
@@ -1,19 +1,36 @@
 package com.farmatodo.ecommerce.domain.port.out;
 
+import com.farmatodo.ecommerce.domain.model.FacetedProducts;
 import com.farmatodo.ecommerce.domain.model.Product;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
 
 
 public interface ProductRepositoryPort {
 
     List<Product> findByNameContainingIgnoreCaseAndStockGreaterThan(String name, int minStock);
 
+    List<Product> findPageByNameContaining(String name, int minStock, String afterName, Long afterId, int limit);
+
+    void forEachByNameContaining(String name, int minStock, Consumer<Product> consumer);
+
+    void forEachActive(Consumer<Product> consumer);
+
+    FacetedProducts searchFaceted(String name, int minStock, String category, String brand);
+
+    List<Product> searchRanked(String query, int minStock, int limit);
+
     Optional<Product> findByIdAndIsActiveTrue(Long id);
 
-    void saveAll(List<Product> products);
+    Optional<Product> findByUuidAndIsActiveTrue(UUID uuid);
+
+    List<Product> findAllActiveByIds(Collection<Long> ids);
 
-    Optional<Product> findByIdForUpdate(Long id);
+    List<Long> decrementStock(Map<Long, Integer> quantities);
 
 
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.farmatodo.ecommerce.domain.port.out;
+
+import com.farmatodo.ecommerce.domain.model.Product;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+public interface ProductSearchCachePort {
+
+    List<Product> get(String normalizedQuery, int minStock, Supplier<List<Product>> loader);
+
+    void invalidateIfVisibilityChanged(String productName, int previousStock, int newStock);
+
+    void invalidateAll();
+}
@@ -2,8 +2,12 @@ package com.farmatodo.ecommerce.domain.port.out;
 
 import com.farmatodo.ecommerce.domain.model.ProductSearch;
 
+import java.util.List;
+
 public interface ProductSearchRepositoryPort {
 
 
     void save(ProductSearch productSearch);
-}
\ No newline at end of file
+
+    void saveAll(List<ProductSearch> productSearches);
+}
@@ -0,0 +1,8 @@
+package com.farmatodo.ecommerce.domain.port.out;
+
+import com.farmatodo.ecommerce.domain.model.ProductSearch;
+
+public interface ProductSearchWriterPort {
+
+    void submit(ProductSearch productSearch);
+}
@@ -0,0 +1,10 @@
+package com.farmatodo.ecommerce.domain.port.out;
+
+import com.farmatodo.ecommerce.domain.model.ProductSuggestion;
+import java.util.List;
+
+
+public interface ProductSuggestionPort {
+
+    List<ProductSuggestion> suggest(String prefix, int limit);
+}
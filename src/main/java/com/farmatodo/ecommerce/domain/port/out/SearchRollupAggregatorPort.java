@@ -0,0 +1,8 @@
+package com.farmatodo.ecommerce.domain.port.out;
+
+import java.time.Instant;
+
+public interface SearchRollupAggregatorPort {
+
+    void record(String query, int resultsCount, Instant searchedAt);
+}
@@ -0,0 +1,17 @@
+package com.farmatodo.ecommerce.domain.port.out;
+
+import com.farmatodo.ecommerce.domain.model.SearchRollup;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public interface SearchRollupRepositoryPort {
+
+    void upsertAll(List<SearchRollup> rollups);
+
+    List<SearchRollup> findTopQueries(OffsetDateTime from, OffsetDateTime to, int limit);
+
+    List<SearchRollup> findZeroResultQueries(OffsetDateTime from, OffsetDateTime to, int limit);
+
+    List<SearchRollup> countByHour(OffsetDateTime from, OffsetDateTime to);
+}
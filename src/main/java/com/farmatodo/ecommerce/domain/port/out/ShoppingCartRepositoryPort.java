@@ -1,6 +1,9 @@
 package com.farmatodo.ecommerce.domain.port.out;
 
 import com.farmatodo.ecommerce.domain.model.ShoppingCart;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
 import java.util.Optional;
 
 
@@ -13,4 +16,18 @@ public interface ShoppingCartRepositoryPort {
     ShoppingCart save(ShoppingCart shoppingCart);
 
     Optional<ShoppingCart> findByIdWithItems(Long id);
+
+    Optional<ShoppingCart> findActiveVersionByCustomerId(Long customerId);
+
+    Optional<ShoppingCart> findActiveVersionBySessionId(String sessionId);
+
+    ShoppingCart applyTotalsDelta(ShoppingCart shoppingCart, BigDecimal amountDelta, int itemsDelta);
+
+    Optional<ShoppingCart> applyTotalsDeltaIfVersion(ShoppingCart shoppingCart, BigDecimal amountDelta, int itemsDelta, long expectedVersion);
+
+    void mergeAnonymousCart(String sessionId, Long customerId);
+
+    int expireCarts(int limit);
+
+    int purgeExpiredCarts(OffsetDateTime updatedBefore, int limit);
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.farmatodo.ecommerce.domain.port.out;
+
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+
+
+public interface StockLedgerPort {
+
+    OptionalInt available(Long productId);
+
+    List<Long> reserve(Map<Long, Integer> quantities);
+
+    boolean heldElsewhere(Long productId);
+}
@@ -0,0 +1,21 @@
+package com.farmatodo.ecommerce.domain.port.out;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+
+public interface StockShardRepositoryPort {
+
+    List<Long> decrementStock(Map<Long, Integer> quantities);
+
+    Map<Long, Integer> findStockTotals(Collection<Long> productIds);
+
+    boolean shard(String sku, int buckets);
+
+    int unshardAllExcept(Collection<String> skus);
+
+    int syncProductStock();
+
+    boolean hasShardedProducts();
+}
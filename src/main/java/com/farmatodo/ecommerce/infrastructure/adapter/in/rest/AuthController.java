@@ -14,6 +14,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import com.farmatodo.ecommerce.infrastructure.common.ApiResponse;
@@ -44,7 +45,8 @@ public class AuthController {
     }
 
     @Operation(summary = "Iniciar sesión del cliente",
-            description = "Autentica al cliente con credenciales y devuelve un JWT.")
+            description = "Autentica al cliente con credenciales y devuelve un JWT. " +
+                    "Si se envía X-Session-ID, el carrito anónimo de esa sesión se fusiona con el del cliente.")
     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Login exitoso. Devuelve JWT.")
     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Credenciales inválidas (Email o contraseña).",
             content = @Content(schema = @Schema(implementation = ApiResponse.class)))
@@ -52,9 +54,10 @@ public class AuthController {
             content = @Content(schema = @Schema(implementation = ApiResponse.class)))
     @PostMapping("/login")
     public ResponseEntity<ApiResponse<AuthResponse>> login(
-            @Valid @RequestBody LoginRequest request
+            @Valid @RequestBody LoginRequest request,
+            @RequestHeader(value = "X-Session-ID", required = false) String sessionId
     ) {
-        AuthResponse authResponse = loginCustomerUseCase.login(request);
+        AuthResponse authResponse = loginCustomerUseCase.login(request, sessionId);
         return ResponseEntity.ok(ApiResponse.success(authResponse));
     }
 }
\ No newline at end of file
@@ -1,9 +1,13 @@
 package com.farmatodo.ecommerce.infrastructure.adapter.in.rest;
 
 import com.farmatodo.ecommerce.application.dto.AddItemRequest;
+import com.farmatodo.ecommerce.application.dto.AddItemsBatchRequest;
+import com.farmatodo.ecommerce.application.dto.CartDetailResponse;
 import com.farmatodo.ecommerce.application.dto.CartResponse;
+import com.farmatodo.ecommerce.application.dto.UpdateItemQuantityRequest;
 import com.farmatodo.ecommerce.application.usecase.AddProductToCartUseCaseImpl;
 import com.farmatodo.ecommerce.domain.port.in.AddProductToCartUseCase;
+import com.farmatodo.ecommerce.domain.port.in.ManageCartUseCase;
 import com.farmatodo.ecommerce.infrastructure.common.ApiResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,6 +17,9 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -23,10 +30,68 @@ import org.springframework.web.bind.annotation.*;
 public class CartController {
 
     private final AddProductToCartUseCase addProductToCartUseCase;
+    private final ManageCartUseCase manageCartUseCase;
+
+    @Operation(summary = "Consultar el carrito",
+            description = "Devuelve el carrito activo del cliente o de la sesión con un ETag basado en su versión. " +
+                    "Si el ETag enviado en 'If-None-Match' coincide, responde 304 sin cuerpo.")
+    @Parameter(in = ParameterIn.HEADER, name = AddProductToCartUseCaseImpl.SESSION_ID_HEADER, description = "ID de sesión anónima o token firmado de carrito pendiente.")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Estado actual del carrito (vacío si no existe).")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "304", description = "El carrito no cambió desde el ETag indicado.")
+    @GetMapping
+    public ResponseEntity<ApiResponse<CartResponse>> getCart(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            HttpServletRequest servletRequest) {
+
+        CartDetailResponse detail = manageCartUseCase.getCart(servletRequest, ifNoneMatch);
+        if (detail.isNotModified()) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(detail.getEtag()).build();
+        }
+        return toResponseEntity(detail);
+    }
+
+    @Operation(summary = "Cambiar la cantidad de un producto del carrito",
+            description = "Fija la cantidad de una línea existente. Con 'If-Match' la operación solo se aplica si el carrito " +
+                    "no cambió desde ese ETag; en cualquier caso, si otra petición lo modifica a la vez se responde 412.")
+    @Parameter(in = ParameterIn.HEADER, name = AddProductToCartUseCaseImpl.SESSION_ID_HEADER, description = "ID de sesión anónima o token firmado de carrito pendiente.")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Cantidad actualizada. Devuelve el carrito y su nuevo ETag.")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Carrito o producto no encontrado.",
+            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = ApiResponse.class)))
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "Stock insuficiente.",
+            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = ApiResponse.class)))
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "412", description = "El carrito fue modificado por otra petición.",
+            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = ApiResponse.class)))
+    @PutMapping("/items/{productId}")
+    public ResponseEntity<ApiResponse<CartResponse>> updateItemQuantity(
+            @PathVariable("productId") Long productId,
+            @Valid @RequestBody UpdateItemQuantityRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            HttpServletRequest servletRequest) {
+
+        return toResponseEntity(manageCartUseCase.updateItemQuantity(productId, request, ifMatch, servletRequest));
+    }
+
+    @Operation(summary = "Eliminar un producto del carrito",
+            description = "Elimina una línea del carrito. Admite 'If-Match' igual que el cambio de cantidad.")
+    @Parameter(in = ParameterIn.HEADER, name = AddProductToCartUseCaseImpl.SESSION_ID_HEADER, description = "ID de sesión anónima o token firmado de carrito pendiente.")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Producto eliminado. Devuelve el carrito y su nuevo ETag.")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Carrito o producto no encontrado.",
+            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = ApiResponse.class)))
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "412", description = "El carrito fue modificado por otra petición.",
+            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = ApiResponse.class)))
+    @DeleteMapping("/items/{productId}")
+    public ResponseEntity<ApiResponse<CartResponse>> removeItem(
+            @PathVariable("productId") Long productId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            HttpServletRequest servletRequest) {
+
+        return toResponseEntity(manageCartUseCase.removeItem(productId, ifMatch, servletRequest));
+    }
 
     @Operation(summary = "Añadir/Actualizar producto en el carrito",
-            description = "Crea un carrito anónimo (si es la primera vez) o añade/actualiza la cantidad de un producto. El Session ID se maneja vía header 'X-Session-ID'.")
-    @Parameter(in = ParameterIn.HEADER, name = AddProductToCartUseCaseImpl.SESSION_ID_HEADER, description = "ID de sesión anónima (se devuelve si es nuevo).")
+            description = "Añade o actualiza la cantidad de un producto. En la primera interacción anónima no se crea el carrito en BD: " +
+                    "se devuelve en 'X-Session-ID' un token firmado con su contenido, y el carrito se persiste al reenviarlo en la siguiente.")
+    @Parameter(in = ParameterIn.HEADER, name = AddProductToCartUseCaseImpl.SESSION_ID_HEADER, description = "ID de sesión anónima o token firmado de carrito pendiente (se devuelve si es nuevo).")
     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Producto añadido/actualizado. Devuelve el estado actual del carrito y el X-Session-ID en el header de respuesta.")
     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Producto no encontrado.",
             content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = ApiResponse.class)))
@@ -46,4 +111,41 @@ public class CartController {
 
         return ResponseEntity.ok(ApiResponse.success(cartResponse));
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "Añadir varios productos al carrito",
+            description = "Añade o incrementa varias líneas del carrito en una sola operación (recompra, listas de receta). " +
+                    "Si algún producto no existe o no tiene stock suficiente no se añade ninguno.")
+    @Parameter(in = ParameterIn.HEADER, name = AddProductToCartUseCaseImpl.SESSION_ID_HEADER, description = "ID de sesión anónima o token firmado de carrito pendiente (se devuelve si es nuevo).")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Productos añadidos. Devuelve el estado actual del carrito.")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Solicitud inválida (lista vacía o más de 100 productos).",
+            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = ApiResponse.class)))
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Algún producto no existe o no está activo.",
+            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = ApiResponse.class)))
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "Stock insuficiente para algún producto.",
+            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = ApiResponse.class)))
+    @PostMapping("/items/batch")
+    public ResponseEntity<ApiResponse<CartResponse>> addProductsToCart(
+            @Valid @RequestBody AddItemsBatchRequest request,
+            HttpServletRequest servletRequest,
+            HttpServletResponse servletResponse) {
+
+        CartResponse cartResponse = addProductToCartUseCase.addProductsToCart(request, servletRequest);
+
+        if (cartResponse.getSessionId() != null) {
+            servletResponse.addHeader(AddProductToCartUseCaseImpl.SESSION_ID_HEADER, cartResponse.getSessionId());
+        }
+
+        return ResponseEntity.ok(ApiResponse.success(cartResponse));
+    }
+
+    private static ResponseEntity<ApiResponse<CartResponse>> toResponseEntity(CartDetailResponse detail) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+        if (detail.getEtag() != null) {
+            builder.eTag(detail.getEtag());
+        }
+        if (detail.getCart().getSessionId() != null) {
+            builder.header(AddProductToCartUseCaseImpl.SESSION_ID_HEADER, detail.getCart().getSessionId());
+        }
+        return builder.body(ApiResponse.success(detail.getCart()));
+    }
+}
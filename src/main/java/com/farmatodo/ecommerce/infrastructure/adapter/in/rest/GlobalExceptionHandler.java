@@ -77,6 +77,18 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(StockLedgerUnavailableException.class)
+    public ResponseEntity<ApiResponse<Object>> handleStockLedgerUnavailable(StockLedgerUnavailableException ex) {
+        ApiResponse<Object> response = ApiResponse.error(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE.value());
+        return new ResponseEntity<>(response, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(CartVersionConflictException.class)
+    public ResponseEntity<ApiResponse<Object>> handleCartVersionConflict(CartVersionConflictException ex) {
+        ApiResponse<Object> response = ApiResponse.error(ex.getMessage(), HttpStatus.PRECONDITION_FAILED.value());
+        return new ResponseEntity<>(response, HttpStatus.PRECONDITION_FAILED);
+    }
+
     @ExceptionHandler(ProductNotFoundException.class)
     public ResponseEntity<ApiResponse<Object>> handleProductNotFound(ProductNotFoundException ex) {
         ApiResponse<Object> response = ApiResponse.error(ex.getMessage(), HttpStatus.NOT_FOUND.value());
@@ -1,19 +1,36 @@
 package com.farmatodo.ecommerce.infrastructure.adapter.in.rest;
 
+import com.farmatodo.ecommerce.application.dto.FacetedSearchResponse;
+import com.farmatodo.ecommerce.application.dto.ProductDetailResponse;
+import com.farmatodo.ecommerce.application.dto.ProductPageResponse;
 import com.farmatodo.ecommerce.application.dto.ProductResponse;
+import com.farmatodo.ecommerce.application.dto.ProductSuggestionResponse;
+import com.farmatodo.ecommerce.domain.port.in.ExportCatalogUseCase;
+import com.farmatodo.ecommerce.domain.port.in.GetProductUseCase;
 import com.farmatodo.ecommerce.domain.port.in.SearchProductUseCase;
+import com.farmatodo.ecommerce.domain.port.in.SuggestProductUseCase;
 import com.farmatodo.ecommerce.infrastructure.common.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -22,7 +39,16 @@ import java.util.List;
 @Tag(name = "Products", description = "Búsqueda y Catálogo de Productos")
 public class ProductController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     private final SearchProductUseCase searchProductUseCase;
+    private final SuggestProductUseCase suggestProductUseCase;
+    private final GetProductUseCase getProductUseCase;
+    private final ExportCatalogUseCase exportCatalogUseCase;
+    private final ObjectMapper objectMapper;
+
+    @Value("${catalog.export.timeout-ms:600000}")
+    private long exportTimeoutMs;
 
     @Operation(summary = "Buscar productos",
             description = "Busca productos activos por nombre o descripción. Registra la consulta de forma asíncrona.")
@@ -36,4 +62,122 @@ public class ProductController {
         List<ProductResponse> results = searchProductUseCase.searchProducts(query, request);
         return ResponseEntity.ok(ApiResponse.success(results));
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "Buscar productos paginados",
+            description = "Busca productos por nombre con paginación por cursor (keyset sobre nombre e id).")
+    @Parameter(name = "q", description = "Término de búsqueda (mínimo 3 caracteres).")
+    @Parameter(name = "limit", description = "Tamaño de página (1-100, por defecto 20).")
+    @Parameter(name = "cursor", description = "Cursor opaco devuelto en nextCursor por la página anterior.")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Página de resultados.")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Consulta o cursor inválido.")
+    @GetMapping("/search/page")
+    public ResponseEntity<ApiResponse<ProductPageResponse>> searchProductsPage(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            HttpServletRequest request) {
+        ProductPageResponse page = searchProductUseCase.searchProductsPage(query, limit, cursor, request);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    @Operation(summary = "Buscar productos con facetas",
+            description = "Busca productos por nombre y devuelve conteos por categoría y marca. Permite filtrar por ambas facetas.")
+    @Parameter(name = "q", description = "Término de búsqueda (mínimo 3 caracteres).")
+    @Parameter(name = "category", description = "Filtra por categoría exacta.")
+    @Parameter(name = "brand", description = "Filtra por marca exacta.")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Resultados y conteos por faceta.")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Consulta inválida (menos de 3 caracteres).")
+    @GetMapping("/search/faceted")
+    public ResponseEntity<ApiResponse<FacetedSearchResponse>> searchProductsFaceted(
+            @RequestParam("q") String query,
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "brand", required = false) String brand,
+            HttpServletRequest request) {
+        FacetedSearchResponse results = searchProductUseCase.searchProductsFaceted(query, category, brand, request);
+        return ResponseEntity.ok(ApiResponse.success(results));
+    }
+
+    @Operation(summary = "Buscar productos por relevancia",
+            description = "Búsqueda de texto completo sobre nombre, marca, categoría y descripción, ordenada por relevancia.")
+    @Parameter(name = "q", description = "Término de búsqueda (mínimo 3 caracteres).")
+    @Parameter(name = "limit", description = "Cantidad máxima de resultados (1-100, por defecto 20).")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Resultados ordenados por relevancia.")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Consulta inválida (menos de 3 caracteres).")
+    @GetMapping("/search/ranked")
+    public ResponseEntity<ApiResponse<List<ProductResponse>>> searchProductsRanked(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            HttpServletRequest request) {
+        List<ProductResponse> results = searchProductUseCase.searchProductsRanked(query, limit, request);
+        return ResponseEntity.ok(ApiResponse.success(results));
+    }
+
+    @Operation(summary = "Autocompletar productos",
+            description = "Sugiere nombres de productos que empiezan por el texto ingresado, ordenados por popularidad. Se resuelve en memoria.")
+    @Parameter(name = "q", description = "Prefijo escrito por el usuario.")
+    @Parameter(name = "limit", description = "Cantidad máxima de sugerencias (1-10, por defecto 8).")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Sugerencias de autocompletado.")
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse<List<ProductSuggestionResponse>>> suggestProducts(
+            @RequestParam("q") String prefix,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(ApiResponse.success(suggestProductUseCase.suggest(prefix, limit)));
+    }
+
+    @Operation(summary = "Obtener detalle de producto",
+            description = "Devuelve un producto activo por UUID desde caché. Responde ETag y Last-Modified; " +
+                    "con If-None-Match o If-Modified-Since vigentes responde 304 sin cuerpo.")
+    @Parameter(name = "uuid", description = "UUID del producto.")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Detalle del producto.")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "304", description = "El producto no ha cambiado.")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "UUID con formato inválido.")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Producto no encontrado o inactivo.")
+    @GetMapping("/{uuid}")
+    public ResponseEntity<ApiResponse<ProductResponse>> getProduct(@PathVariable("uuid") String uuid) {
+        ProductDetailResponse detail = getProductUseCase.getProduct(uuid);
+        return ResponseEntity.ok()
+                .eTag(detail.getEtag())
+                .lastModified(detail.getLastModified())
+                .cacheControl(CacheControl.noCache())
+                .body(ApiResponse.success(detail.getProduct()));
+    }
+
+    @Operation(summary = "Exportar búsqueda como NDJSON",
+            description = "Transmite todos los productos que coinciden, un objeto JSON por línea, leyendo de un cursor de base de datos.")
+    @Parameter(name = "q", description = "Término de búsqueda (mínimo 3 caracteres).")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Resultados en formato NDJSON.")
+    @GetMapping(value = "/search/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamProducts(@RequestParam("q") String query) {
+        searchProductUseCase.validateQuery(query);
+        StreamingResponseBody body = outputStream ->
+                searchProductUseCase.streamProducts(query, product -> writeLine(outputStream, product));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
+    @Operation(summary = "Exportar catálogo completo como NDJSON",
+            description = "Transmite todos los productos activos, un objeto JSON por línea, directamente desde un cursor " +
+                    "de base de datos. El consumo de memoria no depende del tamaño del catálogo. Requiere X-API-KEY.")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Catálogo en formato NDJSON.")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "API Key inválida o ausente.")
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportCatalog(HttpServletRequest request) {
+        // Solo esta respuesta puede durar lo que tarda recorrer el catálogo; el resto usa el timeout asíncrono por defecto.
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(exportTimeoutMs);
+        StreamingResponseBody body = outputStream ->
+                exportCatalogUseCase.exportCatalog(product -> writeLine(outputStream, product));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
+    private void writeLine(OutputStream outputStream, ProductResponse product) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(product));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
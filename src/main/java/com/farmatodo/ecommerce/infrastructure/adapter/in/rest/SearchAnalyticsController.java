@@ -0,0 +1,64 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.in.rest;
+
+import com.farmatodo.ecommerce.application.dto.SearchStatResponse;
+import com.farmatodo.ecommerce.domain.port.in.SearchAnalyticsUseCase;
+import com.farmatodo.ecommerce.infrastructure.common.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/analytics/searches")
+@RequiredArgsConstructor
+@Tag(name = "Search Analytics", description = "Métricas agregadas de búsquedas de productos")
+public class SearchAnalyticsController {
+
+    private final SearchAnalyticsUseCase searchAnalyticsUseCase;
+
+    @Operation(summary = "Consultas más frecuentes",
+            description = "Consultas normalizadas con más búsquedas en el rango. Se calcula sobre los rollups por minuto.")
+    @Parameter(name = "from", description = "Inicio del rango (ISO-8601). Por defecto, 24 horas antes de 'to'.")
+    @Parameter(name = "to", description = "Fin del rango, exclusivo (ISO-8601). Por defecto, ahora.")
+    @Parameter(name = "limit", description = "Cantidad máxima de consultas (1-500, por defecto 20).")
+    @GetMapping("/top")
+    public ResponseEntity<ApiResponse<List<SearchStatResponse>>> getTopQueries(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(ApiResponse.success(searchAnalyticsUseCase.getTopQueries(from, to, limit)));
+    }
+
+    @Operation(summary = "Consultas sin resultados",
+            description = "Consultas normalizadas que devolvieron cero resultados, ordenadas por frecuencia.")
+    @Parameter(name = "from", description = "Inicio del rango (ISO-8601). Por defecto, 24 horas antes de 'to'.")
+    @Parameter(name = "to", description = "Fin del rango, exclusivo (ISO-8601). Por defecto, ahora.")
+    @Parameter(name = "limit", description = "Cantidad máxima de consultas (1-500, por defecto 20).")
+    @GetMapping("/zero-results")
+    public ResponseEntity<ApiResponse<List<SearchStatResponse>>> getZeroResultQueries(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(ApiResponse.success(searchAnalyticsUseCase.getZeroResultQueries(from, to, limit)));
+    }
+
+    @Operation(summary = "Volumen de búsquedas por hora",
+            description = "Total de búsquedas y búsquedas sin resultados agrupadas por hora.")
+    @Parameter(name = "from", description = "Inicio del rango (ISO-8601). Por defecto, 24 horas antes de 'to'.")
+    @Parameter(name = "to", description = "Fin del rango, exclusivo (ISO-8601). Por defecto, ahora.")
+    @GetMapping("/hourly")
+    public ResponseEntity<ApiResponse<List<SearchStatResponse>>> getHourlyVolume(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to) {
+        return ResponseEntity.ok(ApiResponse.success(searchAnalyticsUseCase.getHourlyVolume(from, to)));
+    }
+}
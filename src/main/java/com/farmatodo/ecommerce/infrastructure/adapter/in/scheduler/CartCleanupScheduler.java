@@ -0,0 +1,28 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.in.scheduler;
+
+import com.farmatodo.ecommerce.domain.port.in.CleanupExpiredCartsUseCase;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CartCleanupScheduler {
+
+    private final CleanupExpiredCartsUseCase cleanupExpiredCartsUseCase;
+
+    @Scheduled(fixedDelayString = "${cart.cleanup.interval-ms:600000}",
+            initialDelayString = "${cart.cleanup.interval-ms:600000}")
+    public void triggerCartCleanup() {
+        log.info("Scheduled job 'triggerCartCleanup' started...");
+        try {
+            cleanupExpiredCartsUseCase.cleanupExpiredCarts();
+        } catch (Exception e) {
+            log.error("Error during scheduled cart cleanup: {}", e.getMessage(), e);
+        }
+        log.info("Scheduled job 'triggerCartCleanup' finished.");
+    }
+}
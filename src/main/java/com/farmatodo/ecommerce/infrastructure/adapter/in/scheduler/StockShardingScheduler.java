@@ -0,0 +1,25 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.in.scheduler;
+
+import com.farmatodo.ecommerce.domain.port.in.SyncShardedStockUseCase;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockShardingScheduler {
+
+    private final SyncShardedStockUseCase syncShardedStockUseCase;
+
+    @Scheduled(fixedDelayString = "${inventory.sharding.sync-interval-ms:5000}")
+    public void triggerShardedStockSync() {
+        try {
+            syncShardedStockUseCase.syncShardedStock();
+        } catch (Exception e) {
+            log.error("Error during scheduled sharded stock sync: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.out.analytics;
+
+import com.farmatodo.ecommerce.domain.model.ProductSearch;
+import com.farmatodo.ecommerce.domain.port.out.ProductSearchRepositoryPort;
+import com.farmatodo.ecommerce.domain.port.out.ProductSearchWriterPort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registra las búsquedas en una cola acotada que un único hilo vacía en lotes JDBC,
+ * por tamaño de lote o por intervalo, lo que ocurra primero.
+ * Cuando la cola se llena se aplica la política configurada:
+ * DROP descarta, SAMPLE conserva solo una fracción a partir del 80% de ocupación
+ * y BLOCK espera hasta block-timeout-ms antes de descartar.
+ */
+@Slf4j
+@Component
+public class BatchingProductSearchWriter implements ProductSearchWriterPort {
+
+    public enum OverflowPolicy { DROP, SAMPLE, BLOCK }
+
+    private final ProductSearchRepositoryPort productSearchRepository;
+    private final BlockingQueue<ProductSearch> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final OverflowPolicy overflowPolicy;
+    private final double sampleRate;
+    private final long blockTimeoutMs;
+    private final int sampleThreshold;
+
+    private final Timer flushTimer;
+    private final Counter droppedCounter;
+    private final Counter writtenCounter;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public BatchingProductSearchWriter(
+            ProductSearchRepositoryPort productSearchRepository,
+            MeterRegistry meterRegistry,
+            @Value("${search.analytics.queue-capacity:10000}") int queueCapacity,
+            @Value("${search.analytics.batch-size:500}") int batchSize,
+            @Value("${search.analytics.flush-interval-ms:1000}") long flushIntervalMs,
+            @Value("${search.analytics.overflow-policy:DROP}") OverflowPolicy overflowPolicy,
+            @Value("${search.analytics.sample-rate:0.1}") double sampleRate,
+            @Value("${search.analytics.block-timeout-ms:50}") long blockTimeoutMs
+    ) {
+        this.productSearchRepository = productSearchRepository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.overflowPolicy = overflowPolicy;
+        this.sampleRate = sampleRate;
+        this.blockTimeoutMs = blockTimeoutMs;
+        this.sampleThreshold = (int) (queueCapacity * 0.8);
+
+        Gauge.builder("product_search.writer.queue.depth", queue, BlockingQueue::size)
+                .description("Búsquedas pendientes de escribir")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("product_search.writer.flush")
+                .description("Latencia de escritura de cada lote")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("product_search.writer.dropped")
+                .description("Búsquedas descartadas por la política de desborde")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("product_search.writer.written")
+                .description("Búsquedas escritas en base de datos")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void submit(ProductSearch productSearch) {
+        boolean accepted = switch (overflowPolicy) {
+            case DROP -> queue.offer(productSearch);
+            case SAMPLE -> keepSample() && queue.offer(productSearch);
+            case BLOCK -> offerBlocking(productSearch);
+        };
+        if (!accepted) {
+            droppedCounter.increment();
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::drainLoop, "product-search-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+        List<ProductSearch> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            flush(List.copyOf(remaining.subList(from, Math.min(from + batchSize, remaining.size()))));
+        }
+    }
+
+    private boolean keepSample() {
+        return queue.size() < sampleThreshold || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    private boolean offerBlocking(ProductSearch productSearch) {
+        try {
+            return queue.offer(productSearch, blockTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void drainLoop() {
+        List<ProductSearch> batch = new ArrayList<>(batchSize);
+        while (running && !Thread.currentThread().isInterrupted()) {
+            try {
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    ProductSearch next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+    }
+
+    private void flush(List<ProductSearch> batch) {
+        try {
+            flushTimer.record(() -> productSearchRepository.saveAll(batch));
+            writtenCounter.increment(batch.size());
+        } catch (Exception e) {
+            droppedCounter.increment(batch.size());
+            log.error("Error al escribir un lote de {} búsquedas: {}", batch.size(), e.getMessage(), e);
+        }
+    }
+}
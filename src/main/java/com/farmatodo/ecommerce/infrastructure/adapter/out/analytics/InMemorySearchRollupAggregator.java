@@ -0,0 +1,112 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.out.analytics;
+
+import com.farmatodo.ecommerce.domain.model.SearchRollup;
+import com.farmatodo.ecommerce.domain.port.out.SearchRollupAggregatorPort;
+import com.farmatodo.ecommerce.domain.port.out.SearchRollupRepositoryPort;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Acumula las búsquedas en contadores por minuto y consulta normalizada.
+ * Los incrementos y la extracción de cada clave pasan por operaciones atómicas del mapa,
+ * así un contador retirado para escribir ya no recibe incrementos y no se pierden búsquedas.
+ * Las filas se suman en base de datos, por lo que un minuto puede escribirse en varias pasadas.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InMemorySearchRollupAggregator implements SearchRollupAggregatorPort {
+
+    private static final int MAX_QUERY_LENGTH = 500;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final SearchRollupRepositoryPort searchRollupRepository;
+
+    private final ConcurrentHashMap<RollupKey, Counters> buckets = new ConcurrentHashMap<>();
+
+    @Override
+    public void record(String query, int resultsCount, Instant searchedAt) {
+        if (query == null || query.isBlank()) {
+            return;
+        }
+        RollupKey key = new RollupKey(searchedAt.truncatedTo(ChronoUnit.MINUTES), normalize(query));
+        buckets.compute(key, (k, counters) -> {
+            Counters current = counters == null ? new Counters() : counters;
+            current.searches++;
+            current.totalResults += resultsCount;
+            if (resultsCount == 0) {
+                current.zeroResults++;
+            }
+            return current;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${search.rollup.flush-interval-ms:60000}")
+    public void flush() {
+        List<SearchRollup> rollups = new ArrayList<>();
+        for (RollupKey key : buckets.keySet()) {
+            Counters counters = buckets.remove(key);
+            if (counters != null) {
+                rollups.add(SearchRollup.builder()
+                        .bucketStart(key.minute().atZone(ZoneId.systemDefault()).toOffsetDateTime())
+                        .normalizedQuery(key.query())
+                        .searchCount(counters.searches)
+                        .zeroResultCount(counters.zeroResults)
+                        .totalResults(counters.totalResults)
+                        .build());
+            }
+        }
+        if (rollups.isEmpty()) {
+            return;
+        }
+        try {
+            searchRollupRepository.upsertAll(rollups);
+            log.debug("Rollups de búsqueda escritos: {} filas", rollups.size());
+        } catch (Exception e) {
+            rollups.forEach(this::restore);
+            log.error("Error al escribir rollups de búsqueda, se reintentará: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void restore(SearchRollup rollup) {
+        RollupKey key = new RollupKey(rollup.getBucketStart().toInstant(), rollup.getNormalizedQuery());
+        buckets.compute(key, (k, counters) -> {
+            Counters current = counters == null ? new Counters() : counters;
+            current.searches += rollup.getSearchCount();
+            current.zeroResults += rollup.getZeroResultCount();
+            current.totalResults += rollup.getTotalResults();
+            return current;
+        });
+    }
+
+    static String normalize(String query) {
+        String normalized = WHITESPACE.matcher(query.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+        return normalized.length() > MAX_QUERY_LENGTH ? normalized.substring(0, MAX_QUERY_LENGTH) : normalized;
+    }
+
+    private record RollupKey(Instant minute, String query) {
+    }
+
+    private static final class Counters {
+        private long searches;
+        private long zeroResults;
+        private long totalResults;
+    }
+}
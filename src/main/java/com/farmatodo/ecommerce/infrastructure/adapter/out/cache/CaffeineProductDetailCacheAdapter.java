@@ -0,0 +1,45 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.out.cache;
+
+import com.farmatodo.ecommerce.domain.model.Product;
+import com.farmatodo.ecommerce.domain.port.out.ProductDetailCachePort;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+@Component
+public class CaffeineProductDetailCacheAdapter implements ProductDetailCachePort {
+
+    private final Cache<UUID, Product> cache;
+
+    public CaffeineProductDetailCacheAdapter(
+            @Value("${product.cache.maximum-size:10000}") long maximumSize,
+            @Value("${product.cache.expire-after-write-ms:600000}") long expireAfterWriteMs,
+            MeterRegistry meterRegistry
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterWriteMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "productDetail");
+    }
+
+    @Override
+    public Product get(UUID uuid, Supplier<Product> loader) {
+        return cache.get(uuid, key -> loader.get());
+    }
+
+    @Override
+    public void invalidate(UUID uuid) {
+        if (uuid != null) {
+            cache.invalidate(uuid);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.out.cache;
+
+import com.farmatodo.ecommerce.domain.model.Product;
+import com.farmatodo.ecommerce.domain.model.SearchText;
+import com.farmatodo.ecommerce.domain.port.out.ProductSearchCachePort;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+public class CaffeineProductSearchCacheAdapter implements ProductSearchCachePort {
+
+    private final Cache<SearchKey, List<Product>> cache;
+
+    public CaffeineProductSearchCacheAdapter(
+            @Value("${search.cache.maximum-size:1000}") long maximumSize,
+            MeterRegistry meterRegistry
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "productSearch");
+    }
+
+    @Override
+    public List<Product> get(String normalizedQuery, int minStock, Supplier<List<Product>> loader) {
+        return cache.get(new SearchKey(normalizedQuery, minStock), key -> List.copyOf(loader.get()));
+    }
+
+    @Override
+    public void invalidateIfVisibilityChanged(String productName, int previousStock, int newStock) {
+        if (productName == null) {
+            return;
+        }
+        String name = SearchText.fold(productName);
+        cache.asMap().keySet().removeIf(key ->
+                (previousStock > key.minStock()) != (newStock > key.minStock())
+                        && name.contains(key.query()));
+    }
+
+    @Override
+    public void invalidateAll() {
+        log.info("Invalidando caché de búsqueda de productos ({} entradas).", cache.estimatedSize());
+        cache.invalidateAll();
+    }
+
+    private record SearchKey(String query, int minStock) {
+    }
+}
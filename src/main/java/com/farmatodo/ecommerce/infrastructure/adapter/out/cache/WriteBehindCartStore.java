@@ -0,0 +1,463 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.out.cache;
+
+import com.farmatodo.ecommerce.domain.model.CartItem;
+import com.farmatodo.ecommerce.domain.model.ShoppingCart;
+import com.farmatodo.ecommerce.domain.port.out.CartItemRepositoryPort;
+import com.farmatodo.ecommerce.domain.port.out.ShoppingCartRepositoryPort;
+import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.CartItemPersistenceAdapter;
+import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.ShoppingCartPersistenceAdapter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Almacén en memoria de carritos activos (write-behind). Las lecturas se sirven desde memoria y las
+ * mutaciones se acumulan por carrito; un proceso programado persiste el estado coalescido de cada carrito
+ * modificado. Los carritos nuevos se insertan de inmediato (se necesita su id) y cualquier cambio de estado
+ * (checkout) se escribe de forma síncrona y saca el carrito de memoria. Al apagar se vacía todo lo pendiente.
+ * Solo es correcto con una única instancia o con afinidad de sesión, por eso se activa con cart.write-behind.enabled.
+ */
+@Slf4j
+@Primary
+@Component
+@ConditionalOnProperty(name = "cart.write-behind.enabled", havingValue = "true")
+public class WriteBehindCartStore implements ShoppingCartRepositoryPort, CartItemRepositoryPort {
+
+    private final ShoppingCartPersistenceAdapter cartDelegate;
+    private final CartItemPersistenceAdapter itemDelegate;
+    private final long idleEvictionMs;
+
+    private final Map<String, CartEntry> byOwner = new ConcurrentHashMap<>();
+    private final Map<Long, CartEntry> byId = new ConcurrentHashMap<>();
+
+    public WriteBehindCartStore(
+            ShoppingCartPersistenceAdapter cartDelegate,
+            CartItemPersistenceAdapter itemDelegate,
+            @Value("${cart.write-behind.idle-eviction-ms:1800000}") long idleEvictionMs
+    ) {
+        this.cartDelegate = cartDelegate;
+        this.itemDelegate = itemDelegate;
+        this.idleEvictionMs = idleEvictionMs;
+    }
+
+    @Override
+    public Optional<ShoppingCart> findActiveByCustomerId(Long customerId) {
+        return find(customerKey(customerId), () -> cartDelegate.findActiveByCustomerId(customerId));
+    }
+
+    @Override
+    public Optional<ShoppingCart> findActiveBySessionId(String sessionId) {
+        return find(sessionKey(sessionId), () -> cartDelegate.findActiveBySessionId(sessionId));
+    }
+
+    @Override
+    public Optional<ShoppingCart> findByIdWithItems(Long id) {
+        CartEntry entry = byId.get(id);
+        if (entry != null) {
+            return Optional.of(entry.read());
+        }
+        return cartDelegate.findByIdWithItems(id);
+    }
+
+    @Override
+    public ShoppingCart save(ShoppingCart shoppingCart) {
+        if (shoppingCart.getId() == null) {
+            ShoppingCart created = cartDelegate.save(shoppingCart);
+            if (created.getStatus() == ShoppingCart.CartStatus.ACTIVE) {
+                register(created);
+            }
+            return copy(created);
+        }
+        CartEntry entry = byId.get(shoppingCart.getId());
+        if (entry == null) {
+            return cartDelegate.save(shoppingCart);
+        }
+        if (shoppingCart.getStatus() != ShoppingCart.CartStatus.ACTIVE) {
+            // El cambio de estado pasa por la entrada para heredar los ids de líneas ya persistidas por un flush.
+            synchronized (entry) {
+                ShoppingCart previous = copy(entry.cart);
+                boolean wasDirty = entry.dirty;
+                try {
+                    ShoppingCart saved = cartDelegate.save(entry.replace(shoppingCart));
+                    entry.dirty = false;
+                    evict(entry);
+                    return saved;
+                } catch (RuntimeException e) {
+                    entry.cart = previous;
+                    entry.dirty = wasDirty;
+                    throw e;
+                }
+            }
+        }
+        return entry.replace(shoppingCart);
+    }
+
+    @Override
+    public Optional<ShoppingCart> findActiveVersionByCustomerId(Long customerId) {
+        CartEntry entry = byOwner.get(customerKey(customerId));
+        return entry != null ? Optional.of(entry.read()) : cartDelegate.findActiveVersionByCustomerId(customerId);
+    }
+
+    @Override
+    public Optional<ShoppingCart> findActiveVersionBySessionId(String sessionId) {
+        CartEntry entry = byOwner.get(sessionKey(sessionId));
+        return entry != null ? Optional.of(entry.read()) : cartDelegate.findActiveVersionBySessionId(sessionId);
+    }
+
+    @Override
+    public ShoppingCart applyTotalsDelta(ShoppingCart shoppingCart, BigDecimal amountDelta, int itemsDelta) {
+        CartEntry entry = byId.get(shoppingCart.getId());
+        if (entry == null) {
+            return cartDelegate.applyTotalsDelta(shoppingCart, amountDelta, itemsDelta);
+        }
+        return entry.applyTotalsDelta(shoppingCart, amountDelta, itemsDelta);
+    }
+
+    @Override
+    public Optional<ShoppingCart> applyTotalsDeltaIfVersion(ShoppingCart shoppingCart, BigDecimal amountDelta, int itemsDelta,
+                                                            long expectedVersion) {
+        CartEntry entry = byId.get(shoppingCart.getId());
+        if (entry == null) {
+            return cartDelegate.applyTotalsDeltaIfVersion(shoppingCart, amountDelta, itemsDelta, expectedVersion);
+        }
+        synchronized (entry) {
+            if (entry.cart.getVersion() != expectedVersion) {
+                return Optional.empty();
+            }
+            return Optional.of(entry.applyTotalsDelta(shoppingCart, amountDelta, itemsDelta));
+        }
+    }
+
+    @Override
+    public void mergeAnonymousCart(String sessionId, Long customerId) {
+        writeThroughAndEvict(byOwner.get(sessionKey(sessionId)));
+        writeThroughAndEvict(byOwner.get(customerKey(customerId)));
+        cartDelegate.mergeAnonymousCart(sessionId, customerId);
+    }
+
+    @Override
+    public int expireCarts(int limit) {
+        OffsetDateTime now = OffsetDateTime.now();
+        byId.values().stream()
+                .filter(entry -> entry.expiresBefore(now))
+                .forEach(this::writeThroughAndEvict);
+        return cartDelegate.expireCarts(limit);
+    }
+
+    @Override
+    public int purgeExpiredCarts(OffsetDateTime updatedBefore, int limit) {
+        return cartDelegate.purgeExpiredCarts(updatedBefore, limit);
+    }
+
+    @Override
+    public Optional<CartItem> findByCartIdAndProductId(Long cartId, Long productId) {
+        CartEntry entry = byId.get(cartId);
+        if (entry == null) {
+            return itemDelegate.findByCartIdAndProductId(cartId, productId);
+        }
+        return entry.read().getItems().stream()
+                .filter(item -> item.getProductId().equals(productId))
+                .findFirst();
+    }
+
+    @Override
+    public CartItem save(CartItem cartItem) {
+        CartEntry entry = byId.get(cartItem.getCartId());
+        if (entry == null) {
+            return itemDelegate.save(cartItem);
+        }
+        return entry.putItem(cartItem);
+    }
+
+    @Override
+    public Optional<CartItem> addQuantity(CartItem cartItem, int maxQuantity) {
+        CartEntry entry = byId.get(cartItem.getCartId());
+        if (entry == null) {
+            return itemDelegate.addQuantity(cartItem, maxQuantity);
+        }
+        return entry.addQuantity(cartItem, maxQuantity);
+    }
+
+    @Override
+    public Optional<CartItem> updateQuantity(Long cartId, Long productId, int quantity) {
+        CartEntry entry = byId.get(cartId);
+        if (entry == null) {
+            return itemDelegate.updateQuantity(cartId, productId, quantity);
+        }
+        return entry.updateQuantity(productId, quantity);
+    }
+
+    // Sincronizado con flush(): una instantánea en vuelo no debe volver a insertar la línea borrada.
+    @Override
+    public synchronized boolean delete(Long cartId, Long productId) {
+        CartEntry entry = byId.get(cartId);
+        if (entry == null) {
+            return itemDelegate.delete(cartId, productId);
+        }
+        boolean removed = entry.removeItem(productId);
+        return itemDelegate.delete(cartId, productId) || removed;
+    }
+
+    @Override
+    public List<CartItem> addQuantities(List<CartItem> cartItems, Map<Long, Integer> maxQuantities) {
+        if (cartItems.isEmpty()) {
+            return List.of();
+        }
+        CartEntry entry = byId.get(cartItems.get(0).getCartId());
+        if (entry == null) {
+            return itemDelegate.addQuantities(cartItems, maxQuantities);
+        }
+        return entry.addQuantities(cartItems, maxQuantities);
+    }
+
+    @Scheduled(fixedDelayString = "${cart.write-behind.flush-interval-ms:2000}")
+    public synchronized void flush() {
+        long now = System.currentTimeMillis();
+        int flushed = 0;
+        for (CartEntry entry : byId.values()) {
+            // Se retiene la entrada mientras se escribe: un checkout concurrente no puede quedar pisado por
+            // una instantánea ACTIVE anterior ni insertar líneas cuyos ids aún no se conocen.
+            synchronized (entry) {
+                ShoppingCart snapshot = entry.takeDirtySnapshot();
+                if (snapshot != null) {
+                    try {
+                        entry.assignIds(cartDelegate.save(snapshot));
+                        flushed++;
+                    } catch (Exception e) {
+                        entry.markDirty();
+                        log.error("Error al persistir el carrito {}, se reintentará: {}", snapshot.getId(), e.getMessage(), e);
+                    }
+                } else if (now - entry.lastAccess > idleEvictionMs) {
+                    evict(entry);
+                }
+            }
+        }
+        if (flushed > 0) {
+            log.debug("Carritos persistidos en segundo plano: {}", flushed);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.info("Persistiendo carritos pendientes antes de apagar ({} en memoria).", byId.size());
+        flush();
+    }
+
+    private Optional<ShoppingCart> find(String ownerKey, Supplier<Optional<ShoppingCart>> loader) {
+        CartEntry entry = byOwner.get(ownerKey);
+        if (entry != null) {
+            return Optional.of(entry.read());
+        }
+        return loader.get().map(cart -> {
+            CartEntry registered = register(cart);
+            return registered.read();
+        });
+    }
+
+    private CartEntry register(ShoppingCart cart) {
+        CartEntry entry = byId.computeIfAbsent(cart.getId(), id -> new CartEntry(copy(cart)));
+        byOwner.put(ownerKey(cart), entry);
+        return entry;
+    }
+
+    private void writeThroughAndEvict(CartEntry entry) {
+        if (entry == null) {
+            return;
+        }
+        synchronized (entry) {
+            ShoppingCart snapshot = entry.takeDirtySnapshot();
+            if (snapshot != null) {
+                try {
+                    entry.assignIds(cartDelegate.save(snapshot));
+                } catch (RuntimeException e) {
+                    entry.markDirty();
+                    throw e;
+                }
+            }
+            evict(entry);
+        }
+    }
+
+    private void evict(CartEntry entry) {
+        synchronized (entry) {
+            if (entry.dirty) {
+                return;
+            }
+            byId.remove(entry.cart.getId(), entry);
+            byOwner.remove(ownerKey(entry.cart), entry);
+        }
+    }
+
+    private static String ownerKey(ShoppingCart cart) {
+        return cart.getCustomerId() != null ? customerKey(cart.getCustomerId()) : sessionKey(cart.getSessionId());
+    }
+
+    private static String customerKey(Long customerId) {
+        return "customer:" + customerId;
+    }
+
+    private static String sessionKey(String sessionId) {
+        return "session:" + sessionId;
+    }
+
+    private static ShoppingCart copy(ShoppingCart cart) {
+        return cart.toBuilder()
+                .items(cart.getItems() == null ? new ArrayList<>() : cart.getItems().stream()
+                        .map(item -> item.toBuilder().build())
+                        .collect(Collectors.toCollection(ArrayList::new)))
+                .build();
+    }
+
+    private static final class CartEntry {
+        private ShoppingCart cart;
+        private boolean dirty;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        private CartEntry(ShoppingCart cart) {
+            this.cart = cart;
+        }
+
+        synchronized ShoppingCart read() {
+            lastAccess = System.currentTimeMillis();
+            return copy(cart);
+        }
+
+        synchronized ShoppingCart replace(ShoppingCart updated) {
+            lastAccess = System.currentTimeMillis();
+            ShoppingCart replacement = copy(updated);
+            replacement.getItems().forEach(this::inheritId);
+            cart = replacement;
+            dirty = true;
+            return copy(cart);
+        }
+
+        synchronized CartItem putItem(CartItem item) {
+            lastAccess = System.currentTimeMillis();
+            CartItem stored = item.toBuilder().build();
+            inheritId(stored);
+            cart.getItems().removeIf(existing -> existing.getProductId().equals(item.getProductId()));
+            cart.getItems().add(stored);
+            dirty = true;
+            return stored.toBuilder().build();
+        }
+
+        synchronized Optional<CartItem> addQuantity(CartItem addition, int maxQuantity) {
+            return addQuantities(List.of(addition), Map.of(addition.getProductId(), maxQuantity)).stream().findFirst();
+        }
+
+        // Sin transacción que deshacer en memoria: si una línea no cabe no se aplica ninguna.
+        synchronized List<CartItem> addQuantities(List<CartItem> additions, Map<Long, Integer> maxQuantities) {
+            boolean fits = additions.stream().allMatch(addition -> cart.getItems().stream()
+                    .filter(existing -> existing.getProductId().equals(addition.getProductId()))
+                    .allMatch(existing -> existing.getQuantity() + addition.getQuantity() <= maxQuantities.get(addition.getProductId())));
+            if (!fits) {
+                return List.of();
+            }
+            lastAccess = System.currentTimeMillis();
+            List<CartItem> result = new ArrayList<>(additions.size());
+            for (CartItem addition : additions) {
+                CartItem stored = cart.getItems().stream()
+                        .filter(existing -> existing.getProductId().equals(addition.getProductId()))
+                        .findFirst()
+                        .orElse(null);
+                if (stored == null) {
+                    stored = addition.toBuilder().build();
+                    cart.getItems().add(stored);
+                } else {
+                    stored.setQuantity(stored.getQuantity() + addition.getQuantity());
+                }
+                stored.setSubtotal(stored.getUnitPrice().multiply(BigDecimal.valueOf(stored.getQuantity())));
+                result.add(stored.toBuilder().build());
+            }
+            dirty = true;
+            return result;
+        }
+
+        synchronized ShoppingCart applyTotalsDelta(ShoppingCart target, BigDecimal amountDelta, int itemsDelta) {
+            lastAccess = System.currentTimeMillis();
+            BigDecimal totalAmount = cart.getTotalAmount() == null ? BigDecimal.ZERO : cart.getTotalAmount();
+            cart.setTotalAmount(totalAmount.add(amountDelta));
+            cart.setTotalItems(cart.getTotalItems() + itemsDelta);
+            cart.setVersion(cart.getVersion() + 1);
+            dirty = true;
+            target.setTotalAmount(cart.getTotalAmount());
+            target.setTotalItems(cart.getTotalItems());
+            target.setVersion(cart.getVersion());
+            return target;
+        }
+
+        synchronized Optional<CartItem> updateQuantity(Long productId, int quantity) {
+            lastAccess = System.currentTimeMillis();
+            Optional<CartItem> stored = cart.getItems().stream()
+                    .filter(existing -> existing.getProductId().equals(productId))
+                    .findFirst();
+            stored.ifPresent(item -> {
+                item.setQuantity(quantity);
+                item.setSubtotal(item.getUnitPrice().multiply(BigDecimal.valueOf(quantity)));
+                dirty = true;
+            });
+            return stored.map(item -> item.toBuilder().build());
+        }
+
+        synchronized boolean removeItem(Long productId) {
+            lastAccess = System.currentTimeMillis();
+            boolean removed = cart.getItems().removeIf(existing -> existing.getProductId().equals(productId));
+            dirty |= removed;
+            return removed;
+        }
+
+        synchronized boolean expiresBefore(OffsetDateTime instant) {
+            return cart.getExpiresAt() != null && cart.getExpiresAt().isBefore(instant);
+        }
+
+        synchronized ShoppingCart takeDirtySnapshot() {
+            if (!dirty) {
+                return null;
+            }
+            dirty = false;
+            return copy(cart);
+        }
+
+        synchronized void markDirty() {
+            dirty = true;
+        }
+
+        private void inheritId(CartItem item) {
+            if (item.getId() != null) {
+                return;
+            }
+            cart.getItems().stream()
+                    .filter(existing -> existing.getId() != null && existing.getProductId().equals(item.getProductId()))
+                    .findFirst()
+                    .ifPresent(existing -> {
+                        item.setId(existing.getId());
+                        item.setUuid(existing.getUuid());
+                    });
+        }
+
+        synchronized void assignIds(ShoppingCart saved) {
+            for (CartItem savedItem : saved.getItems()) {
+                for (CartItem item : cart.getItems()) {
+                    if (item.getId() == null && item.getProductId().equals(savedItem.getProductId())) {
+                        item.setId(savedItem.getId());
+                        item.setUuid(savedItem.getUuid());
+                    }
+                }
+            }
+        }
+    }
+}
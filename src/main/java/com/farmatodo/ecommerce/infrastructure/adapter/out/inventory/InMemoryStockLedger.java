@@ -0,0 +1,403 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.out.inventory;
+
+import com.farmatodo.ecommerce.domain.exception.StockLedgerUnavailableException;
+import com.farmatodo.ecommerce.domain.port.out.StockLedgerPort;
+import com.farmatodo.ecommerce.domain.port.out.StockShardRepositoryPort;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ledger de stock en memoria para ventas flash: un AtomicInteger por cada SKU de inventory.ledger.skus que se
+ * descuenta con CAS, sin ir a BD.
+ * Cada reserva se anota en stock_ledger_reservations dentro de la transacción del checkout y se devuelve a
+ * memoria si hace rollback; un flush periódico aplica en products lo anotado y lo borra en la misma transacción.
+ * Al activarse carga el stock de BD menos las reservas aún sin aplicar, así un relevo no pierde ventas
+ * confirmadas. Solo lo activa el nodo que obtiene el advisory lock (la conexión que lo retiene queda fuera
+ * del pool): con dos nodos vendiendo desde memoria el mismo stock se vendería de más. Los demás informan heldElsewhere para esos SKUs y no los venden hasta tomar el
+ * relevo. El resto del catálogo se descuenta en BD en cualquier nodo.
+ * Cada reserva se anota solo si la conexión dueña sigue reteniendo el lock y el producto no está repartido
+ * en cubos; si no, se rechaza el checkout y el ledger deja de vender hasta revisar su estado.
+ * Un SKU que pasa a repartirse en cubos sale del ledger y lo ya reservado se descuenta de sus cubos.
+ * Las reposiciones hechas en BD mientras está activo no se ven hasta la siguiente activación.
+ */
+@Slf4j
+@Component
+public class InMemoryStockLedger implements StockLedgerPort {
+
+    private static final long OWNER_LOCK_KEY = 7_261_024L;
+    private static final String LOAD_STOCK_SQL =
+            "SELECT p.id, p.stock - COALESCE(r.pending, 0) AS stock FROM products p " +
+                    "LEFT JOIN (SELECT product_id, SUM(quantity) AS pending FROM stock_ledger_reservations " +
+                    "GROUP BY product_id) r ON r.product_id = p.id " +
+                    "WHERE p.is_active = true AND NOT p.stock_sharded AND p.sku IN (%s)";
+    private static final String RESOLVE_SKUS_SQL = "SELECT id FROM products WHERE sku IN (%s)";
+    private static final String HOLDS_LOCK_SQL =
+            "SELECT 1 FROM pg_locks WHERE locktype = 'advisory' AND classid = 0 AND objid::bigint = ? " +
+                    "AND objsubid = 1 AND granted AND pid = ?";
+    private static final String ACQUIRE_LOCK_SQL = "SELECT pg_try_advisory_lock(?), pg_backend_pid()";
+    private static final String OWNS_LOCK_SQL = "SELECT EXISTS (" + HOLDS_LOCK_SQL + ")";
+    private static final String RESERVE_SQL =
+            "INSERT INTO stock_ledger_reservations (product_id, quantity) " +
+                    "SELECT p.id, ? FROM products p WHERE p.id = ? AND NOT p.stock_sharded " +
+                    "AND EXISTS (" + HOLDS_LOCK_SQL + ")";
+    private static final String INSERT_RESERVATION_SQL =
+            "INSERT INTO stock_ledger_reservations (product_id, quantity) VALUES (?, ?)";
+    private static final String SHARDED_SKUS_SQL = "SELECT id FROM products WHERE stock_sharded AND sku IN (%s)";
+    private static final String DRAIN_RESERVATIONS_SQL =
+            "WITH drained AS (DELETE FROM stock_ledger_reservations RETURNING product_id, quantity) " +
+                    "SELECT product_id, SUM(quantity)::int AS quantity FROM drained GROUP BY product_id";
+    private static final String FLUSH_SQL =
+            "UPDATE products SET stock = stock - ? WHERE id = ? AND NOT stock_sharded AND stock >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DataSource dataSource;
+    private final boolean enabled;
+    private final Object[] skus;
+    private final String loadStockSql;
+    private final String resolveSkusSql;
+    private final String shardedSkusSql;
+    private final StockShardRepositoryPort stockShardRepository;
+
+    private final Map<Long, AtomicInteger> slots = new ConcurrentHashMap<>();
+    private final Set<Long> unapplied = new HashSet<>();
+    private volatile Set<Long> tracked = Set.of();
+    private volatile boolean active;
+    private Connection ownerConnection;
+    private volatile int ownerPid;
+
+    public InMemoryStockLedger(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            DataSource dataSource,
+            StockShardRepositoryPort stockShardRepository,
+            @Value("${inventory.ledger.enabled:false}") boolean enabled,
+            @Value("${inventory.ledger.skus:}") List<String> skus
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dataSource = dataSource;
+        this.stockShardRepository = stockShardRepository;
+        this.skus = skus.stream().map(String::trim).filter(sku -> !sku.isEmpty()).distinct().toArray();
+        if (enabled && this.skus.length == 0) {
+            log.warn("inventory.ledger.enabled=true sin inventory.ledger.skus: el ledger de stock queda desactivado.");
+        }
+        this.enabled = enabled && this.skus.length > 0;
+        String placeholders = String.join(", ", Collections.nCopies(Math.max(this.skus.length, 1), "?"));
+        this.loadStockSql = String.format(LOAD_STOCK_SQL, placeholders);
+        this.resolveSkusSql = String.format(RESOLVE_SKUS_SQL, placeholders);
+        this.shardedSkusSql = String.format(SHARDED_SKUS_SQL, placeholders);
+    }
+
+    @Override
+    public OptionalInt available(Long productId) {
+        AtomicInteger slot = active ? slots.get(productId) : null;
+        return slot == null ? OptionalInt.empty() : OptionalInt.of(slot.get());
+    }
+
+    @Override
+    public List<Long> reserve(Map<Long, Integer> quantities) {
+        Map<Long, Integer> taken = new LinkedHashMap<>();
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            AtomicInteger slot = active ? slots.get(line.getKey()) : null;
+            if (slot == null || !take(slot, line.getValue())) {
+                restore(taken);
+                return List.of(line.getKey());
+            }
+            taken.put(line.getKey(), line.getValue());
+        }
+        boolean recorded;
+        try {
+            recorded = record(taken);
+        } catch (RuntimeException e) {
+            restore(taken);
+            throw e;
+        }
+        if (!recorded) {
+            restore(taken);
+            refuse(taken.keySet());
+            throw new StockLedgerUnavailableException(
+                    "El inventario de un producto del pedido cambió de nodo o de modo. Inténtalo de nuevo en unos segundos.");
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        restore(taken);
+                    }
+                }
+            });
+        }
+        return List.of();
+    }
+
+    @Override
+    public boolean heldElsewhere(Long productId) {
+        return enabled && !active && tracked.contains(productId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            resolveTracked();
+            tryToActivate();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.ledger.flush-interval-ms:500}")
+    public synchronized void flush() {
+        if (!enabled) {
+            return;
+        }
+        persistConfirmed();
+        resolveTracked();
+        if (active && !ownsLock()) {
+            log.error("Se perdió el advisory lock del ledger de stock; se deja de vender desde memoria.");
+            active = false;
+        }
+        if (active) {
+            dropShardedSlots();
+            return;
+        }
+        if (ownerConnection != null) {
+            slots.clear();
+            releaseLock();
+        }
+        tryToActivate();
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (enabled) {
+            deactivate();
+        }
+    }
+
+    private static boolean take(AtomicInteger slot, int quantity) {
+        int current;
+        do {
+            current = slot.get();
+            if (current < quantity) {
+                return false;
+            }
+        } while (!slot.compareAndSet(current, current - quantity));
+        return true;
+    }
+
+    private void restore(Map<Long, Integer> taken) {
+        taken.forEach((productId, quantity) -> {
+            AtomicInteger slot = slots.get(productId);
+            if (slot != null) {
+                slot.addAndGet(quantity);
+            }
+        });
+    }
+
+    // La reserva se anota en la transacción del checkout solo si la conexión dueña aún retiene el lock:
+    // un nodo que lo perdió no puede seguir vendiendo aunque el flush todavía no lo haya notado.
+    private boolean record(Map<Long, Integer> taken) {
+        List<Object[]> rows = new ArrayList<>(taken.size());
+        taken.forEach((productId, quantity) -> rows.add(new Object[]{quantity, productId, OWNER_LOCK_KEY, ownerPid}));
+        return Arrays.stream(jdbcTemplate.batchUpdate(RESERVE_SQL, rows)).allMatch(updated -> updated != 0);
+    }
+
+    // Una reserva rechazada es por un SKU que pasó a cubos (sale del ledger) o porque se perdió el lock.
+    private void refuse(Set<Long> productIds) {
+        List<Long> sharded = jdbcTemplate.queryForList(shardedSkusSql, Long.class, skus);
+        if (productIds.stream().anyMatch(sharded::contains)) {
+            sharded.forEach(slots::remove);
+            log.warn("Productos {} repartidos en cubos: salen del ledger de stock.", sharded);
+            return;
+        }
+        log.error("La reserva en el ledger de stock no encontró el advisory lock; se deja de vender desde memoria.");
+        active = false;
+    }
+
+    private void dropShardedSlots() {
+        try {
+            List<Long> sharded = jdbcTemplate.queryForList(shardedSkusSql, Long.class, skus);
+            if (sharded.stream().anyMatch(slots::containsKey)) {
+                sharded.forEach(slots::remove);
+                log.warn("Productos {} repartidos en cubos: salen del ledger de stock.", sharded);
+            }
+        } catch (Exception e) {
+            log.warn("No se pudo revisar qué SKUs del ledger están repartidos en cubos: {}", e.getMessage());
+        }
+    }
+
+    // Cada nodo resuelve los SKUs del ledger a ids para saber qué líneas rechazar mientras no es el dueño.
+    private void resolveTracked() {
+        try {
+            tracked = Set.copyOf(jdbcTemplate.queryForList(resolveSkusSql, Long.class, skus));
+        } catch (Exception e) {
+            log.warn("No se pudieron resolver los SKUs del ledger de stock, se mantienen los anteriores: {}", e.getMessage());
+        }
+    }
+
+    private void persistConfirmed() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> applyReservations());
+        } catch (Exception e) {
+            log.error("Error al aplicar las reservas del ledger de stock, se reintentará: {}", e.getMessage(), e);
+        }
+    }
+
+    // Lo reservado antes de que el SKU pasara a cubos se descuenta de sus cubos. Un descuento que dejaría el stock
+    // en negativo no se aplica: vuelve al registro de reservas y se alerta una vez por producto, porque significa
+    // que se vendió más de lo que había en BD.
+    private void applyReservations() {
+        Map<Long, Integer> batch = new TreeMap<>();
+        jdbcTemplate.query(DRAIN_RESERVATIONS_SQL, rs -> {
+            batch.put(rs.getLong("product_id"), rs.getInt("quantity"));
+        });
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(batch.entrySet());
+        List<Object[]> rows = new ArrayList<>(lines.size());
+        lines.forEach(line -> rows.add(new Object[]{line.getValue(), line.getKey(), line.getValue()}));
+        int[] updated = jdbcTemplate.batchUpdate(FLUSH_SQL, rows);
+
+        Map<Long, Integer> notApplied = new TreeMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            if (updated[i] != 0) {
+                unapplied.remove(lines.get(i).getKey());
+            } else {
+                notApplied.put(lines.get(i).getKey(), lines.get(i).getValue());
+            }
+        }
+        if (notApplied.isEmpty()) {
+            return;
+        }
+        List<Long> rejected = stockShardRepository.decrementStock(notApplied);
+        List<Object[]> kept = new ArrayList<>();
+        notApplied.forEach((productId, quantity) -> {
+            if (!rejected.contains(productId)) {
+                unapplied.remove(productId);
+                return;
+            }
+            kept.add(new Object[]{productId, quantity});
+            if (unapplied.add(productId)) {
+                log.error("ALERTA: descontar {} unidades del producto {} dejaría su stock en negativo; " +
+                        "se conserva la reserva para conciliarla.", quantity, productId);
+            }
+        });
+        if (!kept.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_RESERVATION_SQL, kept);
+        }
+    }
+
+    private void tryToActivate() {
+        if (!acquireLock()) {
+            return;
+        }
+        slots.clear();
+        jdbcTemplate.query(loadStockSql, (RowCallbackHandler) rs -> {
+            slots.put(rs.getLong("id"), new AtomicInteger(rs.getInt("stock")));
+        }, skus);
+        active = true;
+        log.info("Ledger de stock activo con {} productos.", slots.size());
+    }
+
+    private void deactivate() {
+        active = false;
+        persistConfirmed();
+        slots.clear();
+        releaseLock();
+    }
+
+    private boolean acquireLock() {
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+            try (PreparedStatement statement = connection.prepareStatement(ACQUIRE_LOCK_SQL)) {
+                statement.setLong(1, OWNER_LOCK_KEY);
+                try (ResultSet rs = statement.executeQuery()) {
+                    if (rs.next() && rs.getBoolean(1)) {
+                        ownerConnection = connection;
+                        ownerPid = rs.getInt(2);
+                        return true;
+                    }
+                }
+            }
+            connection.close();
+        } catch (SQLException e) {
+            log.warn("No se pudo intentar tomar el ledger de stock: {}", e.getMessage());
+            closeQuietly(connection);
+        }
+        return false;
+    }
+
+    // Se consulta pg_locks desde la propia conexión dueña: una conexión viva pudo haber perdido el lock
+    // (p. ej. la sesión se reinició detrás de un pooler), y eso isValid() no lo detecta.
+    private boolean ownsLock() {
+        if (ownerConnection == null) {
+            return false;
+        }
+        try (PreparedStatement statement = ownerConnection.prepareStatement(OWNS_LOCK_SQL)) {
+            statement.setQueryTimeout(2);
+            statement.setLong(1, OWNER_LOCK_KEY);
+            statement.setInt(2, ownerPid);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void releaseLock() {
+        if (ownerConnection == null) {
+            return;
+        }
+        try (PreparedStatement statement = ownerConnection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            statement.setLong(1, OWNER_LOCK_KEY);
+            statement.execute();
+        } catch (SQLException e) {
+            log.warn("No se pudo liberar el advisory lock del ledger de stock: {}", e.getMessage());
+        }
+        closeQuietly(ownerConnection);
+        ownerConnection = null;
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Error al cerrar la conexión del ledger de stock: {}", e.getMessage());
+        }
+    }
+}
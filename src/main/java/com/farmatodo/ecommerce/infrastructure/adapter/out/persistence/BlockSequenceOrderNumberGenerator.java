@@ -0,0 +1,42 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.out.persistence;
+
+import com.farmatodo.ecommerce.domain.port.out.OrderNumberGeneratorPort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Números de orden con la forma PREFIJO-yyyyMMdd-contador. El contador sale de order_number_seq, que entrega
+ * bloques de BLOCK_SIZE valores por nextval: cada nodo consume su bloque en memoria y solo vuelve a la BD al
+ * agotarlo, y dos nodos nunca comparten bloque. El contador va con ceros a la izquierda para que los números
+ * crezcan en orden y se inserten al final del índice único de orders.order_number.
+ */
+@Component
+@RequiredArgsConstructor
+public class BlockSequenceOrderNumberGenerator implements OrderNumberGeneratorPort {
+
+    // Debe coincidir con el INCREMENT BY de order_number_seq (V14).
+    static final long BLOCK_SIZE = 1000;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private long next;
+    private long blockEnd;
+
+    @Override
+    public String nextOrderNumber(String prefix) {
+        return String.format("%s-%s-%010d", prefix, LocalDate.now().format(DATE_FORMAT), nextCounter());
+    }
+
+    private synchronized long nextCounter() {
+        if (next >= blockEnd) {
+            next = jdbcTemplate.queryForObject("SELECT nextval('order_number_seq')", Long.class);
+            blockEnd = next + BLOCK_SIZE;
+        }
+        return next++;
+    }
+}
@@ -5,15 +5,44 @@ import com.farmatodo.ecommerce.domain.port.out.CartItemRepositoryPort;
 import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.mapper.ShoppingCartPersistenceMapper;
 import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.repository.CartItemJpaRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 @Component
 @RequiredArgsConstructor
 public class CartItemPersistenceAdapter implements CartItemRepositoryPort {
 
+    private static final String ADD_QUANTITY_SQL =
+            "INSERT INTO cart_items (cart_id, product_id, quantity, unit_price) VALUES (?, ?, ?, ?) " +
+                    "ON CONFLICT (cart_id, product_id) DO UPDATE SET quantity = cart_items.quantity + EXCLUDED.quantity " +
+                    "WHERE cart_items.quantity + EXCLUDED.quantity <= ? " +
+                    "RETURNING id, uuid, cart_id, product_id, quantity, unit_price, subtotal, created_at, updated_at";
+    private static final String UPDATE_QUANTITY_SQL =
+            "UPDATE cart_items SET quantity = ? WHERE cart_id = ? AND product_id = ? " +
+                    "RETURNING id, uuid, cart_id, product_id, quantity, unit_price, subtotal, created_at, updated_at";
+    private static final String DELETE_SQL = "DELETE FROM cart_items WHERE cart_id = ? AND product_id = ?";
+    // Cada fila se compara con su propio tope; las que no caben no se devuelven.
+    private static final String ADD_QUANTITIES_SQL =
+            "INSERT INTO cart_items (cart_id, product_id, quantity, unit_price) VALUES %s " +
+                    "ON CONFLICT (cart_id, product_id) DO UPDATE SET quantity = cart_items.quantity + EXCLUDED.quantity " +
+                    "WHERE cart_items.quantity + EXCLUDED.quantity <= " +
+                    "(SELECT m.max_quantity FROM (VALUES %s) AS m (product_id, max_quantity) WHERE m.product_id = EXCLUDED.product_id) " +
+                    "RETURNING id, uuid, cart_id, product_id, quantity, unit_price, subtotal, created_at, updated_at";
+
     private final CartItemJpaRepository jpaRepository;
     private final ShoppingCartPersistenceMapper mapper;
+    private final JdbcTemplate jdbcTemplate;
 
     @Override
     public Optional<CartItem> findByCartIdAndProductId(Long cartId, Long productId) {
@@ -27,4 +56,64 @@ public class CartItemPersistenceAdapter implements CartItemRepositoryPort {
         var savedEntity = jpaRepository.save(entity);
         return mapper.toDomain(savedEntity);
     }
-}
\ No newline at end of file
+
+    @Override
+    public Optional<CartItem> addQuantity(CartItem cartItem, int maxQuantity) {
+        return jdbcTemplate.query(ADD_QUANTITY_SQL, cartItemRowMapper(),
+                        cartItem.getCartId(), cartItem.getProductId(), cartItem.getQuantity(), cartItem.getUnitPrice(), maxQuantity)
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public List<CartItem> addQuantities(List<CartItem> cartItems, Map<Long, Integer> maxQuantities) {
+        if (cartItems.isEmpty()) {
+            return List.of();
+        }
+        String sql = String.format(ADD_QUANTITIES_SQL,
+                String.join(", ", Collections.nCopies(cartItems.size(), "(?, ?, ?, ?)")),
+                String.join(", ", Collections.nCopies(cartItems.size(), "(?, ?)")));
+        List<Object> args = new ArrayList<>(cartItems.size() * 6);
+        for (CartItem item : cartItems) {
+            args.add(item.getCartId());
+            args.add(item.getProductId());
+            args.add(item.getQuantity());
+            args.add(item.getUnitPrice());
+        }
+        for (CartItem item : cartItems) {
+            args.add(item.getProductId());
+            args.add(maxQuantities.get(item.getProductId()));
+        }
+        return jdbcTemplate.query(sql, cartItemRowMapper(), args.toArray());
+    }
+
+    @Override
+    public Optional<CartItem> updateQuantity(Long cartId, Long productId, int quantity) {
+        return jdbcTemplate.query(UPDATE_QUANTITY_SQL, cartItemRowMapper(), quantity, cartId, productId)
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public boolean delete(Long cartId, Long productId) {
+        return jdbcTemplate.update(DELETE_SQL, cartId, productId) > 0;
+    }
+
+    private static RowMapper<CartItem> cartItemRowMapper() {
+        return (rs, rowNum) -> CartItem.builder()
+                .id(rs.getLong("id"))
+                .uuid(rs.getObject("uuid", UUID.class))
+                .cartId(rs.getLong("cart_id"))
+                .productId(rs.getLong("product_id"))
+                .quantity(rs.getInt("quantity"))
+                .unitPrice(rs.getBigDecimal("unit_price"))
+                .subtotal(rs.getBigDecimal("subtotal"))
+                .createdAt(toOffsetDateTime(rs.getTimestamp("created_at")))
+                .updatedAt(toOffsetDateTime(rs.getTimestamp("updated_at")))
+                .build();
+    }
+
+    private static OffsetDateTime toOffsetDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime().atZone(ZoneId.systemDefault()).toOffsetDateTime();
+    }
+}
@@ -1,26 +1,96 @@
 package com.farmatodo.ecommerce.infrastructure.adapter.out.persistence;
 
+import com.farmatodo.ecommerce.domain.model.FacetedProducts;
 import com.farmatodo.ecommerce.domain.model.Product;
 import com.farmatodo.ecommerce.domain.port.out.ProductRepositoryPort;
 import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.mapper.ProductPersistenceMapper;
 import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.repository.ProductJpaRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
 @RequiredArgsConstructor
 public class ProductPersistenceAdapter implements ProductRepositoryPort {
 
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final String STREAM_BY_NAME_SQL =
+            "SELECT id, uuid, sku, name, price, stock, category, brand, image_url, is_active FROM products " +
+                    "WHERE f_unaccent(lower(name)) LIKE ? AND stock > ? AND is_active = true ORDER BY name, id";
+    private static final String STREAM_ACTIVE_SQL =
+            "SELECT id, uuid, sku, name, description, price, stock, category, brand, image_url, is_active FROM products " +
+                    "WHERE is_active = true ORDER BY id";
+    private static final String DECREMENT_STOCK_SQL =
+            "UPDATE products SET stock = stock - ? WHERE id = ? AND stock >= ? AND NOT stock_sharded";
+
     private final ProductJpaRepository jpaRepository;
     private final ProductPersistenceMapper mapper;
+    private final JdbcTemplate jdbcTemplate;
 
     @Override
     public List<Product> findByNameContainingIgnoreCaseAndStockGreaterThan(String name, int minStock) {
-        var entities = jpaRepository.findByNameContainingIgnoreCaseAndStockGreaterThanAndIsActiveTrue(name, minStock);
-        return mapper.toDomainList(entities);
+        var summaries = jpaRepository.findSummariesByFoldedName(escapeLike(name), minStock);
+        return mapper.toDomainSummaries(summaries);
+    }
+
+    @Override
+    public List<Product> findPageByNameContaining(String name, int minStock, String afterName, Long afterId, int limit) {
+        var summaries = jpaRepository.findPageByFoldedName(
+                escapeLike(name),
+                minStock,
+                afterName == null ? "" : afterName,
+                afterId == null ? 0L : afterId,
+                limit
+        );
+        return mapper.toDomainSummaries(summaries);
+    }
+
+    @Override
+    public void forEachByNameContaining(String name, int minStock, Consumer<Product> consumer) {
+        stream(STREAM_BY_NAME_SQL, rs -> consumer.accept(mapRow(rs)), "%" + escapeLike(name) + "%", minStock);
+    }
+
+    @Override
+    public void forEachActive(Consumer<Product> consumer) {
+        stream(STREAM_ACTIVE_SQL, rs -> {
+            Product product = mapRow(rs);
+            product.setDescription(rs.getString("description"));
+            consumer.accept(product);
+        });
+    }
+
+    @Override
+    public FacetedProducts searchFaceted(String name, int minStock, String category, String brand) {
+        List<Product> matches = findByNameContainingIgnoreCaseAndStockGreaterThan(name, minStock);
+        return FacetedProducts.builder()
+                .products(matches.stream()
+                        .filter(p -> matchesFacet(p.getCategory(), category) && matchesFacet(p.getBrand(), brand))
+                        .toList())
+                .categoryCounts(countBy(matches.stream().filter(p -> matchesFacet(p.getBrand(), brand)), Product::getCategory))
+                .brandCounts(countBy(matches.stream().filter(p -> matchesFacet(p.getCategory(), category)), Product::getBrand))
+                .build();
+    }
+
+    @Override
+    public List<Product> searchRanked(String query, int minStock, int limit) {
+        return mapper.toDomainSummaries(jpaRepository.searchRanked(query, minStock, limit));
     }
 
     @Override
@@ -30,16 +100,80 @@ public class ProductPersistenceAdapter implements ProductRepositoryPort {
     }
 
     @Override
-    public Optional<Product> findByIdForUpdate(Long id) {
-        return jpaRepository.findById(id)
+    public Optional<Product> findByUuidAndIsActiveTrue(UUID uuid) {
+        return jpaRepository.findByUuidAndIsActiveTrue(uuid)
                 .map(mapper::toDomain);
     }
 
     @Override
-    public void saveAll(List<Product> products) {
-        var entities = products.stream()
-                .map(mapper::toEntity)
-                .collect(Collectors.toList());
-        jpaRepository.saveAll(entities);
+    public List<Product> findAllActiveByIds(Collection<Long> ids) {
+        return mapper.toDomainSummaries(jpaRepository.findSummariesByIdIn(ids)).stream()
+                .filter(product -> Boolean.TRUE.equals(product.getIsActive()))
+                .toList();
+    }
+
+    // Se ordena por id para que dos checkouts con productos en común tomen los bloqueos de fila en el mismo orden.
+    @Override
+    public List<Long> decrementStock(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return List.of();
+        }
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+        int[] updated = jdbcTemplate.batchUpdate(DECREMENT_STOCK_SQL, lines, lines.size(), (statement, line) -> {
+            statement.setInt(1, line.getValue());
+            statement.setLong(2, line.getKey());
+            statement.setInt(3, line.getValue());
+        })[0];
+        List<Long> rejected = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                rejected.add(lines.get(i).getKey());
+            }
+        }
+        return rejected;
+    }
+
+    private static boolean matchesFacet(String value, String selected) {
+        return selected == null || selected.equals(value);
+    }
+
+    private static Map<String, Long> countBy(Stream<Product> products, Function<Product, String> facet) {
+        Map<String, Long> counts = products
+                .filter(p -> facet.apply(p) != null)
+                .collect(Collectors.groupingBy(facet, Collectors.counting()));
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private void stream(String sql, RowCallbackHandler handler, Object... args) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            return statement;
+        }, handler);
+    }
+
+    private Product mapRow(ResultSet rs) throws SQLException {
+        return Product.builder()
+                .id(rs.getLong("id"))
+                .uuid(rs.getObject("uuid", UUID.class))
+                .sku(rs.getString("sku"))
+                .name(rs.getString("name"))
+                .price(rs.getBigDecimal("price"))
+                .stock(rs.getInt("stock"))
+                .category(rs.getString("category"))
+                .brand(rs.getString("brand"))
+                .imageUrl(rs.getString("image_url"))
+                .isActive(rs.getBoolean("is_active"))
+                .build();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
-}
\ No newline at end of file
+}
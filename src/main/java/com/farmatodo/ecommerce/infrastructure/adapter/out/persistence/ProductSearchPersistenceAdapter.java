@@ -6,18 +6,46 @@ import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.entity.Pro
 import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.mapper.ProductSearchPersistenceMapper;
 import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.repository.ProductSearchJpaRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.util.List;
+
 @Component
 @RequiredArgsConstructor
 public class ProductSearchPersistenceAdapter implements ProductSearchRepositoryPort {
 
+    private static final String INSERT_SQL =
+            "INSERT INTO product_searches (customer_id, search_query, results_count, ip_address, user_agent, searched_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)";
+
     private final ProductSearchJpaRepository jpaRepository;
     private final ProductSearchPersistenceMapper mapper;
+    private final JdbcTemplate jdbcTemplate;
 
     @Override
     public void save(ProductSearch productSearch) {
         ProductSearchEntity entity = mapper.toEntity(productSearch);
         jpaRepository.save(entity);
     }
-}
\ No newline at end of file
+
+    @Override
+    public void saveAll(List<ProductSearch> productSearches) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, productSearches, productSearches.size(), (ps, search) -> {
+            if (search.getCustomerId() == null) {
+                ps.setNull(1, Types.BIGINT);
+            } else {
+                ps.setLong(1, search.getCustomerId());
+            }
+            ps.setString(2, search.getSearchQuery());
+            ps.setInt(3, search.getResultsCount());
+            ps.setString(4, search.getIpAddress());
+            ps.setString(5, search.getUserAgent());
+            OffsetDateTime searchedAt = search.getSearchedAt() == null ? OffsetDateTime.now() : search.getSearchedAt();
+            ps.setTimestamp(6, Timestamp.from(searchedAt.toInstant()));
+        });
+    }
+}
@@ -0,0 +1,87 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.out.persistence;
+
+import com.farmatodo.ecommerce.domain.model.SearchRollup;
+import com.farmatodo.ecommerce.domain.port.out.SearchRollupRepositoryPort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class SearchRollupPersistenceAdapter implements SearchRollupRepositoryPort {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO product_search_rollups (bucket_start, normalized_query, search_count, zero_result_count, total_results) " +
+                    "VALUES (?, ?, ?, ?, ?) " +
+                    "ON CONFLICT (bucket_start, normalized_query) DO UPDATE SET " +
+                    "search_count = product_search_rollups.search_count + EXCLUDED.search_count, " +
+                    "zero_result_count = product_search_rollups.zero_result_count + EXCLUDED.zero_result_count, " +
+                    "total_results = product_search_rollups.total_results + EXCLUDED.total_results";
+
+    private static final String BY_QUERY_SQL =
+            "SELECT normalized_query, SUM(search_count) AS search_count, SUM(zero_result_count) AS zero_result_count, " +
+                    "SUM(total_results) AS total_results FROM product_search_rollups " +
+                    "WHERE bucket_start >= ? AND bucket_start < ? GROUP BY normalized_query ";
+
+    private static final String BY_HOUR_SQL =
+            "SELECT date_trunc('hour', bucket_start) AS bucket_start, SUM(search_count) AS search_count, " +
+                    "SUM(zero_result_count) AS zero_result_count, SUM(total_results) AS total_results " +
+                    "FROM product_search_rollups WHERE bucket_start >= ? AND bucket_start < ? " +
+                    "GROUP BY 1 ORDER BY 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void upsertAll(List<SearchRollup> rollups) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rollups, rollups.size(), (ps, rollup) -> {
+            ps.setTimestamp(1, Timestamp.from(rollup.getBucketStart().toInstant()));
+            ps.setString(2, rollup.getNormalizedQuery());
+            ps.setLong(3, rollup.getSearchCount());
+            ps.setLong(4, rollup.getZeroResultCount());
+            ps.setLong(5, rollup.getTotalResults());
+        });
+    }
+
+    @Override
+    public List<SearchRollup> findTopQueries(OffsetDateTime from, OffsetDateTime to, int limit) {
+        return jdbcTemplate.query(BY_QUERY_SQL + "ORDER BY search_count DESC, normalized_query LIMIT ?",
+                queryRowMapper(), timestamp(from), timestamp(to), limit);
+    }
+
+    @Override
+    public List<SearchRollup> findZeroResultQueries(OffsetDateTime from, OffsetDateTime to, int limit) {
+        return jdbcTemplate.query(BY_QUERY_SQL + "HAVING SUM(zero_result_count) > 0 " +
+                        "ORDER BY zero_result_count DESC, normalized_query LIMIT ?",
+                queryRowMapper(), timestamp(from), timestamp(to), limit);
+    }
+
+    @Override
+    public List<SearchRollup> countByHour(OffsetDateTime from, OffsetDateTime to) {
+        return jdbcTemplate.query(BY_HOUR_SQL, (rs, rowNum) -> SearchRollup.builder()
+                .bucketStart(rs.getTimestamp("bucket_start").toLocalDateTime()
+                        .atZone(ZoneId.systemDefault()).toOffsetDateTime())
+                .searchCount(rs.getLong("search_count"))
+                .zeroResultCount(rs.getLong("zero_result_count"))
+                .totalResults(rs.getLong("total_results"))
+                .build(), timestamp(from), timestamp(to));
+    }
+
+    private static RowMapper<SearchRollup> queryRowMapper() {
+        return (rs, rowNum) -> SearchRollup.builder()
+                .normalizedQuery(rs.getString("normalized_query"))
+                .searchCount(rs.getLong("search_count"))
+                .zeroResultCount(rs.getLong("zero_result_count"))
+                .totalResults(rs.getLong("total_results"))
+                .build();
+    }
+
+    private static Timestamp timestamp(OffsetDateTime value) {
+        return Timestamp.from(value.toInstant());
+    }
+}
@@ -1,31 +1,68 @@
 package com.farmatodo.ecommerce.infrastructure.adapter.out.persistence;
 
+import com.farmatodo.ecommerce.domain.model.CartItem;
+import com.farmatodo.ecommerce.domain.model.Product;
 import com.farmatodo.ecommerce.domain.model.ShoppingCart;
 import com.farmatodo.ecommerce.domain.port.out.ShoppingCartRepositoryPort;
+import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.mapper.ProductPersistenceMapper;
 import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.mapper.ShoppingCartPersistenceMapper;
+import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.repository.ProductJpaRepository;
 import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.repository.ShoppingCartJpaRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
 public class ShoppingCartPersistenceAdapter implements ShoppingCartRepositoryPort {
 
+    private static final String APPLY_TOTALS_DELTA_SQL =
+            "UPDATE shopping_carts SET total_amount = total_amount + ?, total_items = total_items + ?, version = version + 1 " +
+                    "WHERE id = ? RETURNING total_amount, total_items, version";
+    private static final String APPLY_TOTALS_DELTA_IF_VERSION_SQL =
+            "UPDATE shopping_carts SET total_amount = total_amount + ?, total_items = total_items + ?, version = version + 1 " +
+                    "WHERE id = ? AND version = ? RETURNING total_amount, total_items, version";
+    private static final String ACTIVE_VERSION_SQL =
+            "SELECT id, uuid, version FROM shopping_carts WHERE status = 'ACTIVE' AND ";
+    private static final String MERGE_ANONYMOUS_CART_SQL = "SELECT merge_anonymous_cart_to_customer(?, ?)";
+    private static final String EXPIRE_CARTS_SQL =
+            "UPDATE shopping_carts SET status = 'EXPIRED' WHERE id IN (" +
+                    "SELECT id FROM shopping_carts WHERE status = 'ACTIVE' AND expires_at < CURRENT_TIMESTAMP " +
+                    "ORDER BY expires_at LIMIT ? FOR UPDATE SKIP LOCKED)";
+    private static final String PURGE_EXPIRED_CARTS_SQL =
+            "DELETE FROM shopping_carts WHERE id IN (" +
+                    "SELECT id FROM shopping_carts WHERE status = 'EXPIRED' AND updated_at < ? " +
+                    "LIMIT ? FOR UPDATE SKIP LOCKED)";
+
     private final ShoppingCartJpaRepository jpaRepository;
     private final ShoppingCartPersistenceMapper mapper;
+    private final ProductJpaRepository productJpaRepository;
+    private final ProductPersistenceMapper productMapper;
+    private final JdbcTemplate jdbcTemplate;
 
     @Override
     public Optional<ShoppingCart> findActiveByCustomerId(Long customerId) {
         return jpaRepository.findByCustomerIdAndStatus(customerId, ShoppingCart.CartStatus.ACTIVE)
-                .map(mapper::toDomain);
+                .map(mapper::toDomain)
+                .map(this::attachProducts);
     }
 
     @Override
     public Optional<ShoppingCart> findActiveBySessionId(String sessionId) {
         return jpaRepository.findBySessionIdAndStatus(sessionId, ShoppingCart.CartStatus.ACTIVE)
-                .map(mapper::toDomain);
+                .map(mapper::toDomain)
+                .map(this::attachProducts);
     }
 
     @Override
@@ -38,6 +75,83 @@ public class ShoppingCartPersistenceAdapter implements ShoppingCartRepositoryPor
     @Override
     public Optional<ShoppingCart> findByIdWithItems(Long id) {
         return jpaRepository.findByIdWithItems(id)
-                .map(mapper::toDomain);
+                .map(mapper::toDomain)
+                .map(this::attachProducts);
+    }
+
+    @Override
+    public Optional<ShoppingCart> findActiveVersionByCustomerId(Long customerId) {
+        return findActiveVersion("customer_id = ?", customerId);
+    }
+
+    @Override
+    public Optional<ShoppingCart> findActiveVersionBySessionId(String sessionId) {
+        return findActiveVersion("session_id = ?", sessionId);
+    }
+
+    @Override
+    public ShoppingCart applyTotalsDelta(ShoppingCart shoppingCart, BigDecimal amountDelta, int itemsDelta) {
+        jdbcTemplate.query(APPLY_TOTALS_DELTA_SQL, totalsHandler(shoppingCart), amountDelta, itemsDelta, shoppingCart.getId());
+        return shoppingCart;
+    }
+
+    @Override
+    public Optional<ShoppingCart> applyTotalsDeltaIfVersion(ShoppingCart shoppingCart, BigDecimal amountDelta, int itemsDelta,
+                                                            long expectedVersion) {
+        AtomicBoolean updated = new AtomicBoolean();
+        jdbcTemplate.query(APPLY_TOTALS_DELTA_IF_VERSION_SQL, rs -> {
+            totalsHandler(shoppingCart).processRow(rs);
+            updated.set(true);
+        }, amountDelta, itemsDelta, shoppingCart.getId(), expectedVersion);
+        return updated.get() ? Optional.of(shoppingCart) : Optional.empty();
+    }
+
+    @Override
+    public void mergeAnonymousCart(String sessionId, Long customerId) {
+        jdbcTemplate.query(MERGE_ANONYMOUS_CART_SQL, rs -> {
+        }, sessionId, customerId);
+    }
+
+    @Override
+    public int expireCarts(int limit) {
+        return jdbcTemplate.update(EXPIRE_CARTS_SQL, limit);
+    }
+
+    @Override
+    public int purgeExpiredCarts(OffsetDateTime updatedBefore, int limit) {
+        return jdbcTemplate.update(PURGE_EXPIRED_CARTS_SQL, updatedBefore, limit);
+    }
+
+    private Optional<ShoppingCart> findActiveVersion(String ownerFilter, Object owner) {
+        return jdbcTemplate.query(ACTIVE_VERSION_SQL + ownerFilter, (rs, rowNum) -> ShoppingCart.builder()
+                        .id(rs.getLong("id"))
+                        .uuid(rs.getObject("uuid", UUID.class))
+                        .version(rs.getLong("version"))
+                        .status(ShoppingCart.CartStatus.ACTIVE)
+                        .build(), owner)
+                .stream()
+                .findFirst();
+    }
+
+    private static RowCallbackHandler totalsHandler(ShoppingCart shoppingCart) {
+        return rs -> {
+            shoppingCart.setTotalAmount(rs.getBigDecimal("total_amount"));
+            shoppingCart.setTotalItems(rs.getInt("total_items"));
+            shoppingCart.setVersion(rs.getLong("version"));
+        };
+    }
+
+    private ShoppingCart attachProducts(ShoppingCart cart) {
+        if (cart.getItems() == null || cart.getItems().isEmpty()) {
+            return cart;
+        }
+        Set<Long> productIds = cart.getItems().stream()
+                .map(CartItem::getProductId)
+                .collect(Collectors.toSet());
+        Map<Long, Product> products = productMapper.toDomainSummaries(productJpaRepository.findSummariesByIdIn(productIds))
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        cart.getItems().forEach(item -> item.setProduct(products.get(item.getProductId())));
+        return cart;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,207 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.out.persistence;
+
+import com.farmatodo.ecommerce.domain.port.out.StockShardRepositoryPort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Stock de SKUs repartido en cubos (product_stock_buckets). Cada descuento elige un cubo al azar con stock
+ * suficiente; primero saltando los bloqueados y, si no queda ninguno libre, esperando por uno.
+ * Una cantidad que no cabe en un solo cubo se reparte entre varios bloqueándolos todos en orden de cubo.
+ * Los jobs bloquean siempre la fila de products antes que sus cubos.
+ */
+@Component
+@RequiredArgsConstructor
+public class StockShardPersistenceAdapter implements StockShardRepositoryPort {
+
+    private static final String PICK_BUCKET_SQL =
+            "SELECT product_id, bucket FROM product_stock_buckets WHERE product_id = ? AND stock >= ? " +
+                    "ORDER BY random() LIMIT 1 FOR UPDATE";
+    private static final String DECREMENT_FREE_BUCKET_SQL =
+            "UPDATE product_stock_buckets SET stock = stock - ? " +
+                    "WHERE (product_id, bucket) IN (" + PICK_BUCKET_SQL + " SKIP LOCKED)";
+    private static final String DECREMENT_ANY_BUCKET_SQL =
+            "UPDATE product_stock_buckets SET stock = stock - ? " +
+                    "WHERE (product_id, bucket) IN (" + PICK_BUCKET_SQL + ")";
+    private static final String LOCK_BUCKETS_SQL =
+            "SELECT bucket, stock FROM product_stock_buckets WHERE product_id = ? AND stock > 0 " +
+                    "ORDER BY bucket FOR UPDATE";
+    private static final String DECREMENT_BUCKET_SQL =
+            "UPDATE product_stock_buckets SET stock = stock - ? WHERE product_id = ? AND bucket = ?";
+    private static final String BUCKET_TOTALS_SQL =
+            "SELECT product_id, SUM(stock)::int AS total FROM product_stock_buckets " +
+                    "WHERE product_id = ANY(?) GROUP BY product_id";
+    private static final String FLAG_SHARDED_SQL =
+            "UPDATE products SET stock_sharded = true, stock_published = stock " +
+                    "WHERE sku = ? AND is_active = true AND NOT stock_sharded " +
+                    "RETURNING id, stock";
+    private static final String INSERT_BUCKET_SQL =
+            "INSERT INTO product_stock_buckets (product_id, bucket, stock) VALUES (?, ?, ?)";
+    private static final String LOCK_UNFLAGGED_PRODUCTS_SQL =
+            "SELECT id FROM products WHERE stock_sharded AND NOT (sku = ANY(?)) ORDER BY id FOR UPDATE";
+    private static final String LOCK_UNFLAGGED_BUCKETS_SQL =
+            "SELECT b.product_id FROM product_stock_buckets b JOIN products p ON p.id = b.product_id " +
+                    "WHERE p.stock_sharded AND NOT (p.sku = ANY(?)) FOR UPDATE OF b";
+    private static final String UNSHARD_SQL =
+            "UPDATE products p SET stock_sharded = false, stock_published = NULL, " +
+                    "stock = GREATEST(COALESCE((SELECT SUM(b.stock) FROM product_stock_buckets b WHERE b.product_id = p.id), 0) " +
+                    "+ p.stock - COALESCE(p.stock_published, p.stock), 0) " +
+                    "WHERE p.stock_sharded AND NOT (p.sku = ANY(?)) RETURNING p.id";
+    private static final String DELETE_BUCKETS_SQL =
+            "DELETE FROM product_stock_buckets WHERE product_id = ANY(?)";
+    private static final String ANY_SHARDED_SQL = "SELECT EXISTS (SELECT 1 FROM products WHERE stock_sharded)";
+    private static final String LOCK_SHARDED_PRODUCTS_SQL =
+            "SELECT id FROM products WHERE stock_sharded ORDER BY id FOR UPDATE SKIP LOCKED";
+    // Una reposición escrita en products.stock se suma al cubo 0; un ajuste a la baja no lo deja en negativo.
+    private static final String FOLD_RESTOCKS_SQL =
+            "UPDATE product_stock_buckets b SET stock = GREATEST(b.stock + p.stock - p.stock_published, 0) " +
+                    "FROM products p WHERE p.id = b.product_id AND b.bucket = 0 AND p.id = ANY(?) " +
+                    "AND p.stock <> p.stock_published";
+    private static final String SYNC_TOTALS_SQL =
+            "UPDATE products p SET stock = t.total, stock_published = t.total " +
+                    "FROM (SELECT product_id, SUM(stock)::int AS total FROM product_stock_buckets " +
+                    "WHERE product_id = ANY(?) GROUP BY product_id) t " +
+                    "WHERE p.id = t.product_id AND (p.stock <> t.total OR p.stock_published IS DISTINCT FROM t.total)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private record ShardedProduct(long id, int stock) {
+    }
+
+    private record Bucket(int bucket, int stock) {
+    }
+
+    @Override
+    @Transactional
+    public List<Long> decrementStock(Map<Long, Integer> quantities) {
+        List<Long> rejected = runBatch(DECREMENT_FREE_BUCKET_SQL, new TreeMap<>(quantities));
+        if (rejected.isEmpty()) {
+            return rejected;
+        }
+        Map<Long, Integer> retry = new TreeMap<>();
+        rejected.forEach(productId -> retry.put(productId, quantities.get(productId)));
+        return runBatch(DECREMENT_ANY_BUCKET_SQL, retry).stream()
+                .sorted()
+                .filter(productId -> !decrementAcrossBuckets(productId, quantities.get(productId)))
+                .toList();
+    }
+
+    @Override
+    public Map<Long, Integer> findStockTotals(Collection<Long> productIds) {
+        Map<Long, Integer> totals = new HashMap<>();
+        jdbcTemplate.query(connection -> withArray(connection.prepareStatement(BUCKET_TOTALS_SQL), "bigint", productIds.toArray()),
+                rs -> {
+                    totals.put(rs.getLong("product_id"), rs.getInt("total"));
+                });
+        return totals;
+    }
+
+    @Override
+    @Transactional
+    public boolean shard(String sku, int buckets) {
+        List<ShardedProduct> flagged = jdbcTemplate.query(FLAG_SHARDED_SQL,
+                (rs, rowNum) -> new ShardedProduct(rs.getLong("id"), rs.getInt("stock")), sku);
+        if (flagged.isEmpty()) {
+            return false;
+        }
+        ShardedProduct product = flagged.get(0);
+        List<Object[]> rows = new ArrayList<>(buckets);
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            int share = product.stock() / buckets + (bucket < product.stock() % buckets ? 1 : 0);
+            rows.add(new Object[]{product.id(), bucket, share});
+        }
+        jdbcTemplate.batchUpdate(INSERT_BUCKET_SQL, rows);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public int unshardAllExcept(Collection<String> skus) {
+        Object[] keep = skus.toArray();
+        jdbcTemplate.query(connection -> withArray(connection.prepareStatement(LOCK_UNFLAGGED_PRODUCTS_SQL), "varchar", keep),
+                (rs, rowNum) -> rs.getLong("id"));
+        jdbcTemplate.query(connection -> withArray(connection.prepareStatement(LOCK_UNFLAGGED_BUCKETS_SQL), "varchar", keep),
+                (rs, rowNum) -> rs.getLong("product_id"));
+        List<Long> unsharded = jdbcTemplate.query(
+                connection -> withArray(connection.prepareStatement(UNSHARD_SQL), "varchar", keep),
+                (rs, rowNum) -> rs.getLong("id"));
+        if (!unsharded.isEmpty()) {
+            jdbcTemplate.update(connection ->
+                    withArray(connection.prepareStatement(DELETE_BUCKETS_SQL), "bigint", unsharded.toArray()));
+        }
+        return unsharded.size();
+    }
+
+    // Los productos que otro nodo está sincronizando o devolviendo a una sola fila se saltan en esta pasada.
+    @Override
+    @Transactional
+    public int syncProductStock() {
+        Object[] sharded = jdbcTemplate.queryForList(LOCK_SHARDED_PRODUCTS_SQL, Long.class).toArray();
+        if (sharded.length == 0) {
+            return 0;
+        }
+        jdbcTemplate.update(connection -> withArray(connection.prepareStatement(FOLD_RESTOCKS_SQL), "bigint", sharded));
+        return jdbcTemplate.update(connection -> withArray(connection.prepareStatement(SYNC_TOTALS_SQL), "bigint", sharded));
+    }
+
+    @Override
+    public boolean hasShardedProducts() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(ANY_SHARDED_SQL, Boolean.class));
+    }
+
+    // Ningún cubo cubre la cantidad: se bloquean todos los del SKU y se vacían en orden hasta completarla.
+    private boolean decrementAcrossBuckets(long productId, int quantity) {
+        List<Bucket> buckets = jdbcTemplate.query(LOCK_BUCKETS_SQL,
+                (rs, rowNum) -> new Bucket(rs.getInt("bucket"), rs.getInt("stock")), productId);
+        if (buckets.stream().mapToInt(Bucket::stock).sum() < quantity) {
+            return false;
+        }
+        List<Object[]> rows = new ArrayList<>();
+        int remaining = quantity;
+        for (Bucket bucket : buckets) {
+            int taken = Math.min(remaining, bucket.stock());
+            rows.add(new Object[]{taken, productId, bucket.bucket()});
+            remaining -= taken;
+            if (remaining == 0) {
+                break;
+            }
+        }
+        jdbcTemplate.batchUpdate(DECREMENT_BUCKET_SQL, rows);
+        return true;
+    }
+
+    private List<Long> runBatch(String sql, Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return List.of();
+        }
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(quantities.entrySet());
+        int[] updated = jdbcTemplate.batchUpdate(sql, lines, lines.size(), (statement, line) -> {
+            statement.setInt(1, line.getValue());
+            statement.setLong(2, line.getKey());
+            statement.setInt(3, line.getValue());
+        })[0];
+        List<Long> rejected = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                rejected.add(lines.get(i).getKey());
+            }
+        }
+        return rejected;
+    }
+
+    private static PreparedStatement withArray(PreparedStatement statement, String type, Object[] values) throws SQLException {
+        statement.setArray(1, statement.getConnection().createArrayOf(type, values));
+        return statement;
+    }
+}
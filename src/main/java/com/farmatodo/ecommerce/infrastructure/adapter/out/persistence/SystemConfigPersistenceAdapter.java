@@ -5,9 +5,12 @@ import com.farmatodo.ecommerce.domain.model.SystemConfig;
 import com.farmatodo.ecommerce.domain.port.out.SystemConfigRepositoryPort;
 import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.entity.SystemConfigEntity;
 import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.repository.SystemConfigJpaRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.Optional;
 
 @Component
@@ -16,10 +19,14 @@ public class SystemConfigPersistenceAdapter implements SystemConfigRepositoryPor
 
     private final SystemConfigJpaRepository jpaRepository;
 
+    private final Cache<String, Optional<String>> valueCache = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofSeconds(30))
+            .build();
+
     @Override
     public Optional<String> getValue(String key) {
-        return jpaRepository.findByConfigKeyAndIsActiveTrue(key)
-                .map(SystemConfigEntity::getConfigValue);
+        return valueCache.get(key, k -> jpaRepository.findByConfigKeyAndIsActiveTrue(k)
+                .map(SystemConfigEntity::getConfigValue));
     }
 
     @Override
@@ -62,8 +69,9 @@ public class SystemConfigPersistenceAdapter implements SystemConfigRepositoryPor
                 .orElseThrow(() -> new SystemConfigNotFoundException("Configuración no encontrada: " + key));
 
         entity.setConfigValue(newValue);
-
-        return toDomain(jpaRepository.save(entity));
+        SystemConfig updated = toDomain(jpaRepository.save(entity));
+        valueCache.invalidate(key);
+        return updated;
     }
 
     private SystemConfig toDomain(SystemConfigEntity entity) {
@@ -64,6 +64,9 @@ public class ShoppingCartEntity {
     @Column(name = "expires_at", nullable = false)
     private OffsetDateTime expiresAt;
 
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<CartItemEntity> items;
 }
\ No newline at end of file
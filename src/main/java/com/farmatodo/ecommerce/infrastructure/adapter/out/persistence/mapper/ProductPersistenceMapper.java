@@ -2,7 +2,9 @@ package com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.mapper;
 
 import com.farmatodo.ecommerce.domain.model.Product;
 import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.entity.ProductEntity;
+import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.projection.ProductSummaryView;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import java.util.List;
 
 @Mapper(componentModel = "spring")
@@ -11,5 +13,11 @@ public interface ProductPersistenceMapper {
 
     Product toDomain(ProductEntity entity);
     List<Product> toDomainList(List<ProductEntity> entities);
+
+    @Mapping(target = "description", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    Product toDomain(ProductSummaryView summary);
+    List<Product> toDomainSummaries(List<ProductSummaryView> summaries);
     ProductEntity toEntity(Product product);
 }
\ No newline at end of file
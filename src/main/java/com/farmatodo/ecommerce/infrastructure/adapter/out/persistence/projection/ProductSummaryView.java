@@ -0,0 +1,21 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.projection;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Columnas de producto necesarias para listados (búsqueda, carrito, índices en memoria).
+ * Excluye {@code description} y las marcas de tiempo para no leerlas en rutas de alto volumen.
+ */
+public interface ProductSummaryView {
+    Long getId();
+    UUID getUuid();
+    String getSku();
+    String getName();
+    BigDecimal getPrice();
+    String getImageUrl();
+    int getStock();
+    String getCategory();
+    String getBrand();
+    Boolean getIsActive();
+}
@@ -1,9 +1,14 @@
 package com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.repository;
 
 import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.entity.ProductEntity;
+import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.projection.ProductSummaryView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -11,13 +16,53 @@ import jakarta.persistence.LockModeType;
 
 public interface ProductJpaRepository extends JpaRepository<ProductEntity, Long> {
 
-    List<ProductEntity> findByNameContainingIgnoreCaseAndStockGreaterThanAndIsActiveTrue(
-            String name,
-            int stock
+    String SUMMARY_SELECT = "SELECT p.id AS id, p.uuid AS uuid, p.sku AS sku, p.name AS name, p.price AS price, " +
+            "p.image_url AS \"imageUrl\", p.stock AS stock, p.category AS category, p.brand AS brand, " +
+            "p.is_active AS \"isActive\" ";
+    String FOLDED_NAME_FILTER = "WHERE f_unaccent(lower(p.name)) LIKE CONCAT('%', :name, '%') ESCAPE '\\' " +
+            "AND p.stock > :minStock AND p.is_active = true ";
+
+    @Query(value = SUMMARY_SELECT + "FROM products p " + FOLDED_NAME_FILTER, nativeQuery = true)
+    List<ProductSummaryView> findSummariesByFoldedName(
+            @Param("name") String name,
+            @Param("minStock") int minStock
     );
 
     Optional<ProductEntity> findByIdAndIsActiveTrue(Long id);
 
+    Optional<ProductEntity> findByUuidAndIsActiveTrue(UUID uuid);
+
+    List<ProductSummaryView> findSummariesByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    List<ProductSummaryView> findSummariesByIdIn(Collection<Long> ids);
+
+    @Query(value = SUMMARY_SELECT + "FROM products p WHERE p.updated_at > :since", nativeQuery = true)
+    List<ProductSummaryView> findSummariesUpdatedAfter(@Param("since") LocalDateTime since);
+
+    @Query(value = "SELECT LOCALTIMESTAMP", nativeQuery = true)
+    LocalDateTime currentTimestamp();
+
+    @Query(value = SUMMARY_SELECT + "FROM products p " + FOLDED_NAME_FILTER +
+            "AND (p.name COLLATE \"C\" > :afterName OR (p.name = :afterName AND p.id > :afterId)) " +
+            "ORDER BY p.name COLLATE \"C\", p.id LIMIT :limit", nativeQuery = true)
+    List<ProductSummaryView> findPageByFoldedName(
+            @Param("name") String name,
+            @Param("minStock") int minStock,
+            @Param("afterName") String afterName,
+            @Param("afterId") Long afterId,
+            @Param("limit") int limit
+    );
+
+    @Query(value = SUMMARY_SELECT + "FROM products p, websearch_to_tsquery('spanish', :query) q " +
+            "WHERE p.search_vector @@ q AND p.stock > :minStock AND p.is_active = true " +
+            "ORDER BY ts_rank(p.search_vector, q) DESC, p.id " +
+            "LIMIT :limit", nativeQuery = true)
+    List<ProductSummaryView> searchRanked(
+            @Param("query") String query,
+            @Param("minStock") int minStock,
+            @Param("limit") int limit
+    );
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT p FROM ProductEntity p WHERE p.id = :id AND p.isActive = true")
     Optional<ProductEntity> findActiveByIdAndLock(@Param("id") Long id);
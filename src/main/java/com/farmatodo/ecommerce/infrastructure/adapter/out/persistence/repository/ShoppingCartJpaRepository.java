@@ -20,6 +20,6 @@ public interface ShoppingCartJpaRepository extends JpaRepository<ShoppingCartEnt
             @Param("status") ShoppingCart.CartStatus status
     );
 
-    @Query("SELECT sc FROM ShoppingCartEntity sc LEFT JOIN FETCH sc.items ci LEFT JOIN FETCH ci.product WHERE sc.id = :id")
+    @Query("SELECT sc FROM ShoppingCartEntity sc LEFT JOIN FETCH sc.items WHERE sc.id = :id")
     Optional<ShoppingCartEntity> findByIdWithItems(@Param("id") Long id);
 }
\ No newline at end of file
@@ -0,0 +1,217 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.out.search;
+
+import com.farmatodo.ecommerce.application.event.ProductStockChangedEvent;
+import com.farmatodo.ecommerce.domain.model.FacetedProducts;
+import com.farmatodo.ecommerce.domain.model.Product;
+import com.farmatodo.ecommerce.domain.port.out.ProductRepositoryPort;
+import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.ProductPersistenceAdapter;
+import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.mapper.ProductPersistenceMapper;
+import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.projection.ProductSummaryView;
+import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.repository.ProductJpaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+@Slf4j
+@Primary
+@Component
+@RequiredArgsConstructor
+public class IndexedProductRepositoryAdapter implements ProductRepositoryPort {
+
+    private static final int LOAD_PAGE_SIZE = 5000;
+    // updated_at toma la hora de inicio de la transacción: se relee una ventana para no perder commits lentos.
+    private static final long REFRESH_OVERLAP_SECONDS = 60;
+
+    private final ProductPersistenceAdapter delegate;
+    private final ProductJpaRepository jpaRepository;
+    private final ProductPersistenceMapper mapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Object rebuildMonitor = new Object();
+    private volatile ProductSearchIndex index;
+    private List<Product> pendingDuringRebuild;
+    private volatile LocalDateTime refreshedUpTo;
+
+    @Override
+    public List<Product> findByNameContainingIgnoreCaseAndStockGreaterThan(String name, int minStock) {
+        ProductSearchIndex current = index;
+        if (current == null) {
+            return delegate.findByNameContainingIgnoreCaseAndStockGreaterThan(name, minStock);
+        }
+        return current.search(name, minStock);
+    }
+
+    @Override
+    public List<Product> findPageByNameContaining(String name, int minStock, String afterName, Long afterId, int limit) {
+        ProductSearchIndex current = index;
+        if (current == null) {
+            return delegate.findPageByNameContaining(name, minStock, afterName, afterId, limit);
+        }
+        return current.searchPage(name, minStock, afterName, afterId, limit);
+    }
+
+    @Override
+    public void forEachByNameContaining(String name, int minStock, Consumer<Product> consumer) {
+        delegate.forEachByNameContaining(name, minStock, consumer);
+    }
+
+    @Override
+    public void forEachActive(Consumer<Product> consumer) {
+        delegate.forEachActive(consumer);
+    }
+
+    @Override
+    public FacetedProducts searchFaceted(String name, int minStock, String category, String brand) {
+        ProductSearchIndex current = index;
+        if (current == null) {
+            return delegate.searchFaceted(name, minStock, category, brand);
+        }
+        return current.searchFaceted(name, minStock, category, brand);
+    }
+
+    @Override
+    public List<Product> searchRanked(String query, int minStock, int limit) {
+        return delegate.searchRanked(query, minStock, limit);
+    }
+
+    @Override
+    public Optional<Product> findByIdAndIsActiveTrue(Long id) {
+        return delegate.findByIdAndIsActiveTrue(id);
+    }
+
+    @Override
+    public Optional<Product> findByUuidAndIsActiveTrue(UUID uuid) {
+        return delegate.findByUuidAndIsActiveTrue(uuid);
+    }
+
+    @Override
+    public List<Product> findAllActiveByIds(Collection<Long> ids) {
+        return delegate.findAllActiveByIds(ids);
+    }
+
+    @Override
+    public List<Long> decrementStock(Map<Long, Integer> quantities) {
+        return delegate.decrementStock(quantities);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductStockChanged(ProductStockChangedEvent event) {
+        synchronized (rebuildMonitor) {
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.addAll(event.getProducts());
+            }
+            if (index != null) {
+                index.upsertAll(event.getProducts());
+            }
+        }
+    }
+
+    @Async("asyncExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${search.index.rebuild-interval-ms:900000}",
+            initialDelayString = "${search.index.rebuild-interval-ms:900000}")
+    public void rebuild() {
+        synchronized (rebuildMonitor) {
+            if (pendingDuringRebuild != null) {
+                return;
+            }
+            pendingDuringRebuild = new ArrayList<>();
+        }
+        long start = System.currentTimeMillis();
+        try {
+            LocalDateTime loadedUpTo = jpaRepository.currentTimestamp();
+            ProductSearchIndex fresh = new ProductSearchIndex();
+            long lastId = 0L;
+            List<ProductSummaryView> page;
+            do {
+                page = jpaRepository.findSummariesByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, LOAD_PAGE_SIZE));
+                if (!page.isEmpty()) {
+                    fresh.upsertAll(mapper.toDomainSummaries(page));
+                    lastId = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == LOAD_PAGE_SIZE);
+
+            synchronized (rebuildMonitor) {
+                fresh.upsertAll(pendingDuringRebuild);
+                index = fresh;
+                refreshedUpTo = loadedUpTo;
+            }
+            log.info("Índice de búsqueda reconstruido: {} productos en {} ms",
+                    fresh.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Error al reconstruir el índice de búsqueda, se mantiene el anterior: {}", e.getMessage(), e);
+        } finally {
+            synchronized (rebuildMonitor) {
+                pendingDuringRebuild = null;
+            }
+        }
+    }
+
+    /**
+     * Trae los productos modificados en otros nodos desde la última lectura y publica un
+     * {@link ProductStockChangedEvent} con los que difieren del índice, de modo que el índice
+     * y las cachés de búsqueda y detalle de este nodo también se actualicen.
+     */
+    @Scheduled(fixedDelayString = "${search.index.refresh-interval-ms:5000}",
+            initialDelayString = "${search.index.refresh-interval-ms:5000}")
+    public void refreshChanged() {
+        ProductSearchIndex current = index;
+        LocalDateTime since = refreshedUpTo;
+        if (current == null || since == null) {
+            return;
+        }
+        try {
+            LocalDateTime loadedUpTo = jpaRepository.currentTimestamp();
+            List<Product> changed = new ArrayList<>();
+            Map<Long, Integer> previousStock = new HashMap<>();
+            for (Product product : mapper.toDomainSummaries(
+                    jpaRepository.findSummariesUpdatedAfter(since.minusSeconds(REFRESH_OVERLAP_SECONDS)))) {
+                Optional<Product> indexed = current.find(product.getId());
+                if (indexed.isEmpty() || !sameListing(indexed.get(), product)) {
+                    changed.add(product);
+                    previousStock.put(product.getId(), indexed.map(Product::getStock).orElse(0));
+                }
+            }
+            if (!changed.isEmpty()) {
+                eventPublisher.publishEvent(new ProductStockChangedEvent(changed, previousStock));
+                log.debug("Índice de búsqueda actualizado con {} productos modificados", changed.size());
+            }
+            refreshedUpTo = loadedUpTo;
+        } catch (Exception e) {
+            log.error("Error al actualizar el índice de búsqueda con los cambios recientes: {}", e.getMessage(), e);
+        }
+    }
+
+    private static boolean sameListing(Product indexed, Product loaded) {
+        return Objects.equals(indexed.getStock(), loaded.getStock())
+                && Objects.equals(indexed.getIsActive(), loaded.getIsActive())
+                && Objects.equals(indexed.getName(), loaded.getName())
+                && Objects.equals(indexed.getPrice(), loaded.getPrice())
+                && Objects.equals(indexed.getCategory(), loaded.getCategory())
+                && Objects.equals(indexed.getBrand(), loaded.getBrand())
+                && Objects.equals(indexed.getImageUrl(), loaded.getImageUrl());
+    }
+}
@@ -0,0 +1,372 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.out.search;
+
+import com.farmatodo.ecommerce.domain.model.FacetedProducts;
+import com.farmatodo.ecommerce.domain.model.Product;
+import com.farmatodo.ecommerce.domain.model.SearchText;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido de trigramas sobre el nombre de los productos.
+ * Stock y visibilidad se guardan en arreglos primitivos indexados por ordinal,
+ * de modo que el filtro de stock mínimo y el match por nombre se resuelven en memoria.
+ * Cada valor de categoría y marca tiene un {@link BitSet} sobre los mismos ordinales para calcular facetas.
+ */
+public class ProductSearchIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final Comparator<Product> PAGE_ORDER =
+            Comparator.comparing(Product::getName, ProductSearchIndex::compareCodePoints).thenComparing(Product::getId);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Product[] products = new Product[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int[] stock = new int[INITIAL_CAPACITY];
+    private boolean[] active = new boolean[INITIAL_CAPACITY];
+    private String[] categories = new String[INITIAL_CAPACITY];
+    private String[] brands = new String[INITIAL_CAPACITY];
+    private int size;
+
+    private final Map<Long, Integer> ordinalById = new HashMap<>();
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private final Map<String, BitSet> categoryBits = new HashMap<>();
+    private final Map<String, BitSet> brandBits = new HashMap<>();
+
+    public static ProductSearchIndex of(Collection<Product> catalog) {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.upsertAll(catalog);
+        return index;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Product> search(String query, int minStock) {
+        lock.readLock().lock();
+        try {
+            BitSet hits = matches(SearchText.fold(query), minStock);
+            return snapshot(hits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Búsqueda con conteos por categoría y marca. Los conteos de cada faceta se calculan con el filtro
+     * de la otra faceta aplicado, para que el usuario vea cuántos resultados obtendría al cambiar de valor.
+     */
+    public FacetedProducts searchFaceted(String query, int minStock, String category, String brand) {
+        lock.readLock().lock();
+        try {
+            BitSet hits = matches(SearchText.fold(query), minStock);
+            BitSet inBrand = filter(hits, brand == null ? null : brandBits.getOrDefault(brand, new BitSet()));
+            BitSet inCategory = filter(hits, category == null ? null : categoryBits.getOrDefault(category, new BitSet()));
+            BitSet selected = (BitSet) inBrand.clone();
+            selected.and(inCategory);
+            return FacetedProducts.builder()
+                    .products(snapshot(selected))
+                    .categoryCounts(counts(inBrand, categoryBits))
+                    .brandCounts(counts(inCategory, brandBits))
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Página ordenada por (nombre, id) a partir del cursor exclusivo {@code afterName}/{@code afterId}.
+     * El nombre se compara por punto de código, igual que el {@code COLLATE "C"} de la consulta en BD, para que
+     * un cursor siga siendo válido si la siguiente página se resuelve por el otro camino.
+     * Solo se retienen {@code limit} ordinales en un heap acotado y solo esos se copian.
+     */
+    public List<Product> searchPage(String query, int minStock, String afterName, Long afterId, int limit) {
+        Product cursor = afterName == null ? null : Product.builder().name(afterName).id(afterId).build();
+        Comparator<Integer> order = (a, b) -> PAGE_ORDER.compare(products[a], products[b]);
+        lock.readLock().lock();
+        try {
+            BitSet hits = matches(SearchText.fold(query), minStock);
+            PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, order.reversed());
+            for (int ordinal = hits.nextSetBit(0); ordinal >= 0; ordinal = hits.nextSetBit(ordinal + 1)) {
+                if (cursor != null && PAGE_ORDER.compare(products[ordinal], cursor) <= 0) {
+                    continue;
+                }
+                top.offer(ordinal);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<Integer> ordinals = new ArrayList<>(top);
+            ordinals.sort(order);
+            List<Product> page = new ArrayList<>(ordinals.size());
+            for (int ordinal : ordinals) {
+                page.add(products[ordinal].toBuilder().stock(stock[ordinal]).build());
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<Product> find(Long id) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = ordinalById.get(id);
+            return ordinal == null ? Optional.empty() : Optional.of(products[ordinal].toBuilder().stock(stock[ordinal]).build());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void upsertAll(Collection<Product> changed) {
+        lock.writeLock().lock();
+        try {
+            for (Product product : changed) {
+                upsert(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void upsert(Product product) {
+        Integer existing = ordinalById.get(product.getId());
+        String name = SearchText.fold(product.getName());
+        if (existing == null) {
+            int ordinal = size++;
+            ensureCapacity(size);
+            ordinalById.put(product.getId(), ordinal);
+            names[ordinal] = name;
+            for (long trigram : trigrams(name)) {
+                postings.computeIfAbsent(trigram, k -> new IntList()).addSorted(ordinal);
+            }
+            store(ordinal, product);
+            return;
+        }
+        int ordinal = existing;
+        if (!names[ordinal].equals(name)) {
+            for (long trigram : trigrams(names[ordinal])) {
+                IntList list = postings.get(trigram);
+                if (list != null) {
+                    list.remove(ordinal);
+                }
+            }
+            for (long trigram : trigrams(name)) {
+                postings.computeIfAbsent(trigram, k -> new IntList()).addSorted(ordinal);
+            }
+            names[ordinal] = name;
+        }
+        store(ordinal, product);
+    }
+
+    private void store(int ordinal, Product product) {
+        categories[ordinal] = reassign(categoryBits, categories[ordinal], product.getCategory(), ordinal);
+        brands[ordinal] = reassign(brandBits, brands[ordinal], product.getBrand(), ordinal);
+        products[ordinal] = product;
+        stock[ordinal] = product.getStock();
+        active[ordinal] = Boolean.TRUE.equals(product.getIsActive());
+    }
+
+    private BitSet matches(String needle, int minStock) {
+        BitSet hits = new BitSet(size);
+        if (needle.length() < 3) {
+            for (int ordinal = 0; ordinal < size; ordinal++) {
+                if (isMatch(ordinal, needle, minStock)) {
+                    hits.set(ordinal);
+                }
+            }
+            return hits;
+        }
+        IntList candidates = candidates(needle);
+        for (int i = 0; i < candidates.size; i++) {
+            if (isMatch(candidates.values[i], needle, minStock)) {
+                hits.set(candidates.values[i]);
+            }
+        }
+        return hits;
+    }
+
+    private boolean isMatch(int ordinal, String needle, int minStock) {
+        return active[ordinal] && stock[ordinal] > minStock && names[ordinal].contains(needle);
+    }
+
+    private List<Product> snapshot(BitSet ordinals) {
+        List<Product> results = new ArrayList<>(ordinals.cardinality());
+        for (int ordinal = ordinals.nextSetBit(0); ordinal >= 0; ordinal = ordinals.nextSetBit(ordinal + 1)) {
+            results.add(products[ordinal].toBuilder().stock(stock[ordinal]).build());
+        }
+        return results;
+    }
+
+    private static BitSet filter(BitSet hits, BitSet facet) {
+        BitSet filtered = (BitSet) hits.clone();
+        if (facet != null) {
+            filtered.and(facet);
+        }
+        return filtered;
+    }
+
+    private static Map<String, Long> counts(BitSet hits, Map<String, BitSet> facets) {
+        List<Map.Entry<String, Long>> counted = new ArrayList<>();
+        BitSet scratch = new BitSet(hits.length());
+        for (Map.Entry<String, BitSet> facet : facets.entrySet()) {
+            if (!facet.getValue().intersects(hits)) {
+                continue;
+            }
+            scratch.clear();
+            scratch.or(hits);
+            scratch.and(facet.getValue());
+            counted.add(Map.entry(facet.getKey(), (long) scratch.cardinality()));
+        }
+        counted.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        Map<String, Long> result = new LinkedHashMap<>();
+        counted.forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+
+    private static String reassign(Map<String, BitSet> facets, String previous, String current, int ordinal) {
+        if (previous != null && !previous.equals(current)) {
+            BitSet bits = facets.get(previous);
+            bits.clear(ordinal);
+            if (bits.isEmpty()) {
+                facets.remove(previous);
+            }
+        }
+        if (current != null) {
+            facets.computeIfAbsent(current, k -> new BitSet()).set(ordinal);
+        }
+        return current;
+    }
+
+    private IntList candidates(String needle) {
+        long[] keys = trigrams(needle);
+        IntList[] lists = new IntList[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            IntList list = postings.get(keys[i]);
+            if (list == null || list.size == 0) {
+                return new IntList();
+            }
+            lists[i] = list;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+        IntList result = lists[0].copy();
+        for (int i = 1; i < lists.length && result.size > 0; i++) {
+            result.retainAll(lists[i]);
+        }
+        return result;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= products.length) {
+            return;
+        }
+        int capacity = Math.max(required, products.length * 2);
+        products = Arrays.copyOf(products, capacity);
+        names = Arrays.copyOf(names, capacity);
+        stock = Arrays.copyOf(stock, capacity);
+        active = Arrays.copyOf(active, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        brands = Arrays.copyOf(brands, capacity);
+    }
+
+    static int compareCodePoints(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int left = a.codePointAt(i);
+            int right = b.codePointAt(j);
+            if (left != right) {
+                return Integer.compare(left, right);
+            }
+            i += Character.charCount(left);
+            j += Character.charCount(right);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+
+    static long[] trigrams(String value) {
+        if (value.length() < 3) {
+            return new long[0];
+        }
+        long[] keys = new long[value.length() - 2];
+        int count = 0;
+        for (int i = 0; i + 3 <= value.length(); i++) {
+            long key = ((long) value.charAt(i) << 32) | ((long) value.charAt(i + 1) << 16) | value.charAt(i + 2);
+            boolean seen = false;
+            for (int j = 0; j < count && !seen; j++) {
+                seen = keys[j] == key;
+            }
+            if (!seen) {
+                keys[count++] = key;
+            }
+        }
+        return Arrays.copyOf(keys, count);
+    }
+
+    static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void addSorted(int value) {
+            int position = Arrays.binarySearch(values, 0, size, value);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(values, position, values, position + 1, size - position);
+            values[position] = value;
+            size++;
+        }
+
+        void remove(int value) {
+            int position = Arrays.binarySearch(values, 0, size, value);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(values, position + 1, values, position, size - position - 1);
+            size--;
+        }
+
+        void retainAll(IntList other) {
+            int kept = 0;
+            int j = 0;
+            for (int i = 0; i < size; i++) {
+                int value = values[i];
+                while (j < other.size && other.values[j] < value) {
+                    j++;
+                }
+                if (j < other.size && other.values[j] == value) {
+                    values[kept++] = value;
+                }
+            }
+            size = kept;
+        }
+
+        IntList copy() {
+            IntList copy = new IntList();
+            copy.values = Arrays.copyOf(values, Math.max(size, 1));
+            copy.size = size;
+            return copy;
+        }
+    }
+}
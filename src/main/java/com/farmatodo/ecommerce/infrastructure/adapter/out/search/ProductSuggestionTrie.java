@@ -0,0 +1,147 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.out.search;
+
+import com.farmatodo.ecommerce.domain.model.ProductSuggestion;
+import com.farmatodo.ecommerce.domain.model.SearchText;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trie aplanado para autocompletado: las claves (nombre completo y cada sufijo que empieza en una palabra)
+ * se guardan ordenadas en un arreglo, de modo que un prefijo corresponde a un rango contiguo.
+ * Las entradas se numeran por popularidad, así el top-K de un rango son sus K índices distintos más bajos.
+ * Los prefijos con rangos grandes tienen el top-K precalculado; el resto se resuelve recorriendo el rango.
+ * Es inmutable: se reconstruye completo y se reemplaza la referencia.
+ */
+public class ProductSuggestionTrie {
+
+    public static final int MAX_SUGGESTIONS = 10;
+    private static final int SCAN_THRESHOLD = 256;
+
+    private static final Comparator<ProductSuggestion> RANK =
+            Comparator.comparingLong(ProductSuggestion::getPopularity).reversed()
+                    .thenComparing(ProductSuggestion::getName);
+
+    private final ProductSuggestion[] entries;
+    private final String[] keys;
+    private final int[] entryOf;
+    private final Map<String, int[]> heavyPrefixes = new HashMap<>();
+
+    private ProductSuggestionTrie(ProductSuggestion[] entries, String[] keys, int[] entryOf) {
+        this.entries = entries;
+        this.keys = keys;
+        this.entryOf = entryOf;
+        precompute(0, keys.length, 0);
+    }
+
+    public static ProductSuggestionTrie build(List<ProductSuggestion> suggestions) {
+        ProductSuggestion[] ranked = suggestions.toArray(new ProductSuggestion[0]);
+        Arrays.sort(ranked, RANK);
+
+        List<Key> keyList = new ArrayList<>();
+        for (int entry = 0; entry < ranked.length; entry++) {
+            String folded = SearchText.fold(ranked[entry].getName());
+            for (int start = 0; start < folded.length(); start++) {
+                if (start == 0 || folded.charAt(start - 1) == ' ') {
+                    keyList.add(new Key(folded.substring(start), entry));
+                }
+            }
+        }
+        keyList.sort(Comparator.comparing(Key::value).thenComparingInt(Key::entry));
+
+        String[] keys = new String[keyList.size()];
+        int[] entryOf = new int[keyList.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = keyList.get(i).value();
+            entryOf[i] = keyList.get(i).entry();
+        }
+        return new ProductSuggestionTrie(ranked, keys, entryOf);
+    }
+
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        String folded = SearchText.fold(prefix);
+        int size = Math.min(limit, MAX_SUGGESTIONS);
+        if (folded.isEmpty() || size <= 0) {
+            return List.of();
+        }
+        int[] top = heavyPrefixes.get(folded);
+        if (top == null) {
+            int lo = lowerBound(folded);
+            int hi = lowerBound(folded + Character.MAX_VALUE);
+            top = topK(lo, hi);
+        }
+        List<ProductSuggestion> results = new ArrayList<>(Math.min(size, top.length));
+        for (int i = 0; i < top.length && i < size; i++) {
+            results.add(entries[top[i]]);
+        }
+        return results;
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    private void precompute(int lo, int hi, int depth) {
+        if (hi - lo <= SCAN_THRESHOLD) {
+            return;
+        }
+        if (depth > 0) {
+            heavyPrefixes.put(keys[lo].substring(0, depth), topK(lo, hi));
+        }
+        int i = lo;
+        while (i < hi && keys[i].length() == depth) {
+            i++;
+        }
+        while (i < hi) {
+            char next = keys[i].charAt(depth);
+            int j = i;
+            while (j < hi && keys[j].charAt(depth) == next) {
+                j++;
+            }
+            precompute(i, j, depth + 1);
+            i = j;
+        }
+    }
+
+    private int[] topK(int lo, int hi) {
+        int[] best = new int[MAX_SUGGESTIONS];
+        int count = 0;
+        for (int i = lo; i < hi; i++) {
+            int entry = entryOf[i];
+            if (count == MAX_SUGGESTIONS && entry >= best[count - 1]) {
+                continue;
+            }
+            int position = Arrays.binarySearch(best, 0, count, entry);
+            if (position >= 0) {
+                continue;
+            }
+            position = -position - 1;
+            int moved = Math.min(count, MAX_SUGGESTIONS - 1) - position;
+            System.arraycopy(best, position, best, position + 1, moved);
+            best[position] = entry;
+            count = Math.min(count + 1, MAX_SUGGESTIONS);
+        }
+        return Arrays.copyOf(best, count);
+    }
+
+    private int lowerBound(String target) {
+        int lo = 0;
+        int hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(target) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private record Key(String value, int entry) {
+    }
+}
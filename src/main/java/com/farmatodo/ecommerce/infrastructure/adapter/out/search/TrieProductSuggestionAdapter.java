@@ -0,0 +1,103 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.out.search;
+
+import com.farmatodo.ecommerce.domain.model.ProductSuggestion;
+import com.farmatodo.ecommerce.domain.model.SearchText;
+import com.farmatodo.ecommerce.domain.port.out.ProductSuggestionPort;
+import com.farmatodo.ecommerce.domain.port.out.SystemConfigRepositoryPort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TrieProductSuggestionAdapter implements ProductSuggestionPort {
+
+    private static final String MIN_STOCK_KEY = "product.min.stock.visibility";
+    private static final int DEFAULT_MIN_STOCK = 5;
+    private static final int POPULAR_QUERIES_LIMIT = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SystemConfigRepositoryPort systemConfigRepository;
+
+    @Value("${search.suggest.popularity-window-days:30}")
+    private int popularityWindowDays;
+
+    private volatile ProductSuggestionTrie trie = ProductSuggestionTrie.build(List.of());
+
+    @Override
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        return trie.suggest(prefix, limit);
+    }
+
+    @Async("asyncExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${search.suggest.rebuild-interval-ms:300000}",
+            initialDelayString = "${search.suggest.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        try {
+            Map<String, Long> popularQueries = loadPopularQueries();
+            int minStock = systemConfigRepository.getValueAsInt(MIN_STOCK_KEY, DEFAULT_MIN_STOCK);
+
+            List<ProductSuggestion> suggestions = new ArrayList<>();
+            jdbcTemplate.query(
+                    "SELECT uuid, name FROM products WHERE is_active = true AND stock > ?",
+                    rs -> {
+                        String name = rs.getString("name");
+                        suggestions.add(ProductSuggestion.builder()
+                                .uuid(rs.getObject("uuid", UUID.class))
+                                .name(name)
+                                .popularity(popularity(SearchText.fold(name), popularQueries))
+                                .build());
+                    },
+                    minStock);
+
+            ProductSuggestionTrie fresh = ProductSuggestionTrie.build(suggestions);
+            trie = fresh;
+            log.info("Índice de autocompletado reconstruido: {} productos en {} ms",
+                    fresh.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Error al reconstruir el índice de autocompletado, se mantiene el anterior: {}", e.getMessage(), e);
+        }
+    }
+
+    private Map<String, Long> loadPopularQueries() {
+        Map<String, Long> queries = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT LOWER(TRIM(search_query)) AS query, COUNT(*) AS hits FROM product_searches " +
+                        "WHERE searched_at > NOW() - (? * INTERVAL '1 day') " +
+                        "GROUP BY 1 ORDER BY hits DESC LIMIT ?",
+                rs -> {
+                    queries.merge(SearchText.fold(rs.getString("query")), rs.getLong("hits"), Long::sum);
+                },
+                popularityWindowDays, POPULAR_QUERIES_LIMIT);
+        return queries;
+    }
+
+    private long popularity(String foldedName, Map<String, Long> popularQueries) {
+        long score = 0;
+        for (Map.Entry<String, Long> query : popularQueries.entrySet()) {
+            if (foldedName.contains(query.getKey())) {
+                score += query.getValue();
+            }
+        }
+        return score;
+    }
+}
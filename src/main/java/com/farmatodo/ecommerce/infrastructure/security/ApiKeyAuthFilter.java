@@ -26,6 +26,7 @@ public class ApiKeyAuthFilter extends OncePerRequestFilter {
     private static final String API_KEY_HEADER = "X-API-KEY";
 
     static final String TOKENIZE_PATH = "/tokenize";
+    static final String EXPORT_PATH = "/products/export";
 
     @Override
     protected void doFilterInternal(
@@ -36,7 +37,7 @@ public class ApiKeyAuthFilter extends OncePerRequestFilter {
 
         final String path = request.getRequestURI().substring(request.getContextPath().length());
 
-        if (!path.startsWith(TOKENIZE_PATH)) {
+        if (!requiresApiKey(path)) {
             filterChain.doFilter(request, response);
             return;
         }
@@ -59,4 +60,8 @@ public class ApiKeyAuthFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    static boolean requiresApiKey(String path) {
+        return path.startsWith(TOKENIZE_PATH) || path.startsWith(EXPORT_PATH);
+    }
 }
\ No newline at end of file
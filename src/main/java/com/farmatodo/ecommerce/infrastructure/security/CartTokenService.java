@@ -0,0 +1,95 @@
+package com.farmatodo.ecommerce.infrastructure.security;
+
+import com.farmatodo.ecommerce.domain.model.CartToken;
+import com.farmatodo.ecommerce.domain.port.out.CartTokenPort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Token firmado (HMAC-SHA256) que guarda en el cliente un carrito anónimo que aún no existe en BD.
+ * Formato: base64url(sessionId|emitidoEn|productoId:cantidad,...).base64url(firma).
+ * Se verifica sin consultar la BD; un token alterado o vencido se rechaza.
+ */
+@Service
+public class CartTokenService implements CartTokenPort {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final byte[] keyBytes;
+    private final Duration ttl;
+
+    public CartTokenService(
+            @Value("${security.cart-token.secret-key:${security.jwt.secret-key}}") String base64Key,
+            @Value("${security.cart-token.expiration-hours:72}") long expirationHours
+    ) {
+        this.keyBytes = Base64.getDecoder().decode(base64Key);
+        this.ttl = Duration.ofHours(expirationHours);
+    }
+
+    @Override
+    public boolean isToken(String value) {
+        return value != null && value.indexOf('.') > 0;
+    }
+
+    @Override
+    public String issue(String sessionId, Map<Long, Integer> lines) {
+        String encodedLines = lines.entrySet().stream()
+                .map(line -> line.getKey() + ":" + line.getValue())
+                .collect(Collectors.joining(","));
+        String payload = sessionId + "|" + Instant.now().getEpochSecond() + "|" + encodedLines;
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payloadBytes) + "." + ENCODER.encodeToString(sign(payloadBytes));
+    }
+
+    @Override
+    public Optional<CartToken> verify(String token) {
+        try {
+            int separator = token.indexOf('.');
+            byte[] payloadBytes = DECODER.decode(token.substring(0, separator));
+            byte[] signature = DECODER.decode(token.substring(separator + 1));
+            if (!MessageDigest.isEqual(sign(payloadBytes), signature)) {
+                return Optional.empty();
+            }
+            String[] parts = new String(payloadBytes, StandardCharsets.UTF_8).split("\\|", -1);
+            Instant issuedAt = Instant.ofEpochSecond(Long.parseLong(parts[1]));
+            if (issuedAt.plus(ttl).isBefore(Instant.now())) {
+                return Optional.empty();
+            }
+            Map<Long, Integer> lines = new LinkedHashMap<>();
+            if (!parts[2].isEmpty()) {
+                for (String line : parts[2].split(",")) {
+                    String[] fields = line.split(":");
+                    lines.merge(Long.parseLong(fields[0]), Integer.parseInt(fields[1]), Integer::sum);
+                }
+            }
+            return Optional.of(new CartToken(parts[0], lines, issuedAt));
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(keyBytes, ALGORITHM));
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Error al firmar el token de carrito", e);
+        }
+    }
+}
@@ -36,7 +36,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
         final String path = request.getRequestURI().substring(request.getContextPath().length());
-        if (path.startsWith(ApiKeyAuthFilter.TOKENIZE_PATH)) {
+        if (ApiKeyAuthFilter.requiresApiKey(path)) {
             filterChain.doFilter(request, response);
             return;
         }
@@ -41,9 +41,9 @@ public class SecurityConfig {
     public SecurityFilterChain apiKeySecurityFilterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
-                .securityMatcher("/tokenize")
+                .securityMatcher(ApiKeyAuthFilter.TOKENIZE_PATH, ApiKeyAuthFilter.EXPORT_PATH)
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/tokenize").authenticated()
+                        .requestMatchers(ApiKeyAuthFilter.TOKENIZE_PATH, ApiKeyAuthFilter.EXPORT_PATH).authenticated()
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .addFilterBefore(apiKeyAuthFilter, UsernamePasswordAuthenticationFilter.class)
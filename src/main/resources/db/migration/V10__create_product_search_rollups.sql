@@ -0,0 +1,9 @@
+CREATE TABLE product_search_rollups (
+    bucket_start TIMESTAMP NOT NULL,
+    normalized_query VARCHAR(500) NOT NULL,
+    search_count BIGINT NOT NULL DEFAULT 0,
+    zero_result_count BIGINT NOT NULL DEFAULT 0,
+    total_results BIGINT NOT NULL DEFAULT 0,
+
+    PRIMARY KEY (bucket_start, normalized_query)
+);
@@ -0,0 +1,68 @@
+ALTER TABLE shopping_carts
+ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- La fusión del carrito anónimo cambia las líneas del carrito del cliente: debe invalidar su versión (ETag).
+CREATE OR REPLACE FUNCTION merge_anonymous_cart_to_customer(
+    p_session_id VARCHAR(255),
+    p_customer_id BIGINT
+)
+RETURNS void AS $$
+DECLARE
+    v_anonymous_cart_id BIGINT;
+    v_customer_cart_id BIGINT;
+BEGIN
+    SELECT id INTO v_anonymous_cart_id
+    FROM shopping_carts
+    WHERE session_id = p_session_id
+    AND status = 'ACTIVE'
+    AND customer_id IS NULL
+    LIMIT 1;
+
+    IF v_anonymous_cart_id IS NULL THEN
+        RETURN;
+    END IF;
+
+    SELECT id INTO v_customer_cart_id
+    FROM shopping_carts
+    WHERE customer_id = p_customer_id
+    AND status = 'ACTIVE'
+    LIMIT 1;
+
+    IF v_customer_cart_id IS NULL THEN
+        UPDATE shopping_carts
+        SET customer_id = p_customer_id,
+            session_id = NULL,
+            version = version + 1,
+            updated_at = CURRENT_TIMESTAMP
+        WHERE id = v_anonymous_cart_id;
+    ELSE
+        INSERT INTO cart_items (cart_id, product_id, quantity, unit_price)
+        SELECT v_customer_cart_id, product_id, quantity, unit_price
+        FROM cart_items
+        WHERE cart_id = v_anonymous_cart_id
+        ON CONFLICT (cart_id, product_id) DO UPDATE
+        SET quantity = cart_items.quantity + EXCLUDED.quantity,
+            updated_at = CURRENT_TIMESTAMP;
+
+        UPDATE shopping_carts
+        SET status = 'CONVERTED',
+            updated_at = CURRENT_TIMESTAMP
+        WHERE id = v_anonymous_cart_id;
+
+        UPDATE shopping_carts
+        SET total_items = (
+                SELECT COALESCE(SUM(quantity), 0)
+                FROM cart_items
+                WHERE cart_id = v_customer_cart_id
+            ),
+            total_amount = (
+                SELECT COALESCE(SUM(subtotal), 0)
+                FROM cart_items
+                WHERE cart_id = v_customer_cart_id
+            ),
+            version = version + 1,
+            updated_at = CURRENT_TIMESTAMP
+        WHERE id = v_customer_cart_id;
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,13 @@
+-- Stock de SKUs muy demandados repartido en varias filas para que los checkouts concurrentes
+-- no se serialicen sobre la misma fila de products. Mientras stock_sharded es true,
+-- products.stock es solo el total agregado para mostrar y lo recalcula un job.
+ALTER TABLE products ADD COLUMN stock_sharded BOOLEAN NOT NULL DEFAULT false;
+
+CREATE INDEX idx_products_stock_sharded ON products (id) WHERE stock_sharded;
+
+CREATE TABLE product_stock_buckets (
+    product_id BIGINT NOT NULL REFERENCES products(id) ON DELETE CASCADE,
+    bucket SMALLINT NOT NULL,
+    stock INT NOT NULL CHECK (stock >= 0),
+    PRIMARY KEY (product_id, bucket)
+);
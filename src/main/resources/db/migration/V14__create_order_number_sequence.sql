@@ -0,0 +1,2 @@
+-- Cada nextval reserva un bloque de 1000 números de orden para un nodo (ver BlockSequenceOrderNumberGenerator).
+CREATE SEQUENCE order_number_seq START WITH 1 INCREMENT BY 1000;
@@ -0,0 +1,9 @@
+-- Reservas confirmadas por el ledger de stock en memoria que aún no se descontaron de products.
+-- Se insertan en la misma transacción del checkout y el flush las borra al aplicarlas; al activarse,
+-- el ledger resta las pendientes para no perder ventas confirmadas si el nodo dueño cae antes del flush.
+CREATE TABLE stock_ledger_reservations (
+    id BIGSERIAL PRIMARY KEY,
+    product_id BIGINT NOT NULL REFERENCES products(id) ON DELETE CASCADE,
+    quantity INT NOT NULL CHECK (quantity > 0),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
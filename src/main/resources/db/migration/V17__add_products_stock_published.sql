@@ -0,0 +1,6 @@
+-- Último total de cubos publicado en products.stock para un SKU repartido. Si products.stock se aparta
+-- de este valor es porque alguien lo repuso o ajustó directamente, y el job pasa la diferencia a los cubos
+-- antes de volver a publicar el total.
+ALTER TABLE products ADD COLUMN stock_published INT;
+
+UPDATE products SET stock_published = stock WHERE stock_sharded;
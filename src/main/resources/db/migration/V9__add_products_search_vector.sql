@@ -0,0 +1,9 @@
+ALTER TABLE products
+ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('spanish', coalesce(name, '')), 'A') ||
+    setweight(to_tsvector('spanish', coalesce(brand, '')), 'B') ||
+    setweight(to_tsvector('spanish', coalesce(category, '')), 'C') ||
+    setweight(to_tsvector('spanish', coalesce(description, '')), 'D')
+) STORED;
+
+CREATE INDEX idx_products_search_vector ON products USING GIN (search_vector);
@@ -1,22 +1,29 @@
 package com.farmatodo.ecommerce.application.usecase;
 
 import com.farmatodo.ecommerce.application.dto.AddItemRequest;
+import com.farmatodo.ecommerce.application.dto.AddItemsBatchRequest;
+import com.farmatodo.ecommerce.application.dto.AdjustedItemResponse;
 import com.farmatodo.ecommerce.application.dto.CartResponse;
 import com.farmatodo.ecommerce.application.mapper.CartApiMapper;
 import com.farmatodo.ecommerce.domain.exception.InsufficientStockException;
 import com.farmatodo.ecommerce.domain.exception.ProductNotFoundException;
 import com.farmatodo.ecommerce.domain.model.CartItem;
+import com.farmatodo.ecommerce.domain.model.CartToken;
 import com.farmatodo.ecommerce.domain.model.Customer;
 import com.farmatodo.ecommerce.domain.model.Product;
 import com.farmatodo.ecommerce.domain.model.ShoppingCart;
 import com.farmatodo.ecommerce.domain.port.out.CartItemRepositoryPort;
+import com.farmatodo.ecommerce.domain.port.out.CartTokenPort;
 import com.farmatodo.ecommerce.domain.port.out.CustomerRepositoryPort;
 import com.farmatodo.ecommerce.domain.port.out.ProductRepositoryPort;
 import com.farmatodo.ecommerce.domain.port.out.ShoppingCartRepositoryPort;
+import com.farmatodo.ecommerce.domain.port.out.StockLedgerPort;
+import com.farmatodo.ecommerce.domain.port.out.SystemConfigRepositoryPort;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -26,12 +33,19 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -41,6 +55,9 @@ class AddProductToCartUseCaseImplTest {
 
     @Mock private ShoppingCartRepositoryPort shoppingCartRepository;
     @Mock private CartItemRepositoryPort cartItemRepository;
+    @Mock private SystemConfigRepositoryPort systemConfigRepository;
+    @Mock private CartTokenPort cartTokenPort;
+    @Mock private StockLedgerPort stockLedger;
     @Mock private ProductRepositoryPort productRepository;
     @Mock private CustomerRepositoryPort customerRepository;
     @Mock private CartApiMapper cartApiMapper;
@@ -91,10 +108,13 @@ class AddProductToCartUseCaseImplTest {
     @Test
     void whenAddProduct_asNewAuthenticatedUser_shouldCreateCartAndAddItem() {
         mockAuthenticatedUser(1L, "test@user.com");
+        when(systemConfigRepository.getValueAsInt("cart.expiration.hours", 72)).thenReturn(48);
         when(shoppingCartRepository.findActiveByCustomerId(1L)).thenReturn(Optional.empty());
         when(shoppingCartRepository.save(any(ShoppingCart.class))).thenReturn(cart);
         when(productRepository.findByIdAndIsActiveTrue(1L)).thenReturn(Optional.of(product));
-        when(cartItemRepository.save(any(CartItem.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(cartItemRepository.addQuantity(any(CartItem.class), anyInt())).thenAnswer(inv -> Optional.of(inv.getArgument(0)));
+        when(shoppingCartRepository.applyTotalsDelta(any(ShoppingCart.class), any(BigDecimal.class), anyInt()))
+                .thenAnswer(inv -> inv.getArgument(0));
         when(cartApiMapper.toResponse(any(ShoppingCart.class))).thenReturn(CartResponse.builder().totalItems(2).build());
 
         AddItemRequest addItemRequest = new AddItemRequest();
@@ -102,8 +122,12 @@ class AddProductToCartUseCaseImplTest {
         addItemRequest.setQuantity(2);
         CartResponse response = addProductToCartUseCase.addProductToCart(addItemRequest, request);
         assertEquals(2, response.getTotalItems());
-        verify(shoppingCartRepository, times(2)).save(any(ShoppingCart.class));
-        verify(cartItemRepository, times(1)).save(any(CartItem.class));
+        verify(shoppingCartRepository, times(1)).save(argThat(created -> created.getExpiresAt()
+                .isAfter(OffsetDateTime.now().plusHours(47)) && created.getExpiresAt().isBefore(OffsetDateTime.now().plusHours(49))));
+        InOrder inOrder = inOrder(shoppingCartRepository, cartItemRepository);
+        inOrder.verify(shoppingCartRepository).applyTotalsDelta(cart, BigDecimal.ZERO, 0);
+        inOrder.verify(cartItemRepository, times(1)).addQuantity(any(CartItem.class), eq(10));
+        inOrder.verify(shoppingCartRepository).applyTotalsDelta(eq(cart), argThat(amount -> amount.compareTo(new BigDecimal("200.00")) == 0), eq(2));
     }
 
     @Test
@@ -121,9 +145,10 @@ class AddProductToCartUseCaseImplTest {
 
         when(shoppingCartRepository.findActiveByCustomerId(1L)).thenReturn(Optional.of(cart));
         when(productRepository.findByIdAndIsActiveTrue(1L)).thenReturn(Optional.of(product));
-        when(shoppingCartRepository.save(any(ShoppingCart.class)))
+        when(shoppingCartRepository.applyTotalsDelta(any(ShoppingCart.class), any(BigDecimal.class), anyInt()))
                 .thenAnswer(inv -> inv.getArgument(0));
-        when(cartItemRepository.save(any(CartItem.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(cartItemRepository.addQuantity(any(CartItem.class), anyInt())).thenReturn(Optional.of(
+                existingItem.toBuilder().quantity(5).product(null).build()));
         lenient().when(cartApiMapper.toResponse(any(ShoppingCart.class)))
                 .thenReturn(CartResponse.builder().totalItems(5).build());
 
@@ -132,15 +157,14 @@ class AddProductToCartUseCaseImplTest {
         addItemRequest.setQuantity(2);
         CartResponse response = addProductToCartUseCase.addProductToCart(addItemRequest, request);
         assertEquals(5, response.getTotalItems());
-        verify(cartItemRepository, times(1)).save(argThat(
-                item -> item.getQuantity() == 5
-        ));
+        verify(cartItemRepository, times(1)).addQuantity(argThat(item -> item.getQuantity() == 2), eq(10));
+        verify(cartItemRepository, never()).save(any(CartItem.class));
+        verify(shoppingCartRepository, never()).save(any(ShoppingCart.class));
+        verify(shoppingCartRepository).applyTotalsDelta(eq(cart), argThat(amount -> amount.compareTo(new BigDecimal("200.00")) == 0), eq(2));
     }
 
     @Test
     void whenAddProduct_withInsufficientStock_shouldThrowInsufficientStockException() {
-        mockAuthenticatedUser(1L, "test@user.com");
-        when(shoppingCartRepository.findActiveByCustomerId(1L)).thenReturn(Optional.of(cart));
         when(productRepository.findByIdAndIsActiveTrue(1L)).thenReturn(Optional.of(product));
 
         AddItemRequest addItemRequest = new AddItemRequest();
@@ -152,12 +176,49 @@ class AddProductToCartUseCaseImplTest {
         });
 
         assertTrue(exception.getMessage().contains("Stock insuficiente"));
+        verifyNoInteractions(shoppingCartRepository);
     }
 
     @Test
-    void whenAddProduct_asAnonymousUser_shouldCreateSessionCart() {
+    void whenAddProduct_withLedgerTrackingLowerStock_shouldUseLedgerStock() {
+        when(productRepository.findByIdAndIsActiveTrue(1L)).thenReturn(Optional.of(product));
+        when(stockLedger.available(1L)).thenReturn(OptionalInt.of(1));
+
+        AddItemRequest addItemRequest = new AddItemRequest();
+        addItemRequest.setProductId(1L);
+        addItemRequest.setQuantity(2);
+
+        assertThrows(InsufficientStockException.class, () -> addProductToCartUseCase.addProductToCart(addItemRequest, request));
+        verifyNoInteractions(shoppingCartRepository);
+    }
+
+    @Test
+    void whenAddProduct_asFirstAnonymousInteraction_shouldIssueTokenWithoutCreatingCart() {
         mockAnonymousUser();
         when(request.getHeader("X-Session-ID")).thenReturn(null);
+        when(productRepository.findByIdAndIsActiveTrue(1L)).thenReturn(Optional.of(product));
+        when(cartTokenPort.issue(anyString(), eq(Map.of(1L, 2)))).thenReturn("signed.token");
+        when(cartApiMapper.toResponse(any(ShoppingCart.class))).thenReturn(CartResponse.builder().build());
+
+        AddItemRequest addItemRequest = new AddItemRequest();
+        addItemRequest.setProductId(1L);
+        addItemRequest.setQuantity(2);
+
+        CartResponse response = addProductToCartUseCase.addProductToCart(addItemRequest, request);
+
+        assertEquals("signed.token", response.getSessionId());
+        verify(cartApiMapper).toResponse(argThat((ShoppingCart pending) -> pending.getId() == null && pending.getTotalItems() == 2
+                && pending.getTotalAmount().compareTo(new BigDecimal("200.00")) == 0));
+        verifyNoInteractions(shoppingCartRepository, cartItemRepository);
+    }
+
+    @Test
+    void whenAddProduct_withPendingCartToken_shouldMaterializeCartWithTokenLines() {
+        mockAnonymousUser();
+        when(request.getHeader("X-Session-ID")).thenReturn("signed.token");
+        when(cartTokenPort.isToken("signed.token")).thenReturn(true);
+        when(cartTokenPort.verify("signed.token")).thenReturn(Optional.of(
+                new CartToken("new-session-id", Map.of(1L, 2), Instant.now())));
 
         ShoppingCart sessionCart = ShoppingCart.builder()
                 .id(2L)
@@ -166,9 +227,15 @@ class AddProductToCartUseCaseImplTest {
                 .items(new ArrayList<>())
                 .build();
 
+        when(shoppingCartRepository.findActiveBySessionId("new-session-id")).thenReturn(Optional.empty());
         when(shoppingCartRepository.save(any(ShoppingCart.class))).thenReturn(sessionCart);
         when(productRepository.findByIdAndIsActiveTrue(1L)).thenReturn(Optional.of(product));
-        when(cartItemRepository.save(any(CartItem.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(productRepository.findAllActiveByIds(any())).thenReturn(List.of(product));
+        when(cartItemRepository.addQuantities(anyList(), anyMap())).thenAnswer(inv -> inv.getArgument(0));
+        when(cartItemRepository.addQuantity(any(CartItem.class), anyInt())).thenReturn(Optional.of(
+                CartItem.builder().cartId(2L).productId(1L).quantity(3).unitPrice(new BigDecimal("100.00")).build()));
+        when(shoppingCartRepository.applyTotalsDelta(any(ShoppingCart.class), any(BigDecimal.class), anyInt()))
+                .thenAnswer(inv -> inv.getArgument(0));
         when(cartApiMapper.toResponse(any(ShoppingCart.class))).thenReturn(CartResponse.builder().sessionId("new-session-id").build());
 
         AddItemRequest addItemRequest = new AddItemRequest();
@@ -179,7 +246,73 @@ class AddProductToCartUseCaseImplTest {
 
         assertNotNull(response.getSessionId());
         assertEquals("new-session-id", response.getSessionId());
-        verify(shoppingCartRepository, times(2)).save(any(ShoppingCart.class));
+        verify(shoppingCartRepository, times(1)).save(argThat(created -> "new-session-id".equals(created.getSessionId())));
+        verify(cartItemRepository).addQuantities(argThat(lines -> lines.size() == 1 && lines.get(0).getQuantity() == 2), anyMap());
+        verify(cartItemRepository).addQuantity(argThat(item -> item.getQuantity() == 1), eq(10));
+    }
+
+    @Test
+    void whenAddProduct_withPendingCartTokenOverStock_shouldReportTheAdjustedLines() {
+        mockAnonymousUser();
+        when(request.getHeader("X-Session-ID")).thenReturn("signed.token");
+        when(cartTokenPort.isToken("signed.token")).thenReturn(true);
+        Map<Long, Integer> tokenLines = new LinkedHashMap<>();
+        tokenLines.put(1L, 12);
+        tokenLines.put(2L, 1);
+        when(cartTokenPort.verify("signed.token")).thenReturn(Optional.of(new CartToken("new-session-id", tokenLines, Instant.now())));
+        ShoppingCart sessionCart = ShoppingCart.builder()
+                .id(2L)
+                .sessionId("new-session-id")
+                .status(ShoppingCart.CartStatus.ACTIVE)
+                .items(new ArrayList<>())
+                .build();
+        when(shoppingCartRepository.findActiveBySessionId("new-session-id")).thenReturn(Optional.empty());
+        when(shoppingCartRepository.save(any(ShoppingCart.class))).thenReturn(sessionCart);
+        when(productRepository.findAllActiveByIds(any())).thenReturn(List.of(product));
+        when(cartItemRepository.addQuantities(anyList(), anyMap())).thenAnswer(inv -> inv.getArgument(0));
+        when(shoppingCartRepository.applyTotalsDelta(any(ShoppingCart.class), any(BigDecimal.class), anyInt()))
+                .thenAnswer(inv -> inv.getArgument(0));
+        when(cartApiMapper.toResponse(any(ShoppingCart.class))).thenReturn(CartResponse.builder().build());
+
+        AddItemsBatchRequest batch = new AddItemsBatchRequest();
+        batch.setItems(List.of());
+        CartResponse response = addProductToCartUseCase.addProductsToCart(batch, request);
+
+        assertEquals(2, response.getAdjustedItems().size());
+        assertEquals(10, response.getAdjustedItems().get(0).getAddedQuantity());
+        assertEquals(0, response.getAdjustedItems().get(1).getAddedQuantity());
+        verify(cartItemRepository).addQuantities(argThat(lines -> lines.size() == 1 && lines.get(0).getQuantity() == 10), anyMap());
+    }
+
+    @Test
+    void whenMergePendingCart_shouldAddTokenLinesToCustomerCartUpToFreeStock() {
+        when(cartTokenPort.verify("signed.token")).thenReturn(Optional.of(
+                new CartToken("anon-session", Map.of(1L, 5), Instant.now())));
+        cart.getItems().add(CartItem.builder().cartId(1L).productId(1L).quantity(8).unitPrice(new BigDecimal("100.00")).build());
+        when(shoppingCartRepository.findActiveByCustomerId(1L)).thenReturn(Optional.of(cart));
+        when(productRepository.findAllActiveByIds(any())).thenReturn(List.of(product));
+        when(cartItemRepository.addQuantities(anyList(), anyMap())).thenAnswer(inv -> inv.getArgument(0));
+        when(shoppingCartRepository.applyTotalsDelta(any(ShoppingCart.class), any(BigDecimal.class), anyInt()))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        List<AdjustedItemResponse> adjusted = addProductToCartUseCase.mergePendingCart("signed.token", 1L);
+
+        assertEquals(1, adjusted.size());
+        assertEquals(5, adjusted.get(0).getRequestedQuantity());
+        assertEquals(2, adjusted.get(0).getAddedQuantity());
+        verify(cartItemRepository).addQuantities(argThat(lines -> lines.size() == 1 && lines.get(0).getQuantity() == 2), anyMap());
+        verify(shoppingCartRepository).applyTotalsDelta(any(ShoppingCart.class),
+                argThat(amount -> amount.compareTo(new BigDecimal("200.00")) == 0), eq(2));
+        verify(shoppingCartRepository, never()).save(any(ShoppingCart.class));
+    }
+
+    @Test
+    void whenMergePendingCart_withInvalidToken_shouldNotTouchCustomerCart() {
+        when(cartTokenPort.verify("tampered.token")).thenReturn(Optional.empty());
+
+        addProductToCartUseCase.mergePendingCart("tampered.token", 1L);
+
+        verifyNoInteractions(shoppingCartRepository, cartItemRepository);
     }
 
     @Test
@@ -197,6 +330,7 @@ class AddProductToCartUseCaseImplTest {
 
         when(shoppingCartRepository.findActiveByCustomerId(1L)).thenReturn(Optional.of(cart));
         when(productRepository.findByIdAndIsActiveTrue(1L)).thenReturn(Optional.of(product));
+        when(cartItemRepository.addQuantity(any(CartItem.class), eq(10))).thenReturn(Optional.empty());
         AddItemRequest addItemRequest = new AddItemRequest();
         addItemRequest.setProductId(1L);
         addItemRequest.setQuantity(5);
@@ -210,4 +344,85 @@ class AddProductToCartUseCaseImplTest {
         assertTrue(exception.getMessage().contains("Stock: 10"));
         verify(cartItemRepository, never()).save(any(CartItem.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void whenAddProductsBatch_shouldLoadProductsOnceAndUpsertAllLinesTogether() {
+        mockAuthenticatedUser(1L, "test@user.com");
+        Product ibuprofen = Product.builder().id(2L).name("Ibuprofeno").price(new BigDecimal("50.00")).stock(5).build();
+        cart.getItems().add(CartItem.builder().id(10L).cartId(1L).productId(1L).quantity(3)
+                .unitPrice(new BigDecimal("100.00")).product(product).build());
+        when(shoppingCartRepository.findActiveByCustomerId(1L)).thenReturn(Optional.of(cart));
+        when(productRepository.findAllActiveByIds(any())).thenReturn(List.of(product, ibuprofen));
+        when(cartItemRepository.addQuantities(anyList(), anyMap())).thenReturn(List.of(
+                CartItem.builder().id(10L).cartId(1L).productId(1L).quantity(5).unitPrice(new BigDecimal("100.00")).build(),
+                CartItem.builder().id(11L).cartId(1L).productId(2L).quantity(4).unitPrice(new BigDecimal("50.00")).build()));
+        when(shoppingCartRepository.applyTotalsDelta(any(ShoppingCart.class), any(BigDecimal.class), anyInt()))
+                .thenAnswer(inv -> inv.getArgument(0));
+        when(cartApiMapper.toResponse(any(ShoppingCart.class))).thenReturn(CartResponse.builder().totalItems(9).build());
+
+        AddItemsBatchRequest batch = new AddItemsBatchRequest();
+        batch.setItems(List.of(itemRequest(1L, 2), itemRequest(2L, 3), itemRequest(2L, 1)));
+        addProductToCartUseCase.addProductsToCart(batch, request);
+
+        verify(productRepository, times(1)).findAllActiveByIds(any());
+        verify(productRepository, never()).findByIdAndIsActiveTrue(anyLong());
+        verify(cartItemRepository).addQuantities(argThat(lines -> lines.size() == 2
+                && lines.get(0).getQuantity() == 2 && lines.get(1).getQuantity() == 4), eq(Map.of(1L, 10, 2L, 5)));
+        verify(shoppingCartRepository).applyTotalsDelta(eq(cart), argThat(amount -> amount.compareTo(new BigDecimal("400.00")) == 0), eq(6));
+        verify(shoppingCartRepository, never()).save(any(ShoppingCart.class));
+    }
+
+    @Test
+    void whenAddProductsBatch_withOneLineOverStock_shouldRejectWholeBatch() {
+        mockAuthenticatedUser(1L, "test@user.com");
+        when(shoppingCartRepository.findActiveByCustomerId(1L)).thenReturn(Optional.of(cart));
+        when(productRepository.findAllActiveByIds(any())).thenReturn(List.of(product));
+
+        AddItemsBatchRequest batch = new AddItemsBatchRequest();
+        batch.setItems(List.of(itemRequest(1L, 11)));
+
+        assertThrows(InsufficientStockException.class, () -> addProductToCartUseCase.addProductsToCart(batch, request));
+        verify(cartItemRepository, never()).addQuantities(anyList(), anyMap());
+    }
+
+    @Test
+    void whenAddProductsBatch_andConcurrentAddFillsStock_shouldRejectWhenUpsertSkipsALine() {
+        mockAuthenticatedUser(1L, "test@user.com");
+        Product ibuprofen = Product.builder().id(2L).name("Ibuprofeno").price(new BigDecimal("50.00")).stock(5).build();
+        when(shoppingCartRepository.findActiveByCustomerId(1L)).thenReturn(Optional.of(cart));
+        when(productRepository.findAllActiveByIds(any())).thenReturn(List.of(product, ibuprofen));
+        when(cartItemRepository.addQuantities(anyList(), anyMap())).thenReturn(List.of(
+                CartItem.builder().id(10L).cartId(1L).productId(1L).quantity(2).unitPrice(new BigDecimal("100.00")).build()));
+
+        AddItemsBatchRequest batch = new AddItemsBatchRequest();
+        batch.setItems(List.of(itemRequest(1L, 2), itemRequest(2L, 3)));
+
+        InsufficientStockException exception = assertThrows(InsufficientStockException.class,
+                () -> addProductToCartUseCase.addProductsToCart(batch, request));
+        assertTrue(exception.getMessage().contains("Ibuprofeno"));
+        InOrder inOrder = inOrder(shoppingCartRepository, cartItemRepository);
+        inOrder.verify(shoppingCartRepository).applyTotalsDelta(cart, BigDecimal.ZERO, 0);
+        inOrder.verify(cartItemRepository).addQuantities(anyList(), anyMap());
+        verify(shoppingCartRepository, times(1)).applyTotalsDelta(any(), any(), anyInt());
+    }
+
+    @Test
+    void whenAddProductsBatch_withUnknownProduct_shouldThrowProductNotFound() {
+        mockAuthenticatedUser(1L, "test@user.com");
+        when(shoppingCartRepository.findActiveByCustomerId(1L)).thenReturn(Optional.of(cart));
+        when(productRepository.findAllActiveByIds(any())).thenReturn(List.of(product));
+
+        AddItemsBatchRequest batch = new AddItemsBatchRequest();
+        batch.setItems(List.of(itemRequest(1L, 1), itemRequest(99L, 1)));
+
+        assertThrows(ProductNotFoundException.class, () -> addProductToCartUseCase.addProductsToCart(batch, request));
+        verify(cartItemRepository, never()).addQuantities(anyList(), anyMap());
+    }
+
+    private AddItemRequest itemRequest(Long productId, int quantity) {
+        AddItemRequest item = new AddItemRequest();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        return item;
+    }
+}
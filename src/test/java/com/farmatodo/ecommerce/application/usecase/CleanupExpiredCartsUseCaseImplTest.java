@@ -0,0 +1,56 @@
+package com.farmatodo.ecommerce.application.usecase;
+
+import com.farmatodo.ecommerce.domain.port.out.ShoppingCartRepositoryPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.OffsetDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CleanupExpiredCartsUseCaseImplTest {
+
+    @Mock
+    private ShoppingCartRepositoryPort shoppingCartRepository;
+
+    @InjectMocks
+    private CleanupExpiredCartsUseCaseImpl cleanupUseCase;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cleanupUseCase, "chunkSize", 100);
+        ReflectionTestUtils.setField(cleanupUseCase, "maxChunks", 3);
+        ReflectionTestUtils.setField(cleanupUseCase, "retentionDays", 30);
+    }
+
+    @Test
+    void whenCleanup_shouldProcessChunksUntilOneComesBackShort() {
+        when(shoppingCartRepository.expireCarts(100)).thenReturn(100, 100, 40);
+        when(shoppingCartRepository.purgeExpiredCarts(any(OffsetDateTime.class), eq(100))).thenReturn(7);
+
+        cleanupUseCase.cleanupExpiredCarts();
+
+        verify(shoppingCartRepository, times(3)).expireCarts(100);
+        verify(shoppingCartRepository, times(1)).purgeExpiredCarts(argThat(before ->
+                before.isBefore(OffsetDateTime.now().minusDays(29)) && before.isAfter(OffsetDateTime.now().minusDays(31))), eq(100));
+    }
+
+    @Test
+    void whenBacklogExceedsMaxChunks_shouldStopAndLeaveTheRestForNextRun() {
+        when(shoppingCartRepository.expireCarts(100)).thenReturn(100);
+        when(shoppingCartRepository.purgeExpiredCarts(any(OffsetDateTime.class), eq(100))).thenReturn(0);
+
+        cleanupUseCase.cleanupExpiredCarts();
+
+        verify(shoppingCartRepository, times(3)).expireCarts(100);
+    }
+}
@@ -2,9 +2,12 @@ package com.farmatodo.ecommerce.application.usecase;
 
 import com.farmatodo.ecommerce.application.dto.CreateOrderRequest;
 import com.farmatodo.ecommerce.application.dto.OrderResponse;
+import com.farmatodo.ecommerce.application.event.ProductStockChangedEvent;
 import com.farmatodo.ecommerce.application.mapper.OrderApiMapper;
 import com.farmatodo.ecommerce.domain.exception.CartNotFoundException;
 import com.farmatodo.ecommerce.domain.exception.InsufficientStockException;
+import com.farmatodo.ecommerce.domain.exception.ProductNotFoundException;
+import com.farmatodo.ecommerce.domain.exception.StockLedgerUnavailableException;
 import com.farmatodo.ecommerce.domain.exception.TokenizationException;
 import com.farmatodo.ecommerce.domain.model.*;
 import com.farmatodo.ecommerce.domain.port.out.*;
@@ -14,6 +17,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -21,7 +25,11 @@ import org.springframework.security.core.userdetails.User;
 
 import java.math.BigDecimal;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -35,6 +43,9 @@ class CreateOrderUseCaseImplTest {
 
     @Mock private ShoppingCartRepositoryPort shoppingCartRepository;
     @Mock private ProductRepositoryPort productRepository;
+    @Mock private StockShardRepositoryPort stockShardRepository;
+    @Mock private StockLedgerPort stockLedger;
+    @Mock private OrderNumberGeneratorPort orderNumberGenerator;
     @Mock private CustomerRepositoryPort customerRepository;
     @Mock private TokenizedCardRepositoryPort tokenizedCardRepository;
     @Mock private OrderRepositoryPort orderRepository;
@@ -42,6 +53,7 @@ class CreateOrderUseCaseImplTest {
     @Mock private PaymentRepositoryPort paymentRepository;
     @Mock private SystemConfigRepositoryPort systemConfigRepository;
     @Mock private OrderApiMapper orderApiMapper;
+    @Mock private ApplicationEventPublisher eventPublisher;
 
     @Mock private Authentication authentication;
     @Mock private SecurityContext securityContext;
@@ -95,25 +107,29 @@ class CreateOrderUseCaseImplTest {
     @Test
     void whenCreateOrder_withValidCart_shouldSucceedAndConvertCart() {
         mockSecurityContext();
+        product.setStock(8);
 
         when(shoppingCartRepository.findActiveByCustomerId(1L)).thenReturn(Optional.of(cart));
         when(tokenizedCardRepository.findByUuidAndCustomerId(any(UUID.class), anyLong())).thenReturn(Optional.of(card));
-        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(product));
+        when(productRepository.decrementStock(Map.of(1L, 2))).thenReturn(List.of());
+        when(productRepository.findAllActiveByIds(Set.of(1L))).thenReturn(List.of(product));
         when(systemConfigRepository.getValueAsDouble(anyString(), anyDouble())).thenReturn(16.0);
         when(systemConfigRepository.getValueAsInt(anyString(), anyInt())).thenReturn(3);
+        when(systemConfigRepository.getValue("order.number.prefix")).thenReturn(Optional.of("FT"));
+        when(orderNumberGenerator.nextOrderNumber("FT")).thenReturn("FT-20261018-0000000001");
         Order savedOrder = Order.builder().id(100L).orderNumber("ORD-TEST").build();
         when(orderRepository.save(any(Order.class))).thenReturn(savedOrder);
         when(orderItemRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
-        doNothing().when(productRepository).saveAll(anyList());
         when(orderApiMapper.toResponse(any(Order.class))).thenReturn(OrderResponse.builder().orderNumber("ORD-TEST").build());
         createOrderUseCase.createOrderFromCart(createOrderRequest);
         verify(shoppingCartRepository, times(1)).save(argThat(
                 savedCart -> savedCart.getStatus() == ShoppingCart.CartStatus.CONVERTED
         ));
-        verify(productRepository, times(1)).saveAll(argThat(list ->
-                list.get(0).getStock() == 8
-        ));
+        verify(orderRepository).save(argThat(order -> "FT-20261018-0000000001".equals(order.getOrderNumber())));
         verify(paymentRepository, times(1)).save(any(Payment.class));
+        verify(eventPublisher, times(1)).publishEvent(argThat((ProductStockChangedEvent event) ->
+                event.getProducts().get(0).getStock() == 8 && event.getPreviousStock().get(1L) == 10
+        ));
     }
 
     @Test
@@ -131,7 +147,8 @@ class CreateOrderUseCaseImplTest {
         mockSecurityContext();
         when(shoppingCartRepository.findActiveByCustomerId(1L)).thenReturn(Optional.of(cart));
         when(tokenizedCardRepository.findByUuidAndCustomerId(any(UUID.class), anyLong())).thenReturn(Optional.of(card));
-        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(product));
+        when(productRepository.decrementStock(Map.of(1L, 2))).thenReturn(List.of());
+        when(productRepository.findAllActiveByIds(Set.of(1L))).thenReturn(List.of(product));
         when(systemConfigRepository.getValueAsDouble(anyString(), anyDouble())).thenReturn(16.0);
         when(systemConfigRepository.getValueAsInt(anyString(), anyInt())).thenReturn(3);
         Order savedOrder = Order.builder().id(100L).build();
@@ -141,9 +158,6 @@ class CreateOrderUseCaseImplTest {
         OrderResponse response = createOrderUseCase.createOrderFromCart(createOrderRequest);
         assertNotNull(response);
         assertEquals("ORD-123", response.getOrderNumber());
-        verify(productRepository, times(1)).saveAll(argThat(list ->
-                list.get(0).getStock() == 8
-        ));
         verify(shoppingCartRepository, times(1)).save(argThat(
                 savedCart -> savedCart.getStatus() == ShoppingCart.CartStatus.CONVERTED
         ));
@@ -170,13 +184,103 @@ class CreateOrderUseCaseImplTest {
         cart.getItems().get(0).setQuantity(2);
         when(shoppingCartRepository.findActiveByCustomerId(1L)).thenReturn(Optional.of(cart));
         when(tokenizedCardRepository.findByUuidAndCustomerId(any(UUID.class), anyLong())).thenReturn(Optional.of(card));
-        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(product));
+        when(productRepository.decrementStock(Map.of(1L, 2))).thenReturn(List.of(1L));
+        when(stockShardRepository.decrementStock(Map.of(1L, 2))).thenReturn(List.of(1L));
+        when(productRepository.findAllActiveByIds(Set.of(1L))).thenReturn(List.of(product));
         Exception exception = assertThrows(InsufficientStockException.class, () -> {
             createOrderUseCase.createOrderFromCart(createOrderRequest);
         });
         assertTrue(exception.getMessage().contains("Stock insuficiente"));
     }
 
+    @Test
+    void whenCreateOrder_withShardedProduct_shouldDecrementItsBuckets() {
+        mockSecurityContext();
+        when(shoppingCartRepository.findActiveByCustomerId(1L)).thenReturn(Optional.of(cart));
+        when(tokenizedCardRepository.findByUuidAndCustomerId(any(UUID.class), anyLong())).thenReturn(Optional.of(card));
+        when(productRepository.decrementStock(Map.of(1L, 2))).thenReturn(List.of(1L));
+        when(stockShardRepository.decrementStock(Map.of(1L, 2))).thenReturn(List.of());
+        when(stockShardRepository.findStockTotals(Set.of(1L))).thenReturn(Map.of(1L, 38));
+        when(productRepository.findAllActiveByIds(Set.of(1L))).thenReturn(List.of(product));
+        when(systemConfigRepository.getValueAsDouble(anyString(), anyDouble())).thenReturn(16.0);
+        when(systemConfigRepository.getValueAsInt(anyString(), anyInt())).thenReturn(3);
+        when(orderRepository.save(any(Order.class))).thenReturn(Order.builder().id(100L).build());
+        when(orderItemRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+        when(orderApiMapper.toResponse(any(Order.class))).thenReturn(OrderResponse.builder().orderNumber("ORD-123").build());
+
+        createOrderUseCase.createOrderFromCart(createOrderRequest);
+
+        verify(stockShardRepository).decrementStock(Map.of(1L, 2));
+        verify(paymentRepository).save(any(Payment.class));
+        verify(eventPublisher).publishEvent(argThat((ProductStockChangedEvent event) ->
+                event.getProducts().get(0).getStock() == 38 && event.getPreviousStock().get(1L) == 40
+        ));
+    }
+
+    @Test
+    void whenCreateOrder_withProductInLedger_shouldReserveInMemoryWithoutDecrementingInDatabase() {
+        mockSecurityContext();
+        when(shoppingCartRepository.findActiveByCustomerId(1L)).thenReturn(Optional.of(cart));
+        when(tokenizedCardRepository.findByUuidAndCustomerId(any(UUID.class), anyLong())).thenReturn(Optional.of(card));
+        when(stockLedger.available(1L)).thenReturn(OptionalInt.of(10), OptionalInt.of(8));
+        when(stockLedger.reserve(Map.of(1L, 2))).thenReturn(List.of());
+        when(productRepository.findAllActiveByIds(Set.of(1L))).thenReturn(List.of(product));
+        when(systemConfigRepository.getValueAsDouble(anyString(), anyDouble())).thenReturn(16.0);
+        when(systemConfigRepository.getValueAsInt(anyString(), anyInt())).thenReturn(3);
+        when(orderRepository.save(any(Order.class))).thenReturn(Order.builder().id(100L).build());
+        when(orderItemRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+        when(orderApiMapper.toResponse(any(Order.class))).thenReturn(OrderResponse.builder().orderNumber("ORD-123").build());
+
+        createOrderUseCase.createOrderFromCart(createOrderRequest);
+
+        verify(productRepository, never()).decrementStock(anyMap());
+        verifyNoInteractions(stockShardRepository);
+        verify(eventPublisher).publishEvent(argThat((ProductStockChangedEvent event) ->
+                event.getProducts().get(0).getStock() == 8 && event.getPreviousStock().get(1L) == 10
+        ));
+    }
+
+    @Test
+    void whenCreateOrder_withLedgerRejectingReservation_shouldThrowInsufficientStockException() {
+        mockSecurityContext();
+        when(shoppingCartRepository.findActiveByCustomerId(1L)).thenReturn(Optional.of(cart));
+        when(tokenizedCardRepository.findByUuidAndCustomerId(any(UUID.class), anyLong())).thenReturn(Optional.of(card));
+        when(stockLedger.available(1L)).thenReturn(OptionalInt.of(1));
+        when(stockLedger.reserve(Map.of(1L, 2))).thenReturn(List.of(1L));
+        when(productRepository.findAllActiveByIds(Set.of(1L))).thenReturn(List.of(product));
+
+        assertThrows(InsufficientStockException.class, () -> createOrderUseCase.createOrderFromCart(createOrderRequest));
+
+        verify(productRepository, never()).decrementStock(anyMap());
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void whenCreateOrder_whileAnotherNodeOwnsTheLedger_shouldRejectWithoutTouchingStock() {
+        mockSecurityContext();
+        when(shoppingCartRepository.findActiveByCustomerId(1L)).thenReturn(Optional.of(cart));
+        when(tokenizedCardRepository.findByUuidAndCustomerId(any(UUID.class), anyLong())).thenReturn(Optional.of(card));
+        when(stockLedger.heldElsewhere(1L)).thenReturn(true);
+
+        assertThrows(StockLedgerUnavailableException.class, () -> createOrderUseCase.createOrderFromCart(createOrderRequest));
+
+        verify(productRepository, never()).decrementStock(anyMap());
+        verifyNoInteractions(stockShardRepository, orderRepository);
+    }
+
+    @Test
+    void whenCreateOrder_withProductNoLongerActive_shouldThrowBeforeCreatingOrder() {
+        mockSecurityContext();
+        when(shoppingCartRepository.findActiveByCustomerId(1L)).thenReturn(Optional.of(cart));
+        when(tokenizedCardRepository.findByUuidAndCustomerId(any(UUID.class), anyLong())).thenReturn(Optional.of(card));
+        when(productRepository.decrementStock(Map.of(1L, 2))).thenReturn(List.of());
+        when(productRepository.findAllActiveByIds(Set.of(1L))).thenReturn(List.of());
+
+        assertThrows(ProductNotFoundException.class, () -> createOrderUseCase.createOrderFromCart(createOrderRequest));
+
+        verifyNoInteractions(orderRepository);
+    }
+
     @Test
     void whenCreateOrder_withInvalidCardUuid_shouldThrowTokenizationException() {
         mockSecurityContext();
@@ -0,0 +1,52 @@
+package com.farmatodo.ecommerce.application.usecase;
+
+import com.farmatodo.ecommerce.application.dto.ProductResponse;
+import com.farmatodo.ecommerce.application.mapper.ProductApiMapper;
+import com.farmatodo.ecommerce.domain.model.Product;
+import com.farmatodo.ecommerce.domain.port.out.ProductRepositoryPort;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExportCatalogUseCaseImplTest {
+
+    @Mock
+    private ProductRepositoryPort productRepository;
+    @Mock
+    private ProductApiMapper productApiMapper;
+
+    @InjectMocks
+    private ExportCatalogUseCaseImpl exportCatalogUseCase;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenExportCatalog_shouldMapEachRowAsItArrives() {
+        Product first = Product.builder().id(1L).sku("A").build();
+        Product second = Product.builder().id(2L).sku("B").build();
+        doAnswer(inv -> {
+            Consumer<Product> consumer = inv.getArgument(0);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(productRepository).forEachActive(any(Consumer.class));
+        when(productApiMapper.toResponse(any(Product.class)))
+                .thenAnswer(inv -> ProductResponse.builder().sku(inv.getArgument(0, Product.class).getSku()).build());
+
+        List<String> exported = new ArrayList<>();
+        exportCatalogUseCase.exportCatalog(response -> exported.add(response.getSku()));
+
+        assertEquals(List.of("A", "B"), exported);
+        verify(productApiMapper, never()).toResponseList(anyList());
+    }
+}
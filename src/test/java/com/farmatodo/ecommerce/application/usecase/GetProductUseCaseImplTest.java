@@ -0,0 +1,100 @@
+package com.farmatodo.ecommerce.application.usecase;
+
+import com.farmatodo.ecommerce.application.dto.ProductDetailResponse;
+import com.farmatodo.ecommerce.application.dto.ProductResponse;
+import com.farmatodo.ecommerce.application.mapper.ProductApiMapper;
+import com.farmatodo.ecommerce.domain.exception.ProductNotFoundException;
+import com.farmatodo.ecommerce.domain.model.Product;
+import com.farmatodo.ecommerce.domain.port.out.ProductDetailCachePort;
+import com.farmatodo.ecommerce.domain.port.out.ProductRepositoryPort;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GetProductUseCaseImplTest {
+
+    @Mock
+    private ProductRepositoryPort productRepository;
+    @Mock
+    private ProductDetailCachePort productDetailCache;
+    @Mock
+    private ProductApiMapper productApiMapper;
+
+    @InjectMocks
+    private GetProductUseCaseImpl getProductUseCase;
+
+    private final UUID uuid = UUID.randomUUID();
+
+    private void mockCacheMiss() {
+        when(productDetailCache.get(eq(uuid), any()))
+                .thenAnswer(inv -> inv.getArgument(1, Supplier.class).get());
+    }
+
+    @Test
+    void whenGetProduct_onCacheMiss_shouldLoadAndBuildEtagFromUpdatedAt() {
+        OffsetDateTime updatedAt = OffsetDateTime.of(2025, 3, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+        Product product = Product.builder().id(1L).uuid(uuid).name("Paracetamol").updatedAt(updatedAt).build();
+        ProductResponse response = ProductResponse.builder().uuid(uuid).name("Paracetamol").build();
+        mockCacheMiss();
+        when(productRepository.findByUuidAndIsActiveTrue(uuid)).thenReturn(Optional.of(product));
+        when(productApiMapper.toResponse(product)).thenReturn(response);
+
+        ProductDetailResponse detail = getProductUseCase.getProduct(uuid.toString());
+
+        assertSame(response, detail.getProduct());
+        assertEquals(updatedAt.toInstant(), detail.getLastModified());
+        assertTrue(detail.getEtag().startsWith("\"") && detail.getEtag().endsWith("\""));
+    }
+
+    @Test
+    void whenGetProduct_withNewerUpdatedAt_shouldChangeEtag() {
+        OffsetDateTime updatedAt = OffsetDateTime.of(2025, 3, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+        mockCacheMiss();
+        when(productRepository.findByUuidAndIsActiveTrue(uuid))
+                .thenReturn(Optional.of(Product.builder().uuid(uuid).updatedAt(updatedAt).build()))
+                .thenReturn(Optional.of(Product.builder().uuid(uuid).updatedAt(updatedAt.plusNanos(1_000)).build()));
+
+        String first = getProductUseCase.getProduct(uuid.toString()).getEtag();
+        String second = getProductUseCase.getProduct(uuid.toString()).getEtag();
+
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    void whenGetProduct_withCachedProduct_shouldNotQueryRepository() {
+        Product cached = Product.builder().id(1L).uuid(uuid).name("Paracetamol").build();
+        ProductResponse response = ProductResponse.builder().uuid(uuid).name("Paracetamol").build();
+        when(productDetailCache.get(eq(uuid), any())).thenReturn(cached);
+        when(productApiMapper.toResponse(cached)).thenReturn(response);
+
+        assertSame(response, getProductUseCase.getProduct(uuid.toString()).getProduct());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void whenGetProduct_notFound_shouldThrowProductNotFoundException() {
+        mockCacheMiss();
+        when(productRepository.findByUuidAndIsActiveTrue(uuid)).thenReturn(Optional.empty());
+
+        assertThrows(ProductNotFoundException.class, () -> getProductUseCase.getProduct(uuid.toString()));
+    }
+
+    @Test
+    void whenGetProduct_withMalformedUuid_shouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> getProductUseCase.getProduct("no-es-uuid"));
+        verifyNoInteractions(productDetailCache, productRepository);
+    }
+}
@@ -3,7 +3,10 @@ package com.farmatodo.ecommerce.application.usecase;
 import com.farmatodo.ecommerce.application.dto.AuthResponse;
 import com.farmatodo.ecommerce.application.dto.LoginRequest;
 import com.farmatodo.ecommerce.domain.model.Customer;
+import com.farmatodo.ecommerce.domain.port.in.AddProductToCartUseCase;
+import com.farmatodo.ecommerce.domain.port.out.CartTokenPort;
 import com.farmatodo.ecommerce.domain.port.out.CustomerRepositoryPort;
+import com.farmatodo.ecommerce.domain.port.out.ShoppingCartRepositoryPort;
 import com.farmatodo.ecommerce.infrastructure.security.JwtService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -24,7 +27,10 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +41,12 @@ class LoginCustomerUseCaseImplTest {
     private AuthenticationManager authenticationManager;
     @Mock
     private JwtService jwtService;
+    @Mock
+    private ShoppingCartRepositoryPort shoppingCartRepository;
+    @Mock
+    private CartTokenPort cartTokenPort;
+    @Mock
+    private AddProductToCartUseCase addProductToCartUseCase;
     @InjectMocks
     private LoginCustomerUseCaseImpl loginCustomerUseCase;
     private LoginRequest request;
@@ -66,10 +78,37 @@ class LoginCustomerUseCaseImplTest {
         when(authentication.getPrincipal()).thenReturn(userDetails);
         when(customerRepositoryPort.findByEmail(anyString())).thenReturn(Optional.of(customer));
         when(jwtService.generateToken(any(UserDetails.class))).thenReturn("mock-jwt-token");
-        AuthResponse response = loginCustomerUseCase.login(request);
+        AuthResponse response = loginCustomerUseCase.login(request, null);
         assertNotNull(response);
         assertEquals("mock-jwt-token", response.getToken());
         assertEquals("Test", response.getFirstName());
+        verify(shoppingCartRepository, never()).mergeAnonymousCart(any(), any());
+    }
+
+    @Test
+    void whenLogin_withSessionId_shouldMergeAnonymousCart() {
+        mockSuccessfulAuthentication();
+        AuthResponse response = loginCustomerUseCase.login(request, "session-123");
+        assertEquals("mock-jwt-token", response.getToken());
+        verify(shoppingCartRepository).mergeAnonymousCart("session-123", 1L);
+    }
+
+    @Test
+    void whenLogin_withPendingCartToken_shouldMergeTokenLinesIntoCustomerCart() {
+        mockSuccessfulAuthentication();
+        when(cartTokenPort.isToken("signed.token")).thenReturn(true);
+        AuthResponse response = loginCustomerUseCase.login(request, "signed.token");
+        assertEquals("mock-jwt-token", response.getToken());
+        verify(addProductToCartUseCase).mergePendingCart("signed.token", 1L);
+        verify(shoppingCartRepository, never()).mergeAnonymousCart(any(), any());
+    }
+
+    @Test
+    void whenLogin_andCartMergeFails_shouldStillReturnToken() {
+        mockSuccessfulAuthentication();
+        doThrow(new RuntimeException("db down")).when(shoppingCartRepository).mergeAnonymousCart("session-123", 1L);
+        AuthResponse response = loginCustomerUseCase.login(request, "session-123");
+        assertEquals("mock-jwt-token", response.getToken());
     }
 
     @Test
@@ -78,8 +117,16 @@ class LoginCustomerUseCaseImplTest {
                 any(UsernamePasswordAuthenticationToken.class)
         )).thenThrow(new BadCredentialsException("Bad credentials"));
         Exception exception = assertThrows(BadCredentialsException.class, () -> {
-            loginCustomerUseCase.login(request);
+            loginCustomerUseCase.login(request, "session-123");
         });
         assertEquals("Bad credentials", exception.getMessage());
     }
+
+    private void mockSuccessfulAuthentication() {
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("test@example.com");
+        when(authentication.getPrincipal()).thenReturn(userDetails);
+        when(customerRepositoryPort.findByEmail(anyString())).thenReturn(Optional.of(customer));
+        when(jwtService.generateToken(any(UserDetails.class))).thenReturn("mock-jwt-token");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,328 @@
+package com.farmatodo.ecommerce.application.usecase;
+
+import com.farmatodo.ecommerce.application.dto.CartDetailResponse;
+import com.farmatodo.ecommerce.application.dto.CartResponse;
+import com.farmatodo.ecommerce.application.dto.UpdateItemQuantityRequest;
+import com.farmatodo.ecommerce.application.mapper.CartApiMapper;
+import com.farmatodo.ecommerce.domain.exception.CartNotFoundException;
+import com.farmatodo.ecommerce.domain.exception.CartVersionConflictException;
+import com.farmatodo.ecommerce.domain.exception.InsufficientStockException;
+import com.farmatodo.ecommerce.domain.model.CartItem;
+import com.farmatodo.ecommerce.domain.model.CartToken;
+import com.farmatodo.ecommerce.domain.model.Customer;
+import com.farmatodo.ecommerce.domain.model.Product;
+import com.farmatodo.ecommerce.domain.model.ShoppingCart;
+import com.farmatodo.ecommerce.domain.port.out.CartItemRepositoryPort;
+import com.farmatodo.ecommerce.domain.port.out.CartTokenPort;
+import com.farmatodo.ecommerce.domain.port.out.CustomerRepositoryPort;
+import com.farmatodo.ecommerce.domain.port.out.ProductRepositoryPort;
+import com.farmatodo.ecommerce.domain.port.out.ShoppingCartRepositoryPort;
+import com.farmatodo.ecommerce.domain.port.out.StockLedgerPort;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ManageCartUseCaseImplTest {
+
+    private static final UUID CART_UUID = UUID.fromString("7d1c1b3e-0000-4000-8000-000000000001");
+
+    @Mock private ShoppingCartRepositoryPort shoppingCartRepository;
+    @Mock private CartItemRepositoryPort cartItemRepository;
+    @Mock private ProductRepositoryPort productRepository;
+    @Mock private CustomerRepositoryPort customerRepository;
+    @Mock private CartApiMapper cartApiMapper;
+    @Mock private CartTokenPort cartTokenPort;
+    @Mock private StockLedgerPort stockLedger;
+    @Mock private HttpServletRequest request;
+    @Mock private Authentication authentication;
+    @Mock private SecurityContext securityContext;
+
+    @InjectMocks
+    private ManageCartUseCaseImpl manageCartUseCase;
+
+    private Product product;
+    private ShoppingCart cart;
+
+    @BeforeEach
+    void setUp() {
+        product = Product.builder()
+                .id(1L)
+                .name("Paracetamol")
+                .price(new BigDecimal("100.00"))
+                .stock(10)
+                .build();
+
+        CartItem line = CartItem.builder()
+                .cartId(5L)
+                .productId(1L)
+                .quantity(2)
+                .unitPrice(new BigDecimal("100.00"))
+                .product(product)
+                .build();
+        cart = ShoppingCart.builder()
+                .id(5L)
+                .uuid(CART_UUID)
+                .customerId(1L)
+                .version(3)
+                .status(ShoppingCart.CartStatus.ACTIVE)
+                .totalAmount(new BigDecimal("200.00"))
+                .totalItems(2)
+                .items(new ArrayList<>(List.of(line)))
+                .build();
+    }
+
+    private void mockAuthenticatedUser(Long customerId, String email) {
+        User userPrincipal = new User(email, "", Collections.emptyList());
+        Customer mockCustomer = Customer.builder().id(customerId).email(email).build();
+
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.isAuthenticated()).thenReturn(true);
+        when(authentication.getPrincipal()).thenReturn(userPrincipal);
+        when(customerRepository.findByEmail(email)).thenReturn(Optional.of(mockCustomer));
+        SecurityContextHolder.setContext(securityContext);
+    }
+
+    private void mockAnonymousUser() {
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.isAuthenticated()).thenReturn(false);
+        SecurityContextHolder.setContext(securityContext);
+    }
+
+    private static UpdateItemQuantityRequest quantity(int quantity) {
+        UpdateItemQuantityRequest request = new UpdateItemQuantityRequest();
+        request.setQuantity(quantity);
+        return request;
+    }
+
+    private static ShoppingCart versionOnly(long version) {
+        return ShoppingCart.builder().id(5L).uuid(CART_UUID).version(version).build();
+    }
+
+    @Test
+    void whenGetCart_withMatchingETag_shouldReturnNotModifiedWithoutLoadingItems() {
+        mockAuthenticatedUser(1L, "test@user.com");
+        when(shoppingCartRepository.findActiveVersionByCustomerId(1L)).thenReturn(Optional.of(versionOnly(3)));
+
+        CartDetailResponse detail = manageCartUseCase.getCart(request, "\"" + CART_UUID + "-3\"");
+
+        assertTrue(detail.isNotModified());
+        assertEquals("\"" + CART_UUID + "-3\"", detail.getEtag());
+        assertNull(detail.getCart());
+        verify(shoppingCartRepository, never()).findByIdWithItems(any());
+        verifyNoInteractions(cartApiMapper);
+    }
+
+    @Test
+    void whenGetCart_withStaleETag_shouldLoadAndMapCart() {
+        mockAuthenticatedUser(1L, "test@user.com");
+        when(shoppingCartRepository.findActiveVersionByCustomerId(1L)).thenReturn(Optional.of(versionOnly(3)));
+        when(shoppingCartRepository.findByIdWithItems(5L)).thenReturn(Optional.of(cart));
+        when(cartApiMapper.toResponse(cart)).thenReturn(CartResponse.builder().totalItems(2).build());
+
+        CartDetailResponse detail = manageCartUseCase.getCart(request, "\"" + CART_UUID + "-2\"");
+
+        assertFalse(detail.isNotModified());
+        assertEquals(2, detail.getCart().getTotalItems());
+        assertEquals("\"" + CART_UUID + "-3\"", detail.getEtag());
+    }
+
+    @Test
+    void whenGetCart_withoutCart_shouldReturnEmptyCartWithoutETag() {
+        mockAnonymousUser();
+        when(request.getHeader("X-Session-ID")).thenReturn("session-1");
+        when(shoppingCartRepository.findActiveVersionBySessionId("session-1")).thenReturn(Optional.empty());
+
+        CartDetailResponse detail = manageCartUseCase.getCart(request, null);
+
+        assertEquals(0, detail.getCart().getTotalItems());
+        assertTrue(detail.getCart().getItems().isEmpty());
+        assertNull(detail.getEtag());
+    }
+
+    @Test
+    void whenGetCart_withPendingToken_shouldRenderTokenLines() {
+        mockAnonymousUser();
+        when(request.getHeader("X-Session-ID")).thenReturn("payload.signature");
+        when(cartTokenPort.isToken("payload.signature")).thenReturn(true);
+        when(cartTokenPort.verify("payload.signature"))
+                .thenReturn(Optional.of(new CartToken("anon", Map.of(1L, 3), Instant.now())));
+        when(productRepository.findAllActiveByIds(any())).thenReturn(List.of(product));
+        when(cartApiMapper.toResponse(any(ShoppingCart.class))).thenAnswer(inv -> {
+            ShoppingCart pending = inv.getArgument(0);
+            return CartResponse.builder().totalItems(pending.getTotalItems()).totalAmount(pending.getTotalAmount()).build();
+        });
+
+        CartDetailResponse detail = manageCartUseCase.getCart(request, null);
+
+        assertEquals(3, detail.getCart().getTotalItems());
+        assertEquals(0, new BigDecimal("300.00").compareTo(detail.getCart().getTotalAmount()));
+        assertEquals("payload.signature", detail.getCart().getSessionId());
+        assertNull(detail.getEtag());
+        verifyNoInteractions(shoppingCartRepository);
+    }
+
+    @Test
+    void whenUpdateQuantity_shouldApplyDeltaGuardedByVersion() {
+        mockAuthenticatedUser(1L, "test@user.com");
+        when(shoppingCartRepository.findActiveByCustomerId(1L)).thenReturn(Optional.of(cart));
+        when(productRepository.findByIdAndIsActiveTrue(1L)).thenReturn(Optional.of(product));
+        when(cartItemRepository.updateQuantity(5L, 1L, 5)).thenReturn(Optional.of(CartItem.builder()
+                .cartId(5L).productId(1L).quantity(5).unitPrice(new BigDecimal("100.00")).build()));
+        when(shoppingCartRepository.applyTotalsDeltaIfVersion(eq(cart), any(BigDecimal.class), eq(3), eq(3L)))
+                .thenAnswer(inv -> {
+                    cart.setVersion(4);
+                    return Optional.of(cart);
+                });
+        when(cartApiMapper.toResponse(cart)).thenReturn(CartResponse.builder().totalItems(5).build());
+
+        CartDetailResponse detail = manageCartUseCase.updateItemQuantity(1L, quantity(5), "\"" + CART_UUID + "-3\"", request);
+
+        assertEquals(5, detail.getCart().getTotalItems());
+        assertEquals("\"" + CART_UUID + "-4\"", detail.getEtag());
+        assertEquals(5, cart.getItems().get(0).getQuantity());
+        verify(shoppingCartRepository).applyTotalsDeltaIfVersion(eq(cart),
+                argThat(amount -> amount.compareTo(new BigDecimal("300.00")) == 0), eq(3), eq(3L));
+    }
+
+    @Test
+    void whenUpdateQuantity_withStaleIfMatch_shouldFailBeforeWriting() {
+        mockAuthenticatedUser(1L, "test@user.com");
+        when(shoppingCartRepository.findActiveByCustomerId(1L)).thenReturn(Optional.of(cart));
+
+        assertThrows(CartVersionConflictException.class,
+                () -> manageCartUseCase.updateItemQuantity(1L, quantity(5), "\"" + CART_UUID + "-2\"", request));
+
+        verifyNoInteractions(cartItemRepository);
+    }
+
+    @Test
+    void whenUpdateQuantity_andAnotherWriterBumpedVersion_shouldFailWithoutTouchingLine() {
+        mockAuthenticatedUser(1L, "test@user.com");
+        when(shoppingCartRepository.findActiveByCustomerId(1L)).thenReturn(Optional.of(cart));
+        when(shoppingCartRepository.applyTotalsDeltaIfVersion(eq(cart), any(BigDecimal.class), eq(-1), eq(3L)))
+                .thenReturn(Optional.empty());
+
+        assertThrows(CartVersionConflictException.class,
+                () -> manageCartUseCase.updateItemQuantity(1L, quantity(1), null, request));
+
+        verifyNoInteractions(productRepository, cartItemRepository);
+        assertEquals(2, cart.getItems().get(0).getQuantity());
+    }
+
+    @Test
+    void whenUpdateQuantity_andLineWasRemovedConcurrently_shouldRevertTotalsAndFailWithConflict() {
+        mockAuthenticatedUser(1L, "test@user.com");
+        when(shoppingCartRepository.findActiveByCustomerId(1L)).thenReturn(Optional.of(cart));
+        when(shoppingCartRepository.applyTotalsDeltaIfVersion(eq(cart), any(BigDecimal.class), eq(-1), eq(3L)))
+                .thenReturn(Optional.of(cart));
+        when(cartItemRepository.updateQuantity(5L, 1L, 1)).thenReturn(Optional.empty());
+
+        assertThrows(CartVersionConflictException.class,
+                () -> manageCartUseCase.updateItemQuantity(1L, quantity(1), null, request));
+
+        verify(shoppingCartRepository).applyTotalsDelta(eq(cart),
+                argThat(amount -> amount.compareTo(new BigDecimal("100.00")) == 0), eq(1));
+    }
+
+    @Test
+    void whenUpdateQuantity_aboveStock_shouldThrowInsufficientStock() {
+        mockAuthenticatedUser(1L, "test@user.com");
+        when(shoppingCartRepository.findActiveByCustomerId(1L)).thenReturn(Optional.of(cart));
+        when(productRepository.findByIdAndIsActiveTrue(1L)).thenReturn(Optional.of(product));
+
+        assertThrows(InsufficientStockException.class,
+                () -> manageCartUseCase.updateItemQuantity(1L, quantity(11), null, request));
+
+        verifyNoInteractions(cartItemRepository);
+    }
+
+    @Test
+    void whenUpdateQuantity_forProductNotInCart_shouldThrowNotFound() {
+        mockAuthenticatedUser(1L, "test@user.com");
+        when(shoppingCartRepository.findActiveByCustomerId(1L)).thenReturn(Optional.of(cart));
+
+        assertThrows(CartNotFoundException.class,
+                () -> manageCartUseCase.updateItemQuantity(9L, quantity(1), null, request));
+    }
+
+    @Test
+    void whenRemoveItem_shouldDeleteLineAndSubtractTotals() {
+        mockAnonymousUser();
+        when(request.getHeader("X-Session-ID")).thenReturn("session-1");
+        when(shoppingCartRepository.findActiveBySessionId("session-1")).thenReturn(Optional.of(cart));
+        when(cartItemRepository.delete(5L, 1L)).thenReturn(true);
+        when(shoppingCartRepository.applyTotalsDeltaIfVersion(eq(cart), any(BigDecimal.class), eq(-2), eq(3L)))
+                .thenReturn(Optional.of(cart));
+        when(cartApiMapper.toResponse(cart)).thenReturn(CartResponse.builder().totalItems(0).build());
+
+        manageCartUseCase.removeItem(1L, null, request);
+
+        assertTrue(cart.getItems().isEmpty());
+        verify(shoppingCartRepository).applyTotalsDeltaIfVersion(eq(cart),
+                argThat(amount -> amount.compareTo(new BigDecimal("-200.00")) == 0), eq(-2), eq(3L));
+    }
+
+    @Test
+    void whenRemoveItem_alreadyDeletedConcurrently_shouldFailWithConflict() {
+        mockAuthenticatedUser(1L, "test@user.com");
+        when(shoppingCartRepository.findActiveByCustomerId(1L)).thenReturn(Optional.of(cart));
+        when(shoppingCartRepository.applyTotalsDeltaIfVersion(eq(cart), any(BigDecimal.class), eq(-2), eq(3L)))
+                .thenReturn(Optional.of(cart));
+        when(cartItemRepository.delete(5L, 1L)).thenReturn(false);
+
+        assertThrows(CartVersionConflictException.class, () -> manageCartUseCase.removeItem(1L, null, request));
+
+        verify(shoppingCartRepository).applyTotalsDelta(eq(cart),
+                argThat(amount -> amount.compareTo(new BigDecimal("200.00")) == 0), eq(2));
+    }
+
+    @Test
+    void whenRemoveItem_andAnotherWriterBumpedVersion_shouldFailWithoutDeletingLine() {
+        mockAuthenticatedUser(1L, "test@user.com");
+        when(shoppingCartRepository.findActiveByCustomerId(1L)).thenReturn(Optional.of(cart));
+        when(shoppingCartRepository.applyTotalsDeltaIfVersion(eq(cart), any(BigDecimal.class), eq(-2), eq(3L)))
+                .thenReturn(Optional.empty());
+
+        assertThrows(CartVersionConflictException.class, () -> manageCartUseCase.removeItem(1L, null, request));
+
+        verifyNoInteractions(cartItemRepository);
+    }
+
+    @Test
+    void whenRemoveItem_fromPendingToken_shouldReissueTokenWithoutLine() {
+        mockAnonymousUser();
+        when(request.getHeader("X-Session-ID")).thenReturn("payload.signature");
+        when(cartTokenPort.isToken("payload.signature")).thenReturn(true);
+        when(cartTokenPort.verify("payload.signature"))
+                .thenReturn(Optional.of(new CartToken("anon", Map.of(1L, 3), Instant.now())));
+        when(cartTokenPort.issue("anon", Map.of())).thenReturn("new.token");
+        when(cartApiMapper.toResponse(any(ShoppingCart.class))).thenReturn(CartResponse.builder().totalItems(0).build());
+
+        CartDetailResponse detail = manageCartUseCase.removeItem(1L, null, request);
+
+        assertEquals("new.token", detail.getCart().getSessionId());
+        verifyNoInteractions(shoppingCartRepository, cartItemRepository, productRepository);
+    }
+}
@@ -0,0 +1,71 @@
+package com.farmatodo.ecommerce.application.usecase;
+
+import com.farmatodo.ecommerce.application.dto.SearchStatResponse;
+import com.farmatodo.ecommerce.domain.exception.SearchQueryException;
+import com.farmatodo.ecommerce.domain.model.SearchRollup;
+import com.farmatodo.ecommerce.domain.port.out.SearchRollupRepositoryPort;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchAnalyticsUseCaseImplTest {
+
+    private static final OffsetDateTime FROM = OffsetDateTime.of(2025, 11, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    private static final OffsetDateTime TO = FROM.plusDays(1);
+
+    @Mock
+    private SearchRollupRepositoryPort searchRollupRepository;
+
+    @InjectMocks
+    private SearchAnalyticsUseCaseImpl searchAnalyticsUseCase;
+
+    @Test
+    void whenGetTopQueries_shouldMapRollupsWithAverageResults() {
+        when(searchRollupRepository.findTopQueries(FROM, TO, 10)).thenReturn(List.of(
+                SearchRollup.builder().normalizedQuery("vitamina c").searchCount(4).zeroResultCount(1).totalResults(30).build()));
+
+        List<SearchStatResponse> stats = searchAnalyticsUseCase.getTopQueries(FROM, TO, 10);
+
+        assertEquals(1, stats.size());
+        assertEquals("vitamina c", stats.get(0).getQuery());
+        assertEquals(4, stats.get(0).getSearches());
+        assertEquals(7.5, stats.get(0).getAverageResults());
+    }
+
+    @Test
+    void whenGetZeroResultQueries_withoutRange_shouldDefaultToLastDayAndClampLimit() {
+        searchAnalyticsUseCase.getZeroResultQueries(null, null, 10_000);
+
+        verify(searchRollupRepository).findZeroResultQueries(any(OffsetDateTime.class), any(OffsetDateTime.class), eq(500));
+    }
+
+    @Test
+    void whenGetHourlyVolume_shouldExposeBucketHour() {
+        when(searchRollupRepository.countByHour(FROM, TO)).thenReturn(List.of(
+                SearchRollup.builder().bucketStart(FROM).searchCount(0).build()));
+
+        List<SearchStatResponse> stats = searchAnalyticsUseCase.getHourlyVolume(FROM, TO);
+
+        assertEquals(FROM, stats.get(0).getHour());
+        assertEquals(0, stats.get(0).getAverageResults());
+    }
+
+    @Test
+    void whenRangeIsInverted_shouldThrowSearchQueryException() {
+        assertThrows(SearchQueryException.class, () -> searchAnalyticsUseCase.getTopQueries(TO, FROM, 10));
+        verify(searchRollupRepository, never()).findTopQueries(any(), any(), anyInt());
+    }
+}
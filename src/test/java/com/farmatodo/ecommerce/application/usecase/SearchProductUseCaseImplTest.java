@@ -1,13 +1,17 @@
 package com.farmatodo.ecommerce.application.usecase;
 
+import com.farmatodo.ecommerce.application.dto.FacetedSearchResponse;
+import com.farmatodo.ecommerce.application.dto.ProductPageResponse;
 import com.farmatodo.ecommerce.application.dto.ProductResponse;
 import com.farmatodo.ecommerce.application.event.ProductSearchEvent;
 import com.farmatodo.ecommerce.application.mapper.ProductApiMapper;
 import com.farmatodo.ecommerce.domain.exception.SearchQueryException;
 import com.farmatodo.ecommerce.domain.model.Customer;
+import com.farmatodo.ecommerce.domain.model.FacetedProducts;
 import com.farmatodo.ecommerce.domain.model.Product;
 import com.farmatodo.ecommerce.domain.port.out.CustomerRepositoryPort;
 import com.farmatodo.ecommerce.domain.port.out.ProductRepositoryPort;
+import com.farmatodo.ecommerce.domain.port.out.ProductSearchCachePort;
 import com.farmatodo.ecommerce.domain.port.out.SystemConfigRepositoryPort;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.Test;
@@ -21,9 +25,13 @@ import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -44,6 +52,8 @@ class SearchProductUseCaseImplTest {
     private ApplicationEventPublisher eventPublisher;
     @Mock
     private CustomerRepositoryPort customerRepositoryPort;
+    @Mock
+    private ProductSearchCachePort productSearchCache;
 
     @InjectMocks
     private SearchProductUseCaseImpl searchProductUseCase;
@@ -55,6 +65,11 @@ class SearchProductUseCaseImplTest {
     @Mock
     private SecurityContext securityContext;
 
+    private void mockCacheMiss() {
+        when(productSearchCache.get(anyString(), anyInt(), any()))
+                .thenAnswer(inv -> inv.getArgument(2, Supplier.class).get());
+    }
+
     @Test
     void whenSearch_withValidQuery_andAnonymousUser_shouldReturnProductsAndLogEvent() {
         String query = "paracetamol";
@@ -63,6 +78,7 @@ class SearchProductUseCaseImplTest {
         List<ProductResponse> mockResponses = Collections.singletonList(ProductResponse.builder().sku("123").name("Paracetamol").build());
 
         when(systemConfigRepository.getValueAsInt("product.min.stock.visibility", 5)).thenReturn(minStock);
+        mockCacheMiss();
         when(productRepository.findByNameContainingIgnoreCaseAndStockGreaterThan(query, minStock))
                 .thenReturn(mockProducts);
         when(productApiMapper.toResponseList(mockProducts)).thenReturn(mockResponses);
@@ -86,6 +102,7 @@ class SearchProductUseCaseImplTest {
         User userPrincipal = new User("test@user.com", "", Collections.emptyList());
         Customer mockCustomer = Customer.builder().id(42L).email("test@user.com").build();
         when(systemConfigRepository.getValueAsInt(anyString(), anyInt())).thenReturn(5);
+        mockCacheMiss();
         when(productRepository.findByNameContainingIgnoreCaseAndStockGreaterThan(anyString(), anyInt()))
                 .thenReturn(Collections.emptyList());
         when(securityContext.getAuthentication()).thenReturn(authentication);
@@ -100,6 +117,23 @@ class SearchProductUseCaseImplTest {
         ));
     }
 
+    @Test
+    void whenSearch_withCachedResults_shouldNotQueryRepositoryButStillLogEvent() {
+        List<Product> cached = Collections.singletonList(Product.builder().id(1L).name("Vitamina C").build());
+        List<ProductResponse> responses = Collections.singletonList(ProductResponse.builder().name("Vitamina C").build());
+        when(systemConfigRepository.getValueAsInt("product.min.stock.visibility", 5)).thenReturn(5);
+        when(productSearchCache.get(eq("vitamina c"), eq(5), any())).thenReturn(cached);
+        when(productApiMapper.toResponseList(cached)).thenReturn(responses);
+        when(securityContext.getAuthentication()).thenReturn(null);
+        SecurityContextHolder.setContext(securityContext);
+
+        List<ProductResponse> results = searchProductUseCase.searchProducts("  Vitamina   C ", request);
+
+        assertSame(responses, results);
+        verify(productRepository, never()).findByNameContainingIgnoreCaseAndStockGreaterThan(anyString(), anyInt());
+        verify(eventPublisher, times(1)).publishEvent(any(ProductSearchEvent.class));
+    }
+
     @Test
     void whenSearch_withQueryTooShort_shouldThrowSearchQueryException() {
         String query = "pa";
@@ -109,4 +143,122 @@ class SearchProductUseCaseImplTest {
         assertEquals("La consulta de búsqueda debe tener al menos 3 caracteres.", exception.getMessage());
         verify(productRepository, never()).findByNameContainingIgnoreCaseAndStockGreaterThan(anyString(), anyInt());
     }
-}
\ No newline at end of file
+
+    @Test
+    void whenSearch_withAccentsAndMixedCase_shouldQueryFoldedName() {
+        when(systemConfigRepository.getValueAsInt("product.min.stock.visibility", 5)).thenReturn(5);
+        mockCacheMiss();
+        when(productRepository.findByNameContainingIgnoreCaseAndStockGreaterThan("acido folico", 5))
+                .thenReturn(Collections.emptyList());
+        when(productApiMapper.toResponseList(Collections.emptyList())).thenReturn(Collections.emptyList());
+
+        searchProductUseCase.searchProducts("  ÁCIDO   Fólico ", request);
+
+        verify(productSearchCache).get(eq("acido folico"), eq(5), any());
+        verify(productRepository).findByNameContainingIgnoreCaseAndStockGreaterThan("acido folico", 5);
+    }
+
+    @Test
+    void whenSearchPage_withMoreResults_shouldReturnNextCursorAndLogEvent() {
+        List<Product> fetched = List.of(
+                Product.builder().id(7L).name("Vitamina A").build(),
+                Product.builder().id(3L).name("Vitamina B").build(),
+                Product.builder().id(9L).name("Vitamina C").build());
+        List<ProductResponse> responses = List.of(
+                ProductResponse.builder().name("Vitamina A").build(),
+                ProductResponse.builder().name("Vitamina B").build());
+        when(systemConfigRepository.getValueAsInt("product.min.stock.visibility", 5)).thenReturn(5);
+        when(productRepository.findPageByNameContaining("vitamina", 5, null, null, 3)).thenReturn(fetched);
+        when(productApiMapper.toResponseList(fetched.subList(0, 2))).thenReturn(responses);
+        when(securityContext.getAuthentication()).thenReturn(null);
+        SecurityContextHolder.setContext(securityContext);
+
+        ProductPageResponse page = searchProductUseCase.searchProductsPage("Vitamina", 2, null, request);
+
+        assertEquals(responses, page.getItems());
+        assertNotNull(page.getNextCursor());
+        verify(eventPublisher, times(1)).publishEvent(any(ProductSearchEvent.class));
+
+        when(productRepository.findPageByNameContaining("vitamina", 5, "Vitamina B", 3L, 3))
+                .thenReturn(List.of(fetched.get(2)));
+        ProductPageResponse next = searchProductUseCase.searchProductsPage("Vitamina", 2, page.getNextCursor(), request);
+
+        assertNull(next.getNextCursor());
+        verify(eventPublisher, times(1)).publishEvent(any(ProductSearchEvent.class));
+    }
+
+    @Test
+    void whenSearchPage_withLimitOutOfRange_shouldClampLimit() {
+        when(systemConfigRepository.getValueAsInt(anyString(), anyInt())).thenReturn(5);
+        when(securityContext.getAuthentication()).thenReturn(null);
+        SecurityContextHolder.setContext(securityContext);
+
+        searchProductUseCase.searchProductsPage("vitamina", 5000, null, request);
+
+        verify(productRepository).findPageByNameContaining("vitamina", 5, null, null, 101);
+    }
+
+    @Test
+    void whenSearchPage_withInvalidCursor_shouldThrowSearchQueryException() {
+        Exception exception = assertThrows(SearchQueryException.class,
+                () -> searchProductUseCase.searchProductsPage("vitamina", 10, "no-es-un-cursor", request));
+        assertEquals("El cursor de paginación no es válido.", exception.getMessage());
+        verify(productRepository, never()).findPageByNameContaining(anyString(), anyInt(), any(), any(), anyInt());
+    }
+
+    @Test
+    void whenStreamProducts_shouldMapEachRowToConsumer() {
+        Product product = Product.builder().id(1L).name("Vitamina C").build();
+        ProductResponse response = ProductResponse.builder().name("Vitamina C").build();
+        when(systemConfigRepository.getValueAsInt(anyString(), anyInt())).thenReturn(5);
+        when(productApiMapper.toResponse(product)).thenReturn(response);
+        doAnswer(inv -> {
+            inv.<Consumer<Product>>getArgument(2).accept(product);
+            return null;
+        }).when(productRepository).forEachByNameContaining(eq("vitamina"), eq(5), any());
+
+        List<ProductResponse> streamed = new ArrayList<>();
+        searchProductUseCase.streamProducts("Vitamina", streamed::add);
+
+        assertEquals(List.of(response), streamed);
+    }
+
+    @Test
+    void whenSearchRanked_shouldDelegateTopKToRepositoryAndLogEvent() {
+        List<Product> ranked = List.of(Product.builder().id(2L).name("Shampoo Anticaspa").build());
+        List<ProductResponse> responses = List.of(ProductResponse.builder().name("Shampoo Anticaspa").build());
+        when(systemConfigRepository.getValueAsInt("product.min.stock.visibility", 5)).thenReturn(5);
+        when(productRepository.searchRanked("head shoulders", 5, 10)).thenReturn(ranked);
+        when(productApiMapper.toResponseList(ranked)).thenReturn(responses);
+        when(securityContext.getAuthentication()).thenReturn(null);
+        SecurityContextHolder.setContext(securityContext);
+
+        List<ProductResponse> results = searchProductUseCase.searchProductsRanked(" head shoulders ", 10, request);
+
+        assertEquals(responses, results);
+        verify(eventPublisher, times(1)).publishEvent(any(ProductSearchEvent.class));
+    }
+
+    @Test
+    void whenSearchFaceted_shouldReturnItemsWithFacetCounts() {
+        List<Product> products = List.of(Product.builder().id(1L).name("Vitamina C").build());
+        FacetedProducts faceted = FacetedProducts.builder()
+                .products(products)
+                .categoryCounts(Map.of("Vitaminas", 1L))
+                .brandCounts(Map.of("Genfar", 1L))
+                .build();
+        when(systemConfigRepository.getValueAsInt("product.min.stock.visibility", 5)).thenReturn(5);
+        when(productRepository.searchFaceted("vitamina", 5, null, "Genfar")).thenReturn(faceted);
+        when(productApiMapper.toResponseList(products))
+                .thenReturn(List.of(ProductResponse.builder().name("Vitamina C").build()));
+        when(securityContext.getAuthentication()).thenReturn(null);
+        SecurityContextHolder.setContext(securityContext);
+
+        FacetedSearchResponse response = searchProductUseCase.searchProductsFaceted("Vitamina", " ", "Genfar", request);
+
+        assertEquals(1, response.getItems().size());
+        assertEquals(Map.of("Vitaminas", 1L), response.getCategories());
+        assertEquals(Map.of("Genfar", 1L), response.getBrands());
+        verify(eventPublisher, times(1)).publishEvent(any(ProductSearchEvent.class));
+    }
+}
@@ -0,0 +1,53 @@
+package com.farmatodo.ecommerce.application.usecase;
+
+import com.farmatodo.ecommerce.application.dto.ProductSuggestionResponse;
+import com.farmatodo.ecommerce.application.mapper.ProductApiMapper;
+import com.farmatodo.ecommerce.domain.model.ProductSuggestion;
+import com.farmatodo.ecommerce.domain.port.out.ProductSuggestionPort;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SuggestProductUseCaseImplTest {
+
+    @Mock
+    private ProductSuggestionPort productSuggestionPort;
+    @Mock
+    private ProductApiMapper productApiMapper;
+
+    @InjectMocks
+    private SuggestProductUseCaseImpl suggestProductUseCase;
+
+    @Test
+    void whenSuggest_shouldClampLimitAndMapSuggestions() {
+        List<ProductSuggestion> suggestions = List.of(ProductSuggestion.builder().name("Vitamina C").build());
+        List<ProductSuggestionResponse> responses = List.of(ProductSuggestionResponse.builder().name("Vitamina C").build());
+        when(productSuggestionPort.suggest("vit", 10)).thenReturn(suggestions);
+        when(productApiMapper.toSuggestionResponseList(suggestions)).thenReturn(responses);
+
+        assertEquals(responses, suggestProductUseCase.suggest("vit", 50));
+    }
+
+    @Test
+    void whenSuggest_withoutLimit_shouldUseDefault() {
+        suggestProductUseCase.suggest("vit", null);
+
+        verify(productSuggestionPort).suggest("vit", 8);
+    }
+
+    @Test
+    void whenSuggest_withBlankPrefix_shouldNotQueryIndex() {
+        assertTrue(suggestProductUseCase.suggest(" ", 5).isEmpty());
+        verify(productSuggestionPort, never()).suggest(anyString(), anyInt());
+    }
+}
@@ -0,0 +1,66 @@
+package com.farmatodo.ecommerce.application.usecase;
+
+import com.farmatodo.ecommerce.domain.port.out.StockShardRepositoryPort;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SyncShardedStockUseCaseImplTest {
+
+    @Mock
+    private StockShardRepositoryPort stockShardRepository;
+
+    @InjectMocks
+    private SyncShardedStockUseCaseImpl syncUseCase;
+
+    @Test
+    void whenSkusAreFlagged_shouldShardThemAndUnshardTheRestBeforeSyncingTotals() {
+        ReflectionTestUtils.setField(syncUseCase, "skus", List.of(" SKU-1", "SKU-2 ", ""));
+        ReflectionTestUtils.setField(syncUseCase, "buckets", 16);
+        when(stockShardRepository.unshardAllExcept(Set.of("SKU-1", "SKU-2"))).thenReturn(1);
+        when(stockShardRepository.shard(anyString(), eq(16))).thenReturn(true, false);
+        when(stockShardRepository.syncProductStock()).thenReturn(2);
+
+        syncUseCase.syncShardedStock();
+
+        var order = inOrder(stockShardRepository);
+        order.verify(stockShardRepository).unshardAllExcept(Set.of("SKU-1", "SKU-2"));
+        order.verify(stockShardRepository, times(2)).shard(anyString(), eq(16));
+        order.verify(stockShardRepository).syncProductStock();
+    }
+
+    @Test
+    void whenNoSkusAreFlaggedButSomeStillSharded_shouldOnlyUnshardAndSync() {
+        ReflectionTestUtils.setField(syncUseCase, "skus", List.of());
+        ReflectionTestUtils.setField(syncUseCase, "buckets", 8);
+        when(stockShardRepository.hasShardedProducts()).thenReturn(true);
+
+        syncUseCase.syncShardedStock();
+
+        verify(stockShardRepository).unshardAllExcept(Set.of());
+        verify(stockShardRepository, never()).shard(anyString(), anyInt());
+        verify(stockShardRepository).syncProductStock();
+    }
+
+    @Test
+    void whenShardingIsOffAndNothingIsSharded_shouldSkipTheJob() {
+        ReflectionTestUtils.setField(syncUseCase, "skus", List.of(""));
+        ReflectionTestUtils.setField(syncUseCase, "buckets", 8);
+        when(stockShardRepository.hasShardedProducts()).thenReturn(false);
+
+        syncUseCase.syncShardedStock();
+
+        verify(stockShardRepository).hasShardedProducts();
+        verifyNoMoreInteractions(stockShardRepository);
+    }
+}
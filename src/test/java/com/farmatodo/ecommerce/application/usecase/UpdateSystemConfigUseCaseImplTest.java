@@ -3,6 +3,7 @@ package com.farmatodo.ecommerce.application.usecase;
 import com.farmatodo.ecommerce.application.dto.SystemConfigRequest;
 import com.farmatodo.ecommerce.domain.exception.InvalidConfigValueException;
 import com.farmatodo.ecommerce.domain.model.SystemConfig;
+import com.farmatodo.ecommerce.domain.port.out.ProductSearchCachePort;
 import com.farmatodo.ecommerce.domain.port.out.SystemConfigRepositoryPort;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,6 +21,8 @@ class UpdateSystemConfigUseCaseImplTest {
 
     @Mock
     private SystemConfigRepositoryPort systemConfigRepository;
+    @Mock
+    private ProductSearchCachePort productSearchCache;
 
     @InjectMocks
     private UpdateSystemConfigUseCaseImpl updateSystemConfigUseCase;
@@ -57,6 +60,7 @@ class UpdateSystemConfigUseCaseImplTest {
         SystemConfig result = updateSystemConfigUseCase.updateConfig(request);
         assertNotNull(result);
         verify(systemConfigRepository, times(1)).updateValue(key, "5");
+        verify(productSearchCache, never()).invalidateAll();
     }
 
     @Test
@@ -67,6 +71,7 @@ class UpdateSystemConfigUseCaseImplTest {
         SystemConfig result = updateSystemConfigUseCase.updateConfig(request);
         assertNotNull(result);
         verify(systemConfigRepository, times(1)).updateValue(key, "0");
+        verify(productSearchCache, times(1)).invalidateAll();
     }
     @Test
     void whenUpdateConfig_withUnauthorizedKey_shouldThrowInvalidConfigValueException() {
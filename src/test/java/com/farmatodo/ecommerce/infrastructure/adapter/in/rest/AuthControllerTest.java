@@ -159,7 +159,7 @@ class AuthControllerTest {
         request.setEmail("test@example.com");
         request.setPassword("password123");
         AuthResponse authResponse = AuthResponse.builder().token("mock-jwt-token").build();
-        when(loginCustomerUseCase.login(any(LoginRequest.class))).thenReturn(authResponse);
+        when(loginCustomerUseCase.login(any(LoginRequest.class), any())).thenReturn(authResponse);
         mockMvc.perform(post("/auth/login")
                         .with(csrf())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -175,7 +175,7 @@ class AuthControllerTest {
         request.setEmail("test@example.com");
         request.setPassword("wrongpassword");
 
-        when(loginCustomerUseCase.login(any(LoginRequest.class)))
+        when(loginCustomerUseCase.login(any(LoginRequest.class), any()))
                 .thenThrow(new BadCredentialsException("Usuario o contraseña inválido."));
 
         mockMvc.perform(post("/auth/login")
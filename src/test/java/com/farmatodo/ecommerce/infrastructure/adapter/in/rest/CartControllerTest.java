@@ -1,11 +1,16 @@
 package com.farmatodo.ecommerce.infrastructure.adapter.in.rest;
 
 import com.farmatodo.ecommerce.application.dto.AddItemRequest;
+import com.farmatodo.ecommerce.application.dto.AddItemsBatchRequest;
+import com.farmatodo.ecommerce.application.dto.CartDetailResponse;
 import com.farmatodo.ecommerce.application.dto.CartResponse;
+import com.farmatodo.ecommerce.application.dto.UpdateItemQuantityRequest;
+import com.farmatodo.ecommerce.domain.exception.CartVersionConflictException;
 import com.farmatodo.ecommerce.domain.exception.InsufficientStockException;
 import com.farmatodo.ecommerce.domain.exception.ProductNotFoundException;
 import com.farmatodo.ecommerce.domain.model.ShoppingCart;
 import com.farmatodo.ecommerce.domain.port.in.AddProductToCartUseCase;
+import com.farmatodo.ecommerce.domain.port.in.ManageCartUseCase;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,10 +22,17 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.math.BigDecimal;
 import java.util.Collections;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 class CartControllerTest {
@@ -29,12 +41,14 @@ class CartControllerTest {
     private ObjectMapper objectMapper = new ObjectMapper();
 
     private AddProductToCartUseCase addProductToCartUseCase;
+    private ManageCartUseCase manageCartUseCase;
 
     @BeforeEach
     void setUp() {
         addProductToCartUseCase = Mockito.mock(AddProductToCartUseCase.class);
+        manageCartUseCase = Mockito.mock(ManageCartUseCase.class);
 
-        CartController controller = new CartController(addProductToCartUseCase);
+        CartController controller = new CartController(addProductToCartUseCase, manageCartUseCase);
 
         mockMvc = MockMvcBuilders
                 .standaloneSetup(controller)
@@ -121,4 +135,105 @@ class CartControllerTest {
                 .andExpect(jsonPath("$.code").value(404))
                 .andExpect(jsonPath("$.error").value("Producto 999 no encontrado."));
     }
+
+    @Test
+    void whenAddItemsBatch_shouldReturnUpdatedCart() throws Exception {
+        AddItemRequest first = new AddItemRequest();
+        first.setProductId(1L);
+        first.setQuantity(2);
+        AddItemRequest second = new AddItemRequest();
+        second.setProductId(2L);
+        second.setQuantity(1);
+        AddItemsBatchRequest request = new AddItemsBatchRequest();
+        request.setItems(List.of(first, second));
+
+        when(addProductToCartUseCase.addProductsToCart(any(AddItemsBatchRequest.class), any(HttpServletRequest.class)))
+                .thenReturn(CartResponse.builder().totalItems(3).build());
+
+        mockMvc.perform(post("/cart/items/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.totalItems").value(3));
+    }
+
+    @Test
+    void whenAddItemsBatch_withEmptyList_shouldReturnBadRequest() throws Exception {
+        AddItemsBatchRequest request = new AddItemsBatchRequest();
+        request.setItems(List.of());
+
+        mockMvc.perform(post("/cart/items/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(addProductToCartUseCase);
+    }
+
+    @Test
+    void whenGetCart_shouldReturnCartWithETag() throws Exception {
+        when(manageCartUseCase.getCart(any(HttpServletRequest.class), isNull()))
+                .thenReturn(CartDetailResponse.builder()
+                        .cart(CartResponse.builder().totalItems(2).build())
+                        .etag("\"abc-3\"")
+                        .build());
+
+        mockMvc.perform(get("/cart"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"abc-3\""))
+                .andExpect(jsonPath("$.data.totalItems").value(2));
+    }
+
+    @Test
+    void whenGetCart_withMatchingETag_shouldReturnNotModified() throws Exception {
+        when(manageCartUseCase.getCart(any(HttpServletRequest.class), eq("\"abc-3\"")))
+                .thenReturn(CartDetailResponse.builder().etag("\"abc-3\"").notModified(true).build());
+
+        mockMvc.perform(get("/cart").header("If-None-Match", "\"abc-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"abc-3\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void whenUpdateItemQuantity_shouldReturnCartWithNewETag() throws Exception {
+        UpdateItemQuantityRequest request = new UpdateItemQuantityRequest();
+        request.setQuantity(4);
+
+        when(manageCartUseCase.updateItemQuantity(eq(1L), any(UpdateItemQuantityRequest.class), eq("\"abc-3\""), any(HttpServletRequest.class)))
+                .thenReturn(CartDetailResponse.builder()
+                        .cart(CartResponse.builder().totalItems(4).build())
+                        .etag("\"abc-4\"")
+                        .build());
+
+        mockMvc.perform(put("/cart/items/1")
+                        .header("If-Match", "\"abc-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"abc-4\""))
+                .andExpect(jsonPath("$.data.totalItems").value(4));
+    }
+
+    @Test
+    void whenUpdateItemQuantity_withZero_shouldReturnBadRequest() throws Exception {
+        UpdateItemQuantityRequest request = new UpdateItemQuantityRequest();
+        request.setQuantity(0);
+
+        mockMvc.perform(put("/cart/items/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(manageCartUseCase);
+    }
+
+    @Test
+    void whenRemoveItem_withStaleVersion_shouldReturnPreconditionFailed() throws Exception {
+        when(manageCartUseCase.removeItem(eq(1L), eq("\"abc-2\""), any(HttpServletRequest.class)))
+                .thenThrow(new CartVersionConflictException("El carrito fue modificado."));
+
+        mockMvc.perform(delete("/cart/items/1").header("If-Match", "\"abc-2\""))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.code").value(412))
+                .andExpect(jsonPath("$.error").value("El carrito fue modificado."));
+    }
 }
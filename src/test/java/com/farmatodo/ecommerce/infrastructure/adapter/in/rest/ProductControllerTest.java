@@ -1,6 +1,11 @@
 package com.farmatodo.ecommerce.infrastructure.adapter.in.rest;
 
+import com.farmatodo.ecommerce.application.dto.FacetedSearchResponse;
+import com.farmatodo.ecommerce.application.dto.ProductDetailResponse;
+import com.farmatodo.ecommerce.application.dto.ProductPageResponse;
 import com.farmatodo.ecommerce.application.dto.ProductResponse;
+import com.farmatodo.ecommerce.application.dto.ProductSuggestionResponse;
+import com.farmatodo.ecommerce.domain.exception.ProductNotFoundException;
 import com.farmatodo.ecommerce.domain.exception.SearchQueryException;
 import com.farmatodo.ecommerce.domain.port.in.*;
 import com.farmatodo.ecommerce.domain.port.out.CustomerRepositoryPort;
@@ -20,15 +25,28 @@ import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ProductController.class,
@@ -43,10 +61,19 @@ class ProductControllerTest {
     private ObjectMapper objectMapper;
     @Autowired
     private SearchProductUseCase searchProductUseCase;
+    @Autowired
+    private SuggestProductUseCase suggestProductUseCase;
+    @Autowired
+    private GetProductUseCase getProductUseCase;
+    @Autowired
+    private ExportCatalogUseCase exportCatalogUseCase;
 
     @TestConfiguration
     static class TestConfig {
         @Bean public SearchProductUseCase searchProductUseCase() { return Mockito.mock(SearchProductUseCase.class); }
+        @Bean public SuggestProductUseCase suggestProductUseCase() { return Mockito.mock(SuggestProductUseCase.class); }
+        @Bean public GetProductUseCase getProductUseCase() { return Mockito.mock(GetProductUseCase.class); }
+        @Bean public ExportCatalogUseCase exportCatalogUseCase() { return Mockito.mock(ExportCatalogUseCase.class); }
         @Bean public RegisterCustomerUseCase rcu() { return Mockito.mock(RegisterCustomerUseCase.class); }
         @Bean public LoginCustomerUseCase lcu() { return Mockito.mock(LoginCustomerUseCase.class); }
         @Bean public JwtService jwtService() { return Mockito.mock(JwtService.class); }
@@ -93,4 +120,155 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.code").value(400))
                 .andExpect(jsonPath("$.error").value("La consulta de búsqueda debe tener al menos 3 caracteres."));
     }
-}
\ No newline at end of file
+
+    @Test
+    void whenSearchProductsPage_shouldReturnItemsAndNextCursor() throws Exception {
+        ProductPageResponse page = ProductPageResponse.builder()
+                .items(List.of(ProductResponse.builder().name("Vitamina C").build()))
+                .nextCursor("abc")
+                .build();
+        when(searchProductUseCase.searchProductsPage(eq("vitamina"), eq(1), isNull(), any(HttpServletRequest.class)))
+                .thenReturn(page);
+
+        mockMvc.perform(get("/products/search/page")
+                        .param("q", "vitamina")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items[0].name").value("Vitamina C"))
+                .andExpect(jsonPath("$.data.nextCursor").value("abc"));
+    }
+
+    @Test
+    void whenGetProduct_shouldReturnProductWithEtagAndLastModified() throws Exception {
+        when(getProductUseCase.getProduct("b1a7c2f0-0000-4000-8000-000000000001")).thenReturn(productDetail());
+
+        mockMvc.perform(get("/products/b1a7c2f0-0000-4000-8000-000000000001"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"18f3a\""))
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(jsonPath("$.data.name").value("Paracetamol"));
+    }
+
+    @Test
+    void whenGetProduct_withMatchingIfNoneMatch_shouldReturnNotModifiedWithoutBody() throws Exception {
+        when(getProductUseCase.getProduct("b1a7c2f0-0000-4000-8000-000000000001")).thenReturn(productDetail());
+
+        mockMvc.perform(get("/products/b1a7c2f0-0000-4000-8000-000000000001")
+                        .header("If-None-Match", "\"18f3a\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"18f3a\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void whenGetProduct_notFound_shouldReturnNotFound() throws Exception {
+        when(getProductUseCase.getProduct("b1a7c2f0-0000-4000-8000-000000000002"))
+                .thenThrow(new ProductNotFoundException("Producto no encontrado o no está activo."));
+
+        mockMvc.perform(get("/products/b1a7c2f0-0000-4000-8000-000000000002"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value(404));
+    }
+
+    private ProductDetailResponse productDetail() {
+        return ProductDetailResponse.builder()
+                .product(ProductResponse.builder().name("Paracetamol").build())
+                .etag("\"18f3a\"")
+                .lastModified(Instant.parse("2025-03-01T10:00:00Z"))
+                .build();
+    }
+
+    @Test
+    void whenSearchProductsRanked_shouldReturnRankedProducts() throws Exception {
+        when(searchProductUseCase.searchProductsRanked(eq("genfar"), isNull(), any(HttpServletRequest.class)))
+                .thenReturn(List.of(ProductResponse.builder().name("Acetaminofén Genfar").build()));
+
+        mockMvc.perform(get("/products/search/ranked").param("q", "genfar"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].name").value("Acetaminofén Genfar"));
+    }
+
+    @Test
+    void whenSearchProductsFaceted_shouldReturnItemsAndFacetCounts() throws Exception {
+        FacetedSearchResponse response = FacetedSearchResponse.builder()
+                .items(List.of(ProductResponse.builder().name("Vitamina C").build()))
+                .categories(Map.of("Vitaminas", 1L))
+                .brands(Map.of("Genfar", 1L))
+                .build();
+        when(searchProductUseCase.searchProductsFaceted(eq("vitamina"), eq("Vitaminas"), isNull(), any(HttpServletRequest.class)))
+                .thenReturn(response);
+
+        mockMvc.perform(get("/products/search/faceted").param("q", "vitamina").param("category", "Vitaminas"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items[0].name").value("Vitamina C"))
+                .andExpect(jsonPath("$.data.categories.Vitaminas").value(1))
+                .andExpect(jsonPath("$.data.brands.Genfar").value(1));
+    }
+
+    @Test
+    void whenSuggestProducts_shouldReturnCompletions() throws Exception {
+        when(suggestProductUseCase.suggest("vita", 5))
+                .thenReturn(List.of(ProductSuggestionResponse.builder().name("Vitamina C 1000mg").build()));
+
+        mockMvc.perform(get("/products/suggest").param("q", "vita").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].name").value("Vitamina C 1000mg"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenStreamProducts_shouldWriteOneJsonObjectPerLine() throws Exception {
+        doAnswer(inv -> {
+            Consumer<ProductResponse> consumer = inv.getArgument(1);
+            consumer.accept(ProductResponse.builder().name("Vitamina A").build());
+            consumer.accept(ProductResponse.builder().name("Vitamina C").build());
+            return null;
+        }).when(searchProductUseCase).streamProducts(eq("vitamina"), any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/products/search/stream").param("q", "vitamina"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Vitamina C", objectMapper.readTree(lines[1]).get("name").asText());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenExportCatalog_shouldStreamEveryProductAsNdjson() throws Exception {
+        doAnswer(inv -> {
+            Consumer<ProductResponse> consumer = inv.getArgument(0);
+            for (int i = 0; i < 3; i++) {
+                consumer.accept(ProductResponse.builder().sku("SKU-" + i).build());
+            }
+            return null;
+        }).when(exportCatalogUseCase).exportCatalog(any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/products/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(600000L, result.getRequest().getAsyncContext().getTimeout());
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("SKU-2", objectMapper.readTree(lines[2]).get("sku").asText());
+    }
+
+    @Test
+    void whenStreamProducts_withInvalidQuery_shouldReturnBadRequest() throws Exception {
+        doThrow(new SearchQueryException("La consulta de búsqueda debe tener al menos 3 caracteres."))
+                .when(searchProductUseCase).validateQuery("vi");
+
+        mockMvc.perform(get("/products/search/stream").param("q", "vi"))
+                .andExpect(status().isBadRequest());
+    }
+}
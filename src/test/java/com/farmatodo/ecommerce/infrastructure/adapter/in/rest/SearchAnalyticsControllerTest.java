@@ -0,0 +1,96 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.in.rest;
+
+import com.farmatodo.ecommerce.application.dto.SearchStatResponse;
+import com.farmatodo.ecommerce.domain.exception.SearchQueryException;
+import com.farmatodo.ecommerce.domain.port.in.*;
+import com.farmatodo.ecommerce.domain.port.out.CustomerRepositoryPort;
+import com.farmatodo.ecommerce.infrastructure.security.*;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = SearchAnalyticsController.class,
+        excludeAutoConfiguration = SecurityAutoConfiguration.class)
+@Import(GlobalExceptionHandler.class)
+@AutoConfigureMockMvc(addFilters = false)
+class SearchAnalyticsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private SearchAnalyticsUseCase searchAnalyticsUseCase;
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean public SearchAnalyticsUseCase searchAnalyticsUseCase() { return Mockito.mock(SearchAnalyticsUseCase.class); }
+        @Bean public RegisterCustomerUseCase rcu() { return Mockito.mock(RegisterCustomerUseCase.class); }
+        @Bean public LoginCustomerUseCase lcu() { return Mockito.mock(LoginCustomerUseCase.class); }
+        @Bean public JwtService jwtService() { return Mockito.mock(JwtService.class); }
+        @Bean public UserDetailsService userDetailsService() { return Mockito.mock(UserDetailsService.class); }
+        @Bean public JwtAuthFilter jwtAuthFilter(JwtService j, UserDetailsService u) { return new JwtAuthFilter(j, u); }
+        @Bean public ApiKeyAuthFilter apiKeyAuthFilter() { return Mockito.mock(ApiKeyAuthFilter.class); }
+        @Bean public AuthenticationProvider authenticationProvider() { return Mockito.mock(AuthenticationProvider.class); }
+        @Bean public CustomAccessDeniedHandler c1() { return Mockito.mock(CustomAccessDeniedHandler.class); }
+        @Bean public CustomAuthenticationEntryPoint c2() { return Mockito.mock(CustomAuthenticationEntryPoint.class); }
+        @Bean public TokenizeCardUseCase tcu() { return Mockito.mock(TokenizeCardUseCase.class); }
+        @Bean public RegisterCardUseCase rpu() { return Mockito.mock(RegisterCardUseCase.class); }
+        @Bean public AddProductToCartUseCase apu() { return Mockito.mock(AddProductToCartUseCase.class); }
+        @Bean public CreateOrderUseCase cou() { return Mockito.mock(CreateOrderUseCase.class); }
+        @Bean public ProcessPaymentUseCase ppu() { return Mockito.mock(ProcessPaymentUseCase.class); }
+        @Bean public CustomerRepositoryPort customerRepositoryPort() { return Mockito.mock(CustomerRepositoryPort.class); }
+    }
+
+    @Test
+    void whenGetTopQueries_shouldReturnStats() throws Exception {
+        when(searchAnalyticsUseCase.getTopQueries(any(OffsetDateTime.class), isNull(), eq(5)))
+                .thenReturn(List.of(SearchStatResponse.builder().query("vitamina c").searches(42).build()));
+
+        mockMvc.perform(get("/analytics/searches/top")
+                        .param("from", "2025-11-01T00:00:00Z")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].query").value("vitamina c"))
+                .andExpect(jsonPath("$.data[0].searches").value(42));
+    }
+
+    @Test
+    void whenGetZeroResultQueries_shouldReturnStats() throws Exception {
+        when(searchAnalyticsUseCase.getZeroResultQueries(null, null, null))
+                .thenReturn(List.of(SearchStatResponse.builder().query("xyz").zeroResultSearches(3).build()));
+
+        mockMvc.perform(get("/analytics/searches/zero-results"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].zeroResultSearches").value(3));
+    }
+
+    @Test
+    void whenGetHourlyVolume_withInvalidRange_shouldReturnBadRequest() throws Exception {
+        when(searchAnalyticsUseCase.getHourlyVolume(any(), any()))
+                .thenThrow(new SearchQueryException("El rango de fechas no es válido: 'from' debe ser anterior a 'to'."));
+
+        mockMvc.perform(get("/analytics/searches/hourly")
+                        .param("from", "2025-11-02T00:00:00Z")
+                        .param("to", "2025-11-01T00:00:00Z"))
+                .andExpect(status().isBadRequest());
+    }
+}
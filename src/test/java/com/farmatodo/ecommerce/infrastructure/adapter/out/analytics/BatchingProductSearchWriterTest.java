@@ -0,0 +1,84 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.out.analytics;
+
+import com.farmatodo.ecommerce.domain.model.ProductSearch;
+import com.farmatodo.ecommerce.domain.port.out.ProductSearchRepositoryPort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class BatchingProductSearchWriterTest {
+
+    private final ProductSearchRepositoryPort repository = mock(ProductSearchRepositoryPort.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenStopped_shouldFlushPendingSearchesInBatches() throws Exception {
+        BatchingProductSearchWriter writer = writer(100, 2, BatchingProductSearchWriter.OverflowPolicy.DROP);
+        for (int i = 0; i < 5; i++) {
+            writer.submit(search("query " + i));
+        }
+
+        writer.start();
+        writer.stop();
+
+        ArgumentCaptor<List<ProductSearch>> batches = ArgumentCaptor.forClass(List.class);
+        verify(repository, atLeast(3)).saveAll(batches.capture());
+        assertEquals(5, batches.getAllValues().stream().mapToInt(List::size).sum());
+        assertTrue(batches.getAllValues().stream().allMatch(batch -> batch.size() <= 2));
+        assertEquals(5.0, meterRegistry.get("product_search.writer.written").counter().count());
+        assertTrue(meterRegistry.get("product_search.writer.flush").timer().count() >= 3);
+    }
+
+    @Test
+    void whenQueueIsFull_withDropPolicy_shouldDropAndCount() {
+        BatchingProductSearchWriter writer = writer(2, 10, BatchingProductSearchWriter.OverflowPolicy.DROP);
+
+        for (int i = 0; i < 5; i++) {
+            writer.submit(search("query " + i));
+        }
+
+        assertEquals(3.0, meterRegistry.get("product_search.writer.dropped").counter().count());
+        assertEquals(2.0, meterRegistry.get("product_search.writer.queue.depth").gauge().value());
+    }
+
+    @Test
+    void whenQueueIsFull_withBlockPolicy_shouldWaitThenDrop() {
+        BatchingProductSearchWriter writer = writer(1, 10, BatchingProductSearchWriter.OverflowPolicy.BLOCK);
+
+        writer.submit(search("primera"));
+        long start = System.nanoTime();
+        writer.submit(search("segunda"));
+
+        assertTrue(System.nanoTime() - start >= 5_000_000L);
+        assertEquals(1.0, meterRegistry.get("product_search.writer.dropped").counter().count());
+    }
+
+    @Test
+    void whenQueueIsAboveThreshold_withSamplePolicy_shouldKeepOnlySample() {
+        BatchingProductSearchWriter writer = new BatchingProductSearchWriter(
+                repository, meterRegistry, 10, 10, 1000, BatchingProductSearchWriter.OverflowPolicy.SAMPLE, 0.0, 5);
+
+        for (int i = 0; i < 10; i++) {
+            writer.submit(search("query " + i));
+        }
+
+        assertEquals(8.0, meterRegistry.get("product_search.writer.queue.depth").gauge().value());
+        assertEquals(2.0, meterRegistry.get("product_search.writer.dropped").counter().count());
+        verify(repository, never()).saveAll(anyList());
+    }
+
+    private BatchingProductSearchWriter writer(int capacity, int batchSize, BatchingProductSearchWriter.OverflowPolicy policy) {
+        return new BatchingProductSearchWriter(repository, meterRegistry, capacity, batchSize, 1000, policy, 0.1, 10);
+    }
+
+    private static ProductSearch search(String query) {
+        return ProductSearch.builder().searchQuery(query).build();
+    }
+}
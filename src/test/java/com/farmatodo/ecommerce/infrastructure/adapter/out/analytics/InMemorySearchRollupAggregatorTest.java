@@ -0,0 +1,65 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.out.analytics;
+
+import com.farmatodo.ecommerce.domain.model.SearchRollup;
+import com.farmatodo.ecommerce.domain.port.out.SearchRollupRepositoryPort;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class InMemorySearchRollupAggregatorTest {
+
+    private static final Instant MINUTE = Instant.parse("2025-11-01T10:15:00Z");
+
+    private final SearchRollupRepositoryPort repository = mock(SearchRollupRepositoryPort.class);
+    private final InMemorySearchRollupAggregator aggregator = new InMemorySearchRollupAggregator(repository);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenFlush_shouldWriteOneRowPerMinuteAndNormalizedQuery() {
+        aggregator.record("Vitamina  C", 12, MINUTE.plusSeconds(5));
+        aggregator.record(" vitamina c ", 0, MINUTE.plusSeconds(40));
+        aggregator.record("vitamina c", 3, MINUTE.plusSeconds(65));
+
+        aggregator.flush();
+
+        ArgumentCaptor<List<SearchRollup>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repository).upsertAll(captor.capture());
+        List<SearchRollup> rows = captor.getValue().stream()
+                .sorted(Comparator.comparing(SearchRollup::getBucketStart))
+                .toList();
+        assertEquals(2, rows.size());
+        assertEquals("vitamina c", rows.get(0).getNormalizedQuery());
+        assertEquals(MINUTE, rows.get(0).getBucketStart().toInstant());
+        assertEquals(2, rows.get(0).getSearchCount());
+        assertEquals(1, rows.get(0).getZeroResultCount());
+        assertEquals(12, rows.get(0).getTotalResults());
+        assertEquals(1, rows.get(1).getSearchCount());
+
+        aggregator.flush();
+        verifyNoMoreInteractions(repository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenWriteFails_shouldKeepCountersForNextFlush() {
+        doThrow(new RuntimeException("db down")).doNothing().when(repository).upsertAll(anyList());
+        aggregator.record("ibuprofeno", 4, MINUTE);
+
+        aggregator.flush();
+        aggregator.record("ibuprofeno", 0, MINUTE);
+        aggregator.flush();
+
+        ArgumentCaptor<List<SearchRollup>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repository, times(2)).upsertAll(captor.capture());
+        SearchRollup retried = captor.getAllValues().get(1).get(0);
+        assertEquals(2, retried.getSearchCount());
+        assertEquals(1, retried.getZeroResultCount());
+    }
+}
@@ -0,0 +1,45 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.out.cache;
+
+import com.farmatodo.ecommerce.domain.model.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CaffeineProductSearchCacheAdapterTest {
+
+    private final CaffeineProductSearchCacheAdapter cache = new CaffeineProductSearchCacheAdapter(100, new SimpleMeterRegistry());
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void whenAccentedProductCrossesVisibility_shouldInvalidateFoldedQueries() {
+        load("acido folico");
+        load("acido folico");
+        assertEquals(1, loads.get());
+
+        cache.invalidateIfVisibilityChanged("Ácido Fólico 5mg", 10, 3);
+        load("acido folico");
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void whenStockChangeKeepsVisibility_shouldKeepCachedResults() {
+        load("acido folico");
+
+        cache.invalidateIfVisibilityChanged("Ácido Fólico 5mg", 20, 10);
+        load("acido folico");
+
+        assertEquals(1, loads.get());
+    }
+
+    private void load(String query) {
+        cache.get(query, 5, () -> {
+            loads.incrementAndGet();
+            return List.of(Product.builder().id(1L).name("Ácido Fólico 5mg").build());
+        });
+    }
+}
@@ -0,0 +1,289 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.out.cache;
+
+import com.farmatodo.ecommerce.domain.model.CartItem;
+import com.farmatodo.ecommerce.domain.model.ShoppingCart;
+import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.CartItemPersistenceAdapter;
+import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.ShoppingCartPersistenceAdapter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class WriteBehindCartStoreTest {
+
+    private final ShoppingCartPersistenceAdapter cartDelegate = mock(ShoppingCartPersistenceAdapter.class);
+    private final CartItemPersistenceAdapter itemDelegate = mock(CartItemPersistenceAdapter.class);
+    private WriteBehindCartStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new WriteBehindCartStore(cartDelegate, itemDelegate, 1_800_000L);
+        when(cartDelegate.findActiveByCustomerId(7L)).thenReturn(Optional.of(cart()));
+    }
+
+    @Test
+    void whenCartIsLoaded_shouldServeLaterReadsFromMemory() {
+        store.findActiveByCustomerId(7L);
+        store.findActiveByCustomerId(7L);
+        store.findByIdWithItems(10L);
+
+        verify(cartDelegate, times(1)).findActiveByCustomerId(7L);
+        verify(cartDelegate, never()).findByIdWithItems(any());
+    }
+
+    @Test
+    void whenItemsChange_shouldCoalesceIntoOneWriteOnFlush() {
+        store.findActiveByCustomerId(7L);
+        store.save(item(2L, 1));
+        store.save(item(2L, 3));
+        ShoppingCart current = store.findActiveByCustomerId(7L).orElseThrow();
+        current.setTotalItems(3);
+        store.save(current);
+        verifyNoInteractions(itemDelegate);
+        verify(cartDelegate, never()).save(any(ShoppingCart.class));
+
+        when(cartDelegate.save(any(ShoppingCart.class))).thenAnswer(inv -> withIds(inv.getArgument(0)));
+        store.flush();
+        store.flush();
+
+        ArgumentCaptor<ShoppingCart> written = ArgumentCaptor.forClass(ShoppingCart.class);
+        verify(cartDelegate, times(1)).save(written.capture());
+        assertEquals(3, written.getValue().getTotalItems());
+        assertEquals(1, written.getValue().getItems().size());
+        assertEquals(3, written.getValue().getItems().get(0).getQuantity());
+        assertNotNull(store.findByCartIdAndProductId(10L, 2L).orElseThrow().getId());
+    }
+
+    @Test
+    void whenReturnedCartIsMutatedWithoutSave_shouldNotChangeStoredState() {
+        store.findActiveByCustomerId(7L).orElseThrow().setTotalItems(99);
+
+        assertEquals(0, store.findActiveByCustomerId(7L).orElseThrow().getTotalItems());
+    }
+
+    @Test
+    void whenCartIsCheckedOut_shouldWriteThroughAndEvict() {
+        store.findActiveByCustomerId(7L);
+        store.save(item(2L, 1));
+        ShoppingCart loaded = store.findActiveByCustomerId(7L).orElseThrow();
+        loaded.setStatus(ShoppingCart.CartStatus.CONVERTED);
+        when(cartDelegate.save(any(ShoppingCart.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        store.save(loaded);
+        store.flush();
+
+        verify(cartDelegate, times(1)).save(any(ShoppingCart.class));
+        store.findActiveByCustomerId(7L);
+        verify(cartDelegate, times(2)).findActiveByCustomerId(7L);
+    }
+
+    @Test
+    void whenCheckoutRacesWithFlush_shouldWriteConvertedLastWithFlushedItemIds() throws Exception {
+        store.findActiveByCustomerId(7L);
+        store.save(item(2L, 1));
+        ShoppingCart checkout = store.findActiveByCustomerId(7L).orElseThrow();
+        checkout.setStatus(ShoppingCart.CartStatus.CONVERTED);
+        CountDownLatch flushWriting = new CountDownLatch(1);
+        CountDownLatch releaseFlush = new CountDownLatch(1);
+        List<ShoppingCart> writes = new CopyOnWriteArrayList<>();
+        when(cartDelegate.save(any(ShoppingCart.class))).thenAnswer(inv -> {
+            ShoppingCart written = inv.getArgument(0);
+            writes.add(written);
+            if (written.getStatus() == ShoppingCart.CartStatus.ACTIVE) {
+                flushWriting.countDown();
+                releaseFlush.await(5, TimeUnit.SECONDS);
+            }
+            return withIds(written);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> flush = executor.submit(store::flush);
+            assertTrue(flushWriting.await(5, TimeUnit.SECONDS));
+            Future<ShoppingCart> converted = executor.submit(() -> store.save(checkout));
+            Thread.sleep(100);
+            assertFalse(converted.isDone());
+            releaseFlush.countDown();
+            flush.get(5, TimeUnit.SECONDS);
+            converted.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        store.flush();
+
+        assertEquals(2, writes.size());
+        assertEquals(ShoppingCart.CartStatus.ACTIVE, writes.get(0).getStatus());
+        assertEquals(ShoppingCart.CartStatus.CONVERTED, writes.get(1).getStatus());
+        assertEquals(200L, writes.get(1).getItems().get(0).getId());
+    }
+
+    @Test
+    void whenFlushFails_shouldRetryOnNextFlush() {
+        store.findActiveByCustomerId(7L);
+        store.save(item(2L, 1));
+        when(cartDelegate.save(any(ShoppingCart.class)))
+                .thenThrow(new IllegalStateException("db caída"))
+                .thenAnswer(inv -> withIds(inv.getArgument(0)));
+
+        store.flush();
+        store.flush();
+
+        verify(cartDelegate, times(2)).save(any(ShoppingCart.class));
+    }
+
+    @Test
+    void whenShuttingDown_shouldFlushPendingCarts() {
+        store.findActiveByCustomerId(7L);
+        store.save(item(2L, 1));
+        when(cartDelegate.save(any(ShoppingCart.class))).thenAnswer(inv -> withIds(inv.getArgument(0)));
+
+        store.shutdown();
+
+        verify(cartDelegate).save(any(ShoppingCart.class));
+    }
+
+    @Test
+    void whenCartIsNotTracked_shouldDelegateItemWrites() {
+        CartItem item = item(2L, 1);
+        item.setCartId(99L);
+
+        store.save(item);
+
+        verify(itemDelegate).save(item);
+    }
+
+    @Test
+    void whenQuantityIsAdded_shouldAccumulateInMemoryUpToTheLimit() {
+        store.findActiveByCustomerId(7L);
+
+        assertEquals(3, store.addQuantity(item(2L, 3), 5).orElseThrow().getQuantity());
+        assertEquals(5, store.addQuantity(item(2L, 2), 5).orElseThrow().getQuantity());
+        assertTrue(store.addQuantity(item(2L, 1), 5).isEmpty());
+
+        assertEquals(5, store.findByCartIdAndProductId(10L, 2L).orElseThrow().getQuantity());
+        verifyNoInteractions(itemDelegate);
+    }
+
+    @Test
+    void whenOneBatchLineExceedsItsLimit_shouldApplyNoneOfTheLines() {
+        store.findActiveByCustomerId(7L);
+        store.addQuantity(item(2L, 4), 5);
+
+        assertTrue(store.addQuantities(List.of(item(3L, 1), item(2L, 2)), Map.of(3L, 5, 2L, 5)).isEmpty());
+
+        assertTrue(store.findByCartIdAndProductId(10L, 3L).isEmpty());
+        assertEquals(4, store.findByCartIdAndProductId(10L, 2L).orElseThrow().getQuantity());
+        verifyNoInteractions(itemDelegate);
+    }
+
+    @Test
+    void whenTotalsDeltaIsApplied_shouldUpdateTrackedCartWithoutWriting() {
+        ShoppingCart current = store.findActiveByCustomerId(7L).orElseThrow();
+
+        store.applyTotalsDelta(current, new BigDecimal("20.00"), 2);
+        ShoppingCart updated = store.applyTotalsDelta(current, new BigDecimal("10.00"), 1);
+
+        assertEquals(3, updated.getTotalItems());
+        assertEquals(0, new BigDecimal("30.00").compareTo(store.findByIdWithItems(10L).orElseThrow().getTotalAmount()));
+        verify(cartDelegate, never()).applyTotalsDelta(any(), any(), anyInt());
+    }
+
+    @Test
+    void whenTotalsDeltaIsAppliedWithStaleVersion_shouldRejectInMemory() {
+        ShoppingCart current = store.findActiveByCustomerId(7L).orElseThrow();
+
+        assertTrue(store.applyTotalsDeltaIfVersion(current, new BigDecimal("10.00"), 1, 0L).isPresent());
+        assertTrue(store.applyTotalsDeltaIfVersion(current, new BigDecimal("10.00"), 1, 0L).isEmpty());
+
+        assertEquals(1, store.findActiveVersionByCustomerId(7L).orElseThrow().getVersion());
+        verify(cartDelegate, never()).applyTotalsDeltaIfVersion(any(), any(), anyInt(), anyLong());
+    }
+
+    @Test
+    void whenTrackedLineIsDeleted_shouldRemoveFromMemoryAndDatabase() {
+        store.findActiveByCustomerId(7L);
+        store.save(item(2L, 1));
+        when(itemDelegate.delete(10L, 2L)).thenReturn(false);
+
+        assertTrue(store.delete(10L, 2L));
+
+        assertTrue(store.findByCartIdAndProductId(10L, 2L).isEmpty());
+        verify(itemDelegate).delete(10L, 2L);
+    }
+
+    @Test
+    void whenCartsAreMerged_shouldWritePendingChangesAndEvictBeforeDelegating() {
+        store.findActiveByCustomerId(7L);
+        store.save(item(2L, 1));
+        when(cartDelegate.save(any(ShoppingCart.class))).thenAnswer(inv -> withIds(inv.getArgument(0)));
+
+        store.mergeAnonymousCart("session-1", 7L);
+        store.findActiveByCustomerId(7L);
+
+        var order = inOrder(cartDelegate);
+        order.verify(cartDelegate).save(any(ShoppingCart.class));
+        order.verify(cartDelegate).mergeAnonymousCart("session-1", 7L);
+        order.verify(cartDelegate).findActiveByCustomerId(7L);
+    }
+
+    @Test
+    void whenCartsAreExpired_shouldFlushAndEvictOverdueCartsBeforeDelegating() {
+        when(cartDelegate.findActiveByCustomerId(7L)).thenReturn(Optional.of(
+                cart().toBuilder().expiresAt(OffsetDateTime.now().minusMinutes(1)).build()));
+        store.findActiveByCustomerId(7L);
+        store.save(item(2L, 1));
+        when(cartDelegate.save(any(ShoppingCart.class))).thenAnswer(inv -> withIds(inv.getArgument(0)));
+        when(cartDelegate.expireCarts(50)).thenReturn(1);
+
+        assertEquals(1, store.expireCarts(50));
+        store.findByIdWithItems(10L);
+
+        var order = inOrder(cartDelegate);
+        order.verify(cartDelegate).save(any(ShoppingCart.class));
+        order.verify(cartDelegate).expireCarts(50);
+        order.verify(cartDelegate).findByIdWithItems(10L);
+    }
+
+    private ShoppingCart cart() {
+        return ShoppingCart.builder()
+                .id(10L)
+                .customerId(7L)
+                .status(ShoppingCart.CartStatus.ACTIVE)
+                .totalAmount(BigDecimal.ZERO)
+                .items(new ArrayList<>())
+                .build();
+    }
+
+    private CartItem item(Long productId, int quantity) {
+        return CartItem.builder()
+                .cartId(10L)
+                .productId(productId)
+                .quantity(quantity)
+                .unitPrice(new BigDecimal("10.00"))
+                .build();
+    }
+
+    private ShoppingCart withIds(ShoppingCart cart) {
+        List<CartItem> items = cart.getItems().stream()
+                .map(item -> item.toBuilder().id(item.getProductId() * 100).uuid(UUID.randomUUID()).build())
+                .toList();
+        return cart.toBuilder().items(new ArrayList<>(items)).build();
+    }
+}
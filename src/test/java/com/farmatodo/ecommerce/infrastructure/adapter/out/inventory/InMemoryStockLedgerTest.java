@@ -0,0 +1,297 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.out.inventory;
+
+import com.farmatodo.ecommerce.domain.exception.StockLedgerUnavailableException;
+import com.farmatodo.ecommerce.domain.port.out.StockShardRepositoryPort;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class InMemoryStockLedgerTest {
+
+    private static final String INSERT_RESERVATION = "INSERT INTO stock_ledger_reservations";
+    private static final String DRAIN_RESERVATIONS = "WITH drained AS";
+    private static final String APPLY_DECREMENT = "UPDATE products";
+    private static final String SHARDED_SKUS = "SELECT id FROM products WHERE stock_sharded";
+    private static final List<String> SKUS = List.of("SKU-1", "SKU-2");
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final StockShardRepositoryPort stockShardRepository = mock(StockShardRepositoryPort.class);
+    private InMemoryStockLedger ledger;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(1L, 2L);
+        when(rs.getInt("stock")).thenReturn(5, 1);
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(1);
+            handler.processRow(rs);
+            handler.processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT p.id"), any(RowCallbackHandler.class), any(Object[].class));
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM products WHERE sku"), eq(Long.class), any(Object[].class)))
+                .thenReturn(List.of(1L, 2L));
+        when(jdbcTemplate.batchUpdate(startsWith(INSERT_RESERVATION), anyList()))
+                .thenAnswer(inv -> recorded(inv.<List<?>>getArgument(1).size(), 1));
+
+        ledger = new InMemoryStockLedger(jdbcTemplate, transactionManager, owningDataSource(true), stockShardRepository, true, SKUS);
+        ledger.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void whenStarted_shouldServeStockLoadedFromDatabase() {
+        assertEquals(OptionalInt.of(5), ledger.available(1L));
+        assertTrue(ledger.available(3L).isEmpty());
+    }
+
+    @Test
+    void whenDisabled_shouldNotTrackAnyProduct() {
+        InMemoryStockLedger disabled = new InMemoryStockLedger(jdbcTemplate, transactionManager, mock(DataSource.class), stockShardRepository, false, SKUS);
+        disabled.start();
+
+        assertTrue(disabled.available(1L).isEmpty());
+        assertEquals(List.of(1L), disabled.reserve(Map.of(1L, 1)));
+        assertFalse(disabled.heldElsewhere(1L));
+    }
+
+    @Test
+    void whenEnabledWithoutSkus_shouldStayDisabled() {
+        InMemoryStockLedger unscoped = new InMemoryStockLedger(jdbcTemplate, transactionManager, mock(DataSource.class), stockShardRepository, true, List.of(" "));
+        unscoped.start();
+
+        assertTrue(unscoped.available(1L).isEmpty());
+        assertFalse(unscoped.heldElsewhere(1L));
+    }
+
+    @Test
+    void whenAnotherNodeOwnsTheLedger_shouldReportOnlyLedgerSkusAsHeldElsewhere() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenThrow(new SQLException("lock tomado"));
+        InMemoryStockLedger follower = new InMemoryStockLedger(jdbcTemplate, transactionManager, dataSource, stockShardRepository, true, SKUS);
+        follower.start();
+
+        assertTrue(follower.heldElsewhere(1L));
+        assertFalse(follower.heldElsewhere(3L));
+        assertTrue(follower.available(1L).isEmpty());
+        assertFalse(ledger.heldElsewhere(1L));
+    }
+
+    @Test
+    void whenReserved_shouldRecordReservationInTheCheckoutTransaction() {
+        assertTrue(ledger.reserve(Map.of(1L, 2)).isEmpty());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(argThat((String sql) -> sql.startsWith(INSERT_RESERVATION)
+                && sql.contains("NOT p.stock_sharded") && sql.contains("pg_locks")), rows.capture());
+        assertEquals(2, rows.getValue().get(0)[0]);
+        assertEquals(1L, rows.getValue().get(0)[1]);
+    }
+
+    @Test
+    void whenOwnerNoLongerHoldsTheLockAtReserve_shouldRefuseAndStopSelling() {
+        when(jdbcTemplate.batchUpdate(startsWith(INSERT_RESERVATION), anyList())).thenReturn(new int[]{0});
+
+        assertThrows(StockLedgerUnavailableException.class, () -> ledger.reserve(Map.of(1L, 2)));
+
+        assertTrue(ledger.available(1L).isEmpty());
+        assertTrue(ledger.heldElsewhere(1L));
+    }
+
+    @Test
+    void whenSkuWasShardedAtReserve_shouldDropItsSlotAndKeepSellingTheRest() {
+        when(jdbcTemplate.batchUpdate(startsWith(INSERT_RESERVATION), anyList())).thenReturn(new int[]{0});
+        when(jdbcTemplate.queryForList(startsWith(SHARDED_SKUS), eq(Long.class), any(Object[].class))).thenReturn(List.of(1L));
+
+        assertThrows(StockLedgerUnavailableException.class, () -> ledger.reserve(Map.of(1L, 2)));
+
+        assertTrue(ledger.available(1L).isEmpty());
+        assertEquals(OptionalInt.of(1), ledger.available(2L));
+        assertFalse(ledger.heldElsewhere(1L));
+    }
+
+    @Test
+    void whenFlushFindsTheLockLost_shouldStopSellingUntilItIsRetaken() throws Exception {
+        InMemoryStockLedger losing = new InMemoryStockLedger(jdbcTemplate, transactionManager,
+                owningDataSource(true, false, false), stockShardRepository, true, SKUS);
+        losing.start();
+        assertTrue(losing.available(2L).isPresent());
+
+        losing.flush();
+
+        assertTrue(losing.available(2L).isEmpty());
+        assertTrue(losing.heldElsewhere(2L));
+    }
+
+    @Test
+    void whenFlushFindsASkuSharded_shouldDropItsSlot() {
+        when(jdbcTemplate.queryForList(startsWith(SHARDED_SKUS), eq(Long.class), any(Object[].class))).thenReturn(List.of(2L));
+
+        ledger.flush();
+
+        assertEquals(OptionalInt.of(5), ledger.available(1L));
+        assertTrue(ledger.available(2L).isEmpty());
+    }
+
+    @Test
+    void whenRecordingReservationFails_shouldReturnStockToMemory() {
+        when(jdbcTemplate.batchUpdate(startsWith(INSERT_RESERVATION), anyList())).thenThrow(new IllegalStateException("db caída"));
+
+        assertThrows(IllegalStateException.class, () -> ledger.reserve(Map.of(1L, 2)));
+
+        assertEquals(OptionalInt.of(5), ledger.available(1L));
+    }
+
+    @Test
+    void whenReservationsAreFlushed_shouldApplyDrainedTotalsWithoutClamping() {
+        drainReservations(1L, 3);
+        when(jdbcTemplate.batchUpdate(startsWith(APPLY_DECREMENT), anyList())).thenReturn(new int[]{1});
+
+        ledger.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq("UPDATE products SET stock = stock - ? WHERE id = ? AND NOT stock_sharded AND stock >= ?"),
+                rows.capture());
+        assertArrayEquals(new Object[]{3, 1L, 3}, rows.getValue().get(0));
+        verify(jdbcTemplate, never()).batchUpdate(startsWith(INSERT_RESERVATION), anyList());
+    }
+
+    @Test
+    void whenReservationOfANowShardedSkuIsFlushed_shouldDecrementItsBuckets() {
+        drainReservations(1L, 3);
+        when(jdbcTemplate.batchUpdate(startsWith(APPLY_DECREMENT), anyList())).thenReturn(new int[]{0});
+        when(stockShardRepository.decrementStock(Map.of(1L, 3))).thenReturn(List.of());
+
+        ledger.flush();
+
+        verify(stockShardRepository).decrementStock(Map.of(1L, 3));
+        verify(jdbcTemplate, never()).batchUpdate(startsWith(INSERT_RESERVATION), anyList());
+    }
+
+    @Test
+    void whenFlushWouldLeaveStockNegative_shouldKeepTheReservationForReconciliation() {
+        drainReservations(1L, 3);
+        when(jdbcTemplate.batchUpdate(startsWith(APPLY_DECREMENT), anyList())).thenReturn(new int[]{0});
+        when(stockShardRepository.decrementStock(Map.of(1L, 3))).thenReturn(List.of(1L));
+
+        ledger.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith(INSERT_RESERVATION), rows.capture());
+        assertArrayEquals(new Object[]{1L, 3}, rows.getValue().get(0));
+    }
+
+    @Test
+    void whenOneLineLacksStock_shouldReleaseTheOthersAndRejectIt() {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        quantities.put(1L, 2);
+        quantities.put(2L, 3);
+
+        assertEquals(List.of(2L), ledger.reserve(quantities));
+
+        assertEquals(OptionalInt.of(5), ledger.available(1L));
+        assertEquals(OptionalInt.of(1), ledger.available(2L));
+    }
+
+    @Test
+    void whenTransactionRollsBack_shouldReturnTheReservedStock() {
+        TransactionSynchronizationManager.initSynchronization();
+        ledger.reserve(Map.of(1L, 4));
+        assertEquals(OptionalInt.of(1), ledger.available(1L));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        ledger.flush();
+
+        assertEquals(OptionalInt.of(5), ledger.available(1L));
+        verify(jdbcTemplate, never()).batchUpdate(startsWith(APPLY_DECREMENT), anyList());
+    }
+
+    @Test
+    void whenFlushFails_shouldRetryOnNextFlush() {
+        doThrow(new IllegalStateException("db caída"))
+                .doNothing()
+                .when(jdbcTemplate).query(startsWith(DRAIN_RESERVATIONS), any(RowCallbackHandler.class));
+
+        ledger.flush();
+        ledger.flush();
+
+        verify(jdbcTemplate, times(2)).query(startsWith(DRAIN_RESERVATIONS), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void whenShuttingDown_shouldFlushAndStopTracking() {
+        ledger.reserve(Map.of(2L, 1));
+
+        ledger.shutdown();
+
+        verify(jdbcTemplate).query(startsWith(DRAIN_RESERVATIONS), any(RowCallbackHandler.class));
+        assertTrue(ledger.available(2L).isEmpty());
+        verify(jdbcTemplate, times(1)).query(argThat((String sql) -> sql.contains("stock_ledger_reservations")
+                && sql.contains("NOT p.stock_sharded") && sql.contains("p.sku IN (?, ?)")), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    private static int[] recorded(int rows, int updated) {
+        int[] counts = new int[rows];
+        Arrays.fill(counts, updated);
+        return counts;
+    }
+
+    // Cada consulta de la conexión dueña (tomar el lock y luego comprobarlo) devuelve el siguiente resultado;
+    // el último se repite.
+    private static DataSource owningDataSource(Boolean first, Boolean... then) throws SQLException {
+        ResultSet granted = mock(ResultSet.class);
+        when(granted.next()).thenReturn(true);
+        when(granted.getBoolean(1)).thenReturn(first, then);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(statement.executeQuery()).thenReturn(granted);
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+
+    private void drainReservations(Long productId, int quantity) {
+        doAnswer(inv -> {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getLong("product_id")).thenReturn(productId);
+            when(rs.getInt("quantity")).thenReturn(quantity);
+            inv.<RowCallbackHandler>getArgument(1).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(startsWith(DRAIN_RESERVATIONS), any(RowCallbackHandler.class));
+    }
+}
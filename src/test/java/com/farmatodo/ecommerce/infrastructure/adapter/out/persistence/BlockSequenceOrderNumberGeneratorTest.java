@@ -0,0 +1,33 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.out.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BlockSequenceOrderNumberGeneratorTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final BlockSequenceOrderNumberGenerator generator = new BlockSequenceOrderNumberGenerator(jdbcTemplate);
+
+    @Test
+    void whenBlockIsExhausted_shouldFetchTheNextBlockFromTheSequence() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(1L, 5001L);
+        String today = LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE);
+
+        assertEquals("ORD-" + today + "-0000000001", generator.nextOrderNumber("ORD"));
+        for (long i = 2; i < BlockSequenceOrderNumberGenerator.BLOCK_SIZE; i++) {
+            generator.nextOrderNumber("ORD");
+        }
+        assertEquals("ORD-" + today + "-0000001000", generator.nextOrderNumber("ORD"));
+        assertEquals("FT-" + today + "-0000005001", generator.nextOrderNumber("FT"));
+
+        verify(jdbcTemplate, times(2)).queryForObject(anyString(), eq(Long.class));
+    }
+}
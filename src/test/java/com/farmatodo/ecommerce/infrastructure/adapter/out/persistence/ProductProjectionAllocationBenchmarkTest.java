@@ -0,0 +1,87 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.out.persistence;
+
+import com.farmatodo.ecommerce.domain.model.Product;
+import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.entity.ProductEntity;
+import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.mapper.ProductPersistenceMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Mide los bytes asignados por búsqueda leyendo entidades completas (con descripción) frente a la proyección
+ * de listado. Requiere una base Postgres configurada en el perfil activo:
+ * mvn test -Dbenchmark=true -Dtest=ProductProjectionAllocationBenchmarkTest
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProductProjectionAllocationBenchmarkTest {
+
+    private static final int CATALOG_SIZE = 20_000;
+    private static final int WARMUP_ITERATIONS = 10;
+    private static final int MEASURED_ITERATIONS = 50;
+    private static final int MIN_STOCK = 5;
+    private static final String SKU_PREFIX = "BENCH-PROJ-";
+    private static final String QUERY = "vitamina";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private ProductPersistenceMapper mapper;
+    @Autowired
+    private ProductPersistenceAdapter adapter;
+
+    @Test
+    void compareEntityAndProjectionAllocations() {
+        seedCatalog();
+        try {
+            report("Entidad + mapper", q -> mapper.toDomainList(entityManager.createQuery(
+                            "SELECT p FROM ProductEntity p WHERE lower(p.name) LIKE :name " +
+                                    "AND p.stock > :minStock AND p.isActive = true", ProductEntity.class)
+                    .setParameter("name", "%" + q + "%")
+                    .setParameter("minStock", MIN_STOCK)
+                    .getResultList()));
+            report("Proyección", q -> adapter.findByNameContainingIgnoreCaseAndStockGreaterThan(q, MIN_STOCK));
+        } finally {
+            jdbcTemplate.update("DELETE FROM products WHERE sku LIKE ?", SKU_PREFIX + "%");
+        }
+    }
+
+    private void seedCatalog() {
+        String description = "Descripción extensa del producto con indicaciones y contraindicaciones. ".repeat(30);
+        List<Object[]> rows = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            rows.add(new Object[]{SKU_PREFIX + i, "Vitamina C " + i + "mg", description, new BigDecimal("49.90"), 100});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO products (sku, name, description, price, stock, category, brand, is_active) " +
+                        "VALUES (?, ?, ?, ?, ?, 'BENCH', 'BENCH', true)",
+                rows);
+    }
+
+    private void report(String label, Function<String, List<Product>> search) {
+        var threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            search.apply(QUERY);
+        }
+        int results = 0;
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            results = search.apply(QUERY).size();
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+        System.out.printf("%-18s resultados=%6d  %10.1f KB/búsqueda%n", label, results,
+                allocated / (double) MEASURED_ITERATIONS / 1024);
+    }
+}
@@ -0,0 +1,97 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.out.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Compara 200 checkouts concurrentes del mismo SKU descontando sobre una sola fila de products frente al
+ * stock repartido en cubos. Cada checkout mantiene la transacción abierta HOLD_MS tras el descuento para
+ * simular el resto del checkout. Requiere una base Postgres configurada en el perfil activo:
+ * mvn test -Dbenchmark=true -Dtest=StockShardingContentionBenchmarkTest
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class StockShardingContentionBenchmarkTest {
+
+    private static final int CHECKOUTS = 200;
+    private static final int BUCKETS = 16;
+    private static final int HOLD_MS = 20;
+    private static final int INITIAL_STOCK = 1_000_000;
+    private static final String SKU = "BENCH-SHARD-1";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ProductPersistenceAdapter productAdapter;
+    @Autowired
+    private StockShardPersistenceAdapter shardAdapter;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void compareSingleRowAndShardedThroughput() throws Exception {
+        long productId = seedProduct();
+        try {
+            report("Fila única", () -> productAdapter.decrementStock(Map.of(productId, 1)));
+            shardAdapter.shard(SKU, BUCKETS);
+            report("Cubos (" + BUCKETS + ")", () -> shardAdapter.decrementStock(Map.of(productId, 1)));
+        } finally {
+            jdbcTemplate.update("DELETE FROM products WHERE sku = ?", SKU);
+        }
+    }
+
+    private long seedProduct() {
+        jdbcTemplate.update("DELETE FROM products WHERE sku = ?", SKU);
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO products (sku, name, price, stock, category, brand, is_active) " +
+                        "VALUES (?, 'Producto venta flash', 9.90, ?, 'BENCH', 'BENCH', true) RETURNING id",
+                Long.class, SKU, INITIAL_STOCK);
+    }
+
+    private void report(String label, Supplier<List<Long>> decrement) throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(CHECKOUTS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> checkouts = new ArrayList<>(CHECKOUTS);
+        for (int i = 0; i < CHECKOUTS; i++) {
+            checkouts.add(executor.submit(() -> {
+                start.await();
+                transaction.executeWithoutResult(status -> {
+                    if (!decrement.get().isEmpty()) {
+                        rejected.incrementAndGet();
+                    }
+                    jdbcTemplate.execute("SELECT pg_sleep(" + HOLD_MS / 1000.0 + ")");
+                });
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> checkout : checkouts) {
+            checkout.get(5, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+        executor.shutdown();
+
+        System.out.printf("%-12s %d checkouts en %8.1f ms  %8.1f checkouts/s  rechazados=%d%n", label, CHECKOUTS,
+                elapsedNanos / 1_000_000.0, CHECKOUTS / (elapsedNanos / 1_000_000_000.0), rejected.get());
+    }
+}
@@ -0,0 +1,90 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.out.search;
+
+import com.farmatodo.ecommerce.domain.port.out.ProductRepositoryPort;
+import com.farmatodo.ecommerce.infrastructure.adapter.out.persistence.ProductPersistenceAdapter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compara la búsqueda por nombre vía JPA (ILIKE) contra el índice de trigramas en memoria
+ * sobre un catálogo de 100k SKUs. Requiere una base Postgres configurada en el perfil activo:
+ * mvn test -Dbenchmark=true -Dtest=ProductSearchBenchmarkTest
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProductSearchBenchmarkTest {
+
+    private static final int CATALOG_SIZE = 100_000;
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 200;
+    private static final int MIN_STOCK = 5;
+    private static final String SKU_PREFIX = "BENCH-";
+    private static final String[] WORDS = {
+            "Paracetamol", "Ibuprofeno", "Vitamina", "Omega", "Gel", "Antibacterial",
+            "Shampoo", "Magnesio", "Zinc", "Calcio", "Complejo", "Desodorante"
+    };
+    private static final List<String> QUERIES = List.of("vitamina", "paracetamol 500", "antibac", "zinc 50", "xyz");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ProductPersistenceAdapter jpaAdapter;
+    @Autowired
+    private IndexedProductRepositoryAdapter indexedAdapter;
+
+    @Test
+    void compareJpaAndIndexSearch() {
+        seedCatalog();
+        try {
+            indexedAdapter.rebuild();
+            report("JPA (ILIKE)", jpaAdapter);
+            report("Índice trigramas", indexedAdapter);
+        } finally {
+            jdbcTemplate.update("DELETE FROM products WHERE sku LIKE ?", SKU_PREFIX + "%");
+        }
+    }
+
+    private void seedCatalog() {
+        Random random = new Random(42);
+        String description = "Descripción extensa del producto. ".repeat(20);
+        List<Object[]> rows = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + (50 * (1 + random.nextInt(20))) + "mg";
+            rows.add(new Object[]{SKU_PREFIX + i, name, description, new BigDecimal("99.90"), random.nextInt(200)});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO products (sku, name, description, price, stock, category, brand, is_active) " +
+                        "VALUES (?, ?, ?, ?, ?, 'BENCH', 'BENCH', true)",
+                rows);
+    }
+
+    private void report(String label, ProductRepositoryPort port) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            QUERIES.forEach(q -> port.findByNameContainingIgnoreCaseAndStockGreaterThan(q, MIN_STOCK));
+        }
+        long[] samples = new long[MEASURED_ITERATIONS * QUERIES.size()];
+        int n = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            for (String query : QUERIES) {
+                long start = System.nanoTime();
+                port.findByNameContainingIgnoreCaseAndStockGreaterThan(query, MIN_STOCK);
+                samples[n++] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(samples);
+        System.out.printf("%-18s p50=%8.3f ms  p99=%8.3f ms  avg=%8.3f ms%n", label,
+                samples[samples.length / 2] / 1e6,
+                samples[(int) (samples.length * 0.99)] / 1e6,
+                Arrays.stream(samples).average().orElse(0) / 1e6);
+    }
+}
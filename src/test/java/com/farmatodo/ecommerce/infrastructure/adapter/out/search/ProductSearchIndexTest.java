@@ -0,0 +1,153 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.out.search;
+
+import com.farmatodo.ecommerce.domain.model.FacetedProducts;
+import com.farmatodo.ecommerce.domain.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = ProductSearchIndex.of(List.of(
+                product(1L, "Paracetamol 500mg", 150, true),
+                product(2L, "Ibuprofeno 400mg", 200, true),
+                product(3L, "Vitamina C 1000mg", 3, true),
+                product(4L, "Vitamina D3 5000 UI", 70, false),
+                product(5L, "Complejo B Vitaminas", 95, true)
+        ));
+    }
+
+    @Test
+    void whenSearch_shouldMatchSubstringIgnoringCase() {
+        List<Product> results = index.search("VITAMIN", 5);
+        assertEquals(List.of(5L), ids(results));
+    }
+
+    @Test
+    void whenSearch_shouldIgnoreAccentsOnBothSides() {
+        index.upsertAll(List.of(product(6L, "Ácido Fólico 5mg", 40, true)));
+
+        assertEquals(List.of(6L), ids(index.search("acido folico", 5)));
+        assertEquals(List.of(6L), ids(index.search("ÁCIDO", 5)));
+    }
+
+    @Test
+    void whenSearch_shouldFilterByStockAndVisibility() {
+        assertTrue(index.search("vitamina c", 5).isEmpty());
+        assertEquals(List.of(3L), ids(index.search("vitamina c", 0)));
+        assertTrue(index.search("vitamina d3", 0).isEmpty());
+    }
+
+    @Test
+    void whenTrigramsMatchButSubstringDoesNot_shouldNotReturnFalsePositive() {
+        assertTrue(index.search("500 par", 0).isEmpty());
+    }
+
+    @Test
+    void whenUpsertChangesStock_shouldReflectNewVisibility() {
+        index.upsertAll(List.of(product(1L, "Paracetamol 500mg", 2, true)));
+
+        assertTrue(index.search("paracetamol", 5).isEmpty());
+        assertEquals(2, index.search("paracetamol", 0).get(0).getStock());
+    }
+
+    @Test
+    void whenUpsertRenamesProduct_shouldReindexName() {
+        index.upsertAll(List.of(product(2L, "Naproxeno 250mg", 200, true)));
+
+        assertTrue(index.search("ibuprofeno", 5).isEmpty());
+        assertEquals(List.of(2L), ids(index.search("naproxeno", 5)));
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void whenUpsertNewProduct_shouldAppendToIndex() {
+        index.upsertAll(List.of(product(6L, "Paracetamol Infantil", 40, true)));
+
+        assertEquals(List.of(1L, 6L), ids(index.search("paracetamol", 5)));
+    }
+
+    @Test
+    void whenFind_shouldReturnCurrentStockOrEmptyForUnknownId() {
+        index.upsertAll(List.of(product(3L, "Vitamina C 1000mg", 12, true)));
+
+        assertEquals(12, index.find(3L).orElseThrow().getStock());
+        assertFalse(index.find(4L).orElseThrow().getIsActive());
+        assertTrue(index.find(99L).isEmpty());
+    }
+
+    @Test
+    void whenSearchPage_shouldOrderByNameAndResumeAfterCursor() {
+        index.upsertAll(List.of(product(6L, "Vitamina A", 40, true), product(7L, "Vitamina E", 40, true)));
+
+        List<Product> first = index.searchPage("vitamin", 5, null, null, 2);
+        assertEquals(List.of(5L, 6L), ids(first));
+
+        Product last = first.get(1);
+        assertEquals(List.of(7L), ids(index.searchPage("vitamin", 5, last.getName(), last.getId(), 2)));
+    }
+
+    @Test
+    void whenSearchPage_shouldOrderNamesByCodePointLikeTheDatabaseQuery() {
+        ProductSearchIndex mixed = ProductSearchIndex.of(List.of(
+                product(1L, "vitamina b", 50, true),
+                product(2L, "Ácido con vitamina", 50, true),
+                product(3L, "Vitamina A", 50, true)
+        ));
+
+        List<Product> first = mixed.searchPage("vitamina", 5, null, null, 2);
+        assertEquals(List.of(3L, 1L), ids(first));
+        assertEquals(List.of(2L), ids(mixed.searchPage("vitamina", 5, "vitamina b", 1L, 2)));
+    }
+
+    @Test
+    void whenSearchFaceted_shouldCountEachFacetWithTheOtherFilterApplied() {
+        ProductSearchIndex faceted = ProductSearchIndex.of(List.of(
+                product(1L, "Vitamina C", "Vitaminas", "Genfar", 50),
+                product(2L, "Vitamina D", "Vitaminas", "Bayer", 50),
+                product(3L, "Vitamina C Infantil", "Pediatría", "Genfar", 50),
+                product(4L, "Vitamina E", "Vitaminas", "Genfar", 1)
+        ));
+
+        FacetedProducts all = faceted.searchFaceted("vitamina", 5, null, null);
+        assertEquals(3, all.getProducts().size());
+        assertEquals(Map.of("Vitaminas", 2L, "Pediatría", 1L), all.getCategoryCounts());
+        assertEquals(Map.of("Genfar", 2L, "Bayer", 1L), all.getBrandCounts());
+
+        FacetedProducts genfar = faceted.searchFaceted("vitamina", 5, "Vitaminas", "Genfar");
+        assertEquals(List.of(1L), ids(genfar.getProducts()));
+        assertEquals(Map.of("Vitaminas", 1L, "Pediatría", 1L), genfar.getCategoryCounts());
+        assertEquals(Map.of("Genfar", 1L, "Bayer", 1L), genfar.getBrandCounts());
+    }
+
+    @Test
+    void whenUpsertChangesBrand_shouldMoveProductBetweenFacets() {
+        index.upsertAll(List.of(product(1L, "Paracetamol 500mg", "Analgésicos", "Genfar", 150)));
+        index.upsertAll(List.of(product(1L, "Paracetamol 500mg", "Analgésicos", "MK", 150)));
+
+        FacetedProducts result = index.searchFaceted("paracetamol", 5, null, "Genfar");
+
+        assertTrue(result.getProducts().isEmpty());
+        assertEquals(Map.of("MK", 1L), result.getBrandCounts());
+    }
+
+    private static List<Long> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+
+    private static Product product(Long id, String name, int stock, boolean active) {
+        return Product.builder().id(id).name(name).stock(stock).isActive(active).build();
+    }
+
+    private static Product product(Long id, String name, String category, String brand, int stock) {
+        return Product.builder().id(id).name(name).category(category).brand(brand).stock(stock).isActive(true).build();
+    }
+}
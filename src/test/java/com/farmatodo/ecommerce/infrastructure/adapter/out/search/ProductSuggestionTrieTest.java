@@ -0,0 +1,62 @@
+package com.farmatodo.ecommerce.infrastructure.adapter.out.search;
+
+import com.farmatodo.ecommerce.domain.model.ProductSuggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSuggestionTrieTest {
+
+    private final ProductSuggestionTrie trie = ProductSuggestionTrie.build(List.of(
+            suggestion("Vitamina C 1000mg", 10),
+            suggestion("Vitamina D3 5000 UI", 40),
+            suggestion("Complejo B Vitaminas", 5),
+            suggestion("Acetaminofén 500mg", 25),
+            suggestion("Ibuprofeno 400mg", 0)
+    ));
+
+    @Test
+    void whenSuggest_shouldReturnPrefixMatchesByPopularity() {
+        assertEquals(List.of("Vitamina D3 5000 UI", "Vitamina C 1000mg", "Complejo B Vitaminas"),
+                names(trie.suggest("vit", 10)));
+    }
+
+    @Test
+    void whenSuggest_shouldFoldAccentsAndCase() {
+        assertEquals(List.of("Acetaminofén 500mg"), names(trie.suggest("ACETAMINOFEN", 10)));
+        assertEquals(List.of("Acetaminofén 500mg"), names(trie.suggest("acetaminofén 5", 10)));
+    }
+
+    @Test
+    void whenSuggest_shouldRespectLimitAndIgnoreBlankPrefix() {
+        assertEquals(1, trie.suggest("vit", 1).size());
+        assertTrue(trie.suggest("   ", 5).isEmpty());
+        assertTrue(trie.suggest("xyz", 5).isEmpty());
+    }
+
+    @Test
+    void whenRangeIsLarge_shouldServePrecomputedTopKWithoutDuplicates() {
+        List<ProductSuggestion> catalog = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            catalog.add(suggestion("Paracetamol " + i + " Paracetamol", i));
+        }
+        ProductSuggestionTrie large = ProductSuggestionTrie.build(catalog);
+
+        List<ProductSuggestion> top = large.suggest("para", 10);
+
+        assertEquals(10, top.size());
+        assertEquals(1999, top.get(0).getPopularity());
+        assertEquals(1990, top.get(9).getPopularity());
+    }
+
+    private static List<String> names(List<ProductSuggestion> suggestions) {
+        return suggestions.stream().map(ProductSuggestion::getName).toList();
+    }
+
+    private static ProductSuggestion suggestion(String name, long popularity) {
+        return ProductSuggestion.builder().name(name).popularity(popularity).build();
+    }
+}
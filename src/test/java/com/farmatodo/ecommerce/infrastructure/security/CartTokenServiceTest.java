@@ -0,0 +1,56 @@
+package com.farmatodo.ecommerce.infrastructure.security;
+
+import com.farmatodo.ecommerce.domain.model.CartToken;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartTokenServiceTest {
+
+    private static final String KEY = Base64.getEncoder().encodeToString("clave-de-prueba-de-32-bytes-1234".getBytes());
+
+    private final CartTokenService service = new CartTokenService(KEY, 72);
+
+    @Test
+    void whenTokenIsIssued_shouldVerifyBackToSameCart() {
+        Map<Long, Integer> lines = new LinkedHashMap<>();
+        lines.put(1L, 2);
+        lines.put(7L, 1);
+
+        String token = service.issue("session-1", lines);
+        CartToken cart = service.verify(token).orElseThrow();
+
+        assertTrue(service.isToken(token));
+        assertEquals("session-1", cart.sessionId());
+        assertEquals(lines, cart.lines());
+    }
+
+    @Test
+    void whenTokenIsTampered_shouldBeRejected() {
+        String token = service.issue("session-1", Map.of(1L, 2));
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("session-1|" + System.currentTimeMillis() / 1000 + "|1:50").getBytes());
+
+        assertTrue(service.verify(forgedPayload + token.substring(token.indexOf('.'))).isEmpty());
+        assertTrue(service.verify("no-es.un-token").isEmpty());
+        assertTrue(new CartTokenService(Base64.getEncoder().encodeToString("otra-clave-distinta-de-32-bytes!".getBytes()), 72)
+                .verify(token).isEmpty());
+    }
+
+    @Test
+    void whenTokenIsExpired_shouldBeRejected() {
+        CartTokenService expiring = new CartTokenService(KEY, -1);
+
+        assertTrue(expiring.verify(expiring.issue("session-1", Map.of(1L, 2))).isEmpty());
+    }
+
+    @Test
+    void whenValueIsPlainSessionId_shouldNotBeTreatedAsToken() {
+        assertFalse(service.isToken("6f1c2d3e-0000-4000-8000-000000000000"));
+        assertFalse(service.isToken(null));
+    }
+}